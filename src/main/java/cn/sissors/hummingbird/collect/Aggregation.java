@@ -0,0 +1,223 @@
+package cn.sissors.hummingbird.collect;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table.Cell;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Group-by, pivot and rollup aggregation over the populated cells of a container.
+ *
+ * <p>Every cell is placed into a result cell by a row group function and a column
+ * group function, and all values placed into the same result cell are reduced by an
+ * aggregator, which is any {@link Collector} (see {@link Aggregators}). By default
+ * cells keep their own row and column, e.g.
+ *
+ * <pre>{@code
+ * // sum of every column, as a single row "sum"
+ * Aggregation.of(container).groupRows(row -> "sum")
+ *         .aggregate(Aggregators.sum(), () -> new CSVTableContainer<>("sum"));
+ * // maximum of every row per hour, plus a total row and a total column
+ * Aggregation.of(container).groupRows(time -> time.substring(0, 2)).groupColumns(column -> "max")
+ *         .rollupRows("all").rollupColumns("all")
+ *         .aggregate(Aggregators.max(), () -> new CSVTableContainer<>("hour"));
+ * }</pre>
+ *
+ * <p>All result cells, including rollup totals, are computed in a single parallel
+ * pass over {@link TableContainer#cells()}. Partial results are combined in encounter
+ * order, so rows and columns of the result keep the order in which their groups first
+ * appear. The source container must not be modified during the aggregation.
+ *
+ * <p>An aggregation is immutable, every method returns a new one.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class Aggregation<R, C, V, G, H> {
+    private final TableContainer<R, C, V> source;
+    private final Function<Cell<R, C, V>, G> rowGrouper;
+    private final Function<Cell<R, C, V>, H> columnGrouper;
+    private final boolean rollupRows;
+    private final G rowTotalKey;
+    private final boolean rollupColumns;
+    private final H columnTotalKey;
+
+    private Aggregation(TableContainer<R, C, V> source,
+                        Function<Cell<R, C, V>, G> rowGrouper, Function<Cell<R, C, V>, H> columnGrouper,
+                        boolean rollupRows, G rowTotalKey, boolean rollupColumns, H columnTotalKey) {
+        this.source = source;
+        this.rowGrouper = rowGrouper;
+        this.columnGrouper = columnGrouper;
+        this.rollupRows = rollupRows;
+        this.rowTotalKey = rowTotalKey;
+        this.rollupColumns = rollupColumns;
+        this.columnTotalKey = columnTotalKey;
+    }
+
+    /**
+     * Start an aggregation which keeps rows and columns of the source.
+     *
+     * @param source the container to aggregate
+     * @return the aggregation
+     */
+    public static <R, C, V> Aggregation<R, C, V, R, C> of(TableContainer<R, C, V> source) {
+        return new Aggregation<>(source, Cell::getRowKey, Cell::getColumnKey, false, null, false, null);
+    }
+
+    /**
+     * Group rows by a function of row keys, which discards a previous {@link #rollupRows(Object)}.
+     *
+     * @param rowGroup maps a row key to the row key of result
+     * @return the aggregation
+     */
+    public <G2> Aggregation<R, C, V, G2, H> groupRows(Function<? super R, ? extends G2> rowGroup) {
+        return new Aggregation<>(source, cell -> rowGroup.apply(cell.getRowKey()), columnGrouper,
+                false, null, rollupColumns, columnTotalKey);
+    }
+
+    /**
+     * Group columns by a function of column keys, which discards a previous {@link #rollupColumns(Object)}.
+     *
+     * @param columnGroup maps a column key to the column key of result
+     * @return the aggregation
+     */
+    public <H2> Aggregation<R, C, V, G, H2> groupColumns(Function<? super C, ? extends H2> columnGroup) {
+        return new Aggregation<>(source, rowGrouper, cell -> columnGroup.apply(cell.getColumnKey()),
+                rollupRows, rowTotalKey, false, null);
+    }
+
+    /**
+     * Place cells by arbitrary functions of cells, e.g. moving a part of row keys
+     * into columns, or transposing the table by <code>pivot(Cell::getColumnKey, Cell::getRowKey)</code>.
+     *
+     * @param rowKey    maps a cell to the row key of result
+     * @param columnKey maps a cell to the column key of result
+     * @return the aggregation
+     */
+    public <G2, H2> Aggregation<R, C, V, G2, H2> pivot(Function<? super Cell<R, C, V>, ? extends G2> rowKey,
+                                                      Function<? super Cell<R, C, V>, ? extends H2> columnKey) {
+        return new Aggregation<R, C, V, G2, H2>(source, rowKey::apply, columnKey::apply, false, null, false, null);
+    }
+
+    /**
+     * Append a row which aggregates all rows of every column.
+     *
+     * @param totalKey the key of total row, which must not equal any row group
+     * @return the aggregation
+     */
+    public Aggregation<R, C, V, G, H> rollupRows(G totalKey) {
+        return new Aggregation<>(source, rowGrouper, columnGrouper, true, totalKey, rollupColumns, columnTotalKey);
+    }
+
+    /**
+     * Append a column which aggregates all columns of every row.
+     *
+     * @param totalKey the key of total column, which must not equal any column group
+     * @return the aggregation
+     */
+    public Aggregation<R, C, V, G, H> rollupColumns(H totalKey) {
+        return new Aggregation<>(source, rowGrouper, columnGrouper, rollupRows, rowTotalKey, true, totalKey);
+    }
+
+    /**
+     * Aggregate into a new container.
+     *
+     * <p>The result usually has other key and value types than the source, so its
+     * container is created by the factory, e.g. {@code () -> new CSVTableContainer<>("time")}.
+     *
+     * @param aggregator reduces values placed into the same result cell
+     * @param factory    creates the empty result container
+     * @return the result container
+     */
+    public <T> TableContainer<G, H, T> aggregate(Collector<? super V, ?, T> aggregator,
+                                                 Supplier<? extends TableContainer<G, H, T>> factory) {
+        return run(aggregator, factory.get());
+    }
+
+    private <A, T> TableContainer<G, H, T> run(Collector<? super V, A, T> aggregator, TableContainer<G, H, T> result) {
+        Groups<A> groups = source.cells().parallel().collect(
+                () -> new Groups<>(aggregator.supplier(), aggregator.accumulator(), aggregator.combiner()),
+                Groups::accumulate, Groups::combine);
+        Function<A, T> finisher = aggregator.finisher();
+        if (groups.cells.isEmpty()) {
+            return result;
+        }
+        G firstRowKey = groups.cells.keySet().iterator().next();
+        groups.columnKeys.forEach(columnKey -> result.push(firstRowKey, columnKey, null));
+        groups.cells.forEach((rowKey, row) -> {
+            row.forEach((columnKey, accumulation) -> result.push(rowKey, columnKey, finisher.apply(accumulation)));
+            if (rollupColumns) {
+                result.push(rowKey, columnTotalKey, finisher.apply(groups.columnTotals.get(rowKey)));
+            }
+        });
+        if (rollupRows) {
+            groups.rowTotals.forEach((columnKey, accumulation)
+                    -> result.push(rowTotalKey, columnKey, finisher.apply(accumulation)));
+            if (rollupColumns) {
+                result.push(rowTotalKey, columnTotalKey, finisher.apply(groups.grandTotal));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Partial accumulations of a range of cells.
+     */
+    private class Groups<A> {
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, ? super V> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final Map<G, Map<H, A>> cells = Maps.newLinkedHashMap();
+        private final Set<H> columnKeys = Sets.newLinkedHashSet();
+        private final Map<H, A> rowTotals = Maps.newLinkedHashMap();
+        private final Map<G, A> columnTotals = Maps.newHashMap();
+        private A grandTotal;
+
+        private Groups(Supplier<A> supplier, BiConsumer<A, ? super V> accumulator, BinaryOperator<A> combiner) {
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        private void accumulate(Cell<R, C, V> cell) {
+            G rowKey = rowGrouper.apply(cell);
+            H columnKey = columnGrouper.apply(cell);
+            V value = cell.getValue();
+            columnKeys.add(columnKey);
+            accumulator.accept(cells.computeIfAbsent(rowKey, key -> Maps.newLinkedHashMap())
+                    .computeIfAbsent(columnKey, key -> supplier.get()), value);
+            if (rollupRows) {
+                accumulator.accept(rowTotals.computeIfAbsent(columnKey, key -> supplier.get()), value);
+            }
+            if (rollupColumns) {
+                accumulator.accept(columnTotals.computeIfAbsent(rowKey, key -> supplier.get()), value);
+            }
+            if (rollupRows && rollupColumns) {
+                if (grandTotal == null) {
+                    grandTotal = supplier.get();
+                }
+                accumulator.accept(grandTotal, value);
+            }
+        }
+
+        private void combine(Groups<A> other) {
+            columnKeys.addAll(other.columnKeys);
+            other.cells.forEach((rowKey, row) -> {
+                Map<H, A> thisRow = cells.computeIfAbsent(rowKey, key -> Maps.newLinkedHashMap());
+                row.forEach((columnKey, accumulation) -> thisRow.merge(columnKey, accumulation, combiner));
+            });
+            other.rowTotals.forEach((columnKey, accumulation) -> rowTotals.merge(columnKey, accumulation, combiner));
+            other.columnTotals.forEach((rowKey, accumulation) -> columnTotals.merge(rowKey, accumulation, combiner));
+            if (other.grandTotal != null) {
+                grandTotal = grandTotal == null ? other.grandTotal : combiner.apply(grandTotal, other.grandTotal);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package cn.sissors.hummingbird.collect;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Built-in aggregators used by {@link Aggregation}.
+ *
+ * <p>An aggregator is a plain {@link Collector}, so any collector such as
+ * <code>Collectors.summingDouble(ResultUnit::getResult)</code> can be used as a
+ * custom aggregator. Collectors must support parallel reduction, i.e. provide a
+ * correct combiner.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class Aggregators {
+    @Contract(pure = true)
+    private Aggregators() {
+    }
+
+    /**
+     * Count populated cells.
+     *
+     * @return the aggregator
+     */
+    public static Collector<Object, ?, Long> count() {
+        return Collectors.counting();
+    }
+
+    /**
+     * Sum numeric cells as double.
+     *
+     * @return the aggregator
+     */
+    public static Collector<Number, ?, Double> sum() {
+        return Collectors.summingDouble(Number::doubleValue);
+    }
+
+    /**
+     * Average numeric cells as double.
+     *
+     * @return the aggregator
+     */
+    public static Collector<Number, ?, Double> average() {
+        return Collectors.averagingDouble(Number::doubleValue);
+    }
+
+    /**
+     * Find the maximum cell in natural order.
+     *
+     * @param <V> value type
+     * @return the aggregator
+     */
+    public static <V extends Comparable<? super V>> Collector<V, ?, V> max() {
+        return Collectors.collectingAndThen(Collectors.maxBy(Comparator.<V>naturalOrder()), Aggregators::orNull);
+    }
+
+    /**
+     * Find the minimum cell in natural order.
+     *
+     * @param <V> value type
+     * @return the aggregator
+     */
+    public static <V extends Comparable<? super V>> Collector<V, ?, V> min() {
+        return Collectors.collectingAndThen(Collectors.minBy(Comparator.<V>naturalOrder()), Aggregators::orNull);
+    }
+
+    private static <V> V orNull(Optional<V> value) {
+        return value.orElse(null);
+    }
+}
@@ -0,0 +1,228 @@
+package cn.sissors.hummingbird.collect;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Supplier;
+
+/**
+ * A secondary index of a single column, which keeps row keys sorted by their values
+ * in the column.
+ *
+ * <p>Indexes are created by {@link TableContainer#createIndex(Object, Comparator)} and
+ * kept up to date by the container on every push, so range and top-k queries cost
+ * O(log n + k) instead of scanning all rows. Rows with equal values are returned in the
+ * order they were indexed. Empty cells are not indexed.
+ *
+ * <p>Entries are kept in a skip list, so queries never block and may run while another
+ * thread is pushing. Results are weakly consistent in that case.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class ColumnIndex<R, V> {
+    private final Comparator<? super V> comparator;
+    private final NavigableSet<Entry<R, V>> entries;
+    private final Map<Object, Entry<R, V>> rows;
+    private long sequence;
+    private volatile boolean stale;
+
+    ColumnIndex(Comparator<? super V> comparator) {
+        this.comparator = comparator;
+        this.entries = new ConcurrentSkipListSet<>(this::compare);
+        this.rows = Maps.newConcurrentMap();
+        this.sequence = 0;
+        this.stale = true;
+    }
+
+    /**
+     * Stand-in for <code>null</code> row keys, which are not allowed in concurrent maps.
+     */
+    private enum NullKey {
+        INSTANCE
+    }
+
+    /**
+     * Get the comparator which orders values of the column.
+     *
+     * @return the comparator
+     */
+    public Comparator<? super V> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Get the count of indexed rows, i.e. non-empty cells of the column.
+     *
+     * @return the count of rows
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Get rows whose values are in the given range, in ascending order of values.
+     *
+     * @param from          the lowest value
+     * @param fromInclusive whether rows equal to the lowest value are included
+     * @param to            the highest value
+     * @param toInclusive   whether rows equal to the highest value are included
+     * @return row keys
+     */
+    public List<R> range(V from, boolean fromInclusive, V to, boolean toInclusive) {
+        int order = comparator.compare(from, to);
+        if (order > 0 || order == 0 && !(fromInclusive && toInclusive)) {
+            return Lists.newArrayList();
+        }
+        return rowKeys(entries.subSet(lowerBound(from, fromInclusive), true, upperBound(to, toInclusive), true).iterator(),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get rows whose values are above the given value, in ascending order of values.
+     *
+     * @param from      the lowest value
+     * @param inclusive whether rows equal to the lowest value are included
+     * @return row keys
+     */
+    public List<R> above(V from, boolean inclusive) {
+        return rowKeys(entries.tailSet(lowerBound(from, inclusive), true).iterator(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get rows whose values are below the given value, in ascending order of values.
+     *
+     * @param to        the highest value
+     * @param inclusive whether rows equal to the highest value are included
+     * @return row keys
+     */
+    public List<R> below(V to, boolean inclusive) {
+        return rowKeys(entries.headSet(upperBound(to, inclusive), true).iterator(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get at most k rows with the highest values, in descending order of values.
+     *
+     * @param k the count of rows
+     * @return row keys
+     */
+    public List<R> top(int k) {
+        return rowKeys(entries.descendingIterator(), k);
+    }
+
+    /**
+     * Get at most k rows with the lowest values, in ascending order of values.
+     *
+     * @param k the count of rows
+     * @return row keys
+     */
+    public List<R> bottom(int k) {
+        return rowKeys(entries.iterator(), k);
+    }
+
+    /**
+     * Update the value of a row, an empty cell removes the row from index.
+     *
+     * @param row   row key
+     * @param value the current value of the cell
+     */
+    synchronized void update(R row, V value) {
+        if (stale) {
+            return;
+        }
+        Object key = row != null ? row : NullKey.INSTANCE;
+        Entry<R, V> previous = rows.get(key);
+        if (previous != null) {
+            if (value != null && comparator.compare(previous.value, value) == 0) {
+                return;
+            }
+            entries.remove(previous);
+            rows.remove(key);
+        }
+        if (value != null) {
+            Entry<R, V> entry = new Entry<>(value, sequence++, row);
+            entries.add(entry);
+            rows.put(key, entry);
+        }
+    }
+
+    /**
+     * Mark all entries as outdated, the index will be reloaded before the next query.
+     */
+    void invalidate() {
+        this.stale = true;
+    }
+
+    /**
+     * Reload all entries from the column if the index has been invalidated.
+     *
+     * @param column reads the column as (row, value), or <code>null</code> if the column doesn't exist
+     */
+    synchronized void reloadIfStale(Supplier<Map<R, V>> column) {
+        if (!stale) {
+            return;
+        }
+        entries.clear();
+        rows.clear();
+        this.stale = false;
+        Map<R, V> cells = column.get();
+        if (cells != null) {
+            cells.forEach(this::update);
+        }
+    }
+
+    /**
+     * Create an empty index with the same comparator, which is loaded on the first query.
+     *
+     * @return a new index
+     */
+    ColumnIndex<R, V> emptyCopy() {
+        return new ColumnIndex<>(comparator);
+    }
+
+    boolean isStale() {
+        return stale;
+    }
+
+    private List<R> rowKeys(Iterator<Entry<R, V>> iterator, int limit) {
+        List<R> rowKeys = Lists.newArrayList();
+        while (rowKeys.size() < limit && iterator.hasNext()) {
+            rowKeys.add(iterator.next().row);
+        }
+        return rowKeys;
+    }
+
+    private Entry<R, V> lowerBound(V value, boolean inclusive) {
+        return new Entry<>(value, inclusive ? Long.MIN_VALUE : Long.MAX_VALUE, null);
+    }
+
+    private Entry<R, V> upperBound(V value, boolean inclusive) {
+        return new Entry<>(value, inclusive ? Long.MAX_VALUE : Long.MIN_VALUE, null);
+    }
+
+    private int compare(Entry<R, V> a, Entry<R, V> b) {
+        int result = comparator.compare(a.value, b.value);
+        return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+    }
+
+    /**
+     * A row ordered by (value, the order it was indexed).
+     */
+    private static class Entry<R, V> {
+        private final V value;
+        private final long sequence;
+        private final R row;
+
+        private Entry(V value, long sequence, R row) {
+            this.value = value;
+            this.sequence = sequence;
+            this.row = row;
+        }
+    }
+}
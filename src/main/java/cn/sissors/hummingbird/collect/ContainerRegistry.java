@@ -0,0 +1,156 @@
+package cn.sissors.hummingbird.collect;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import cn.sissors.hummingbird.runtime.report.ExecutionReport;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * A registry of containers which are still alive in memory.
+ *
+ * <p>Every container, including clones, snapshots and deserialized ones, is registered
+ * with a unique id when it's created. The registry holds containers through weak
+ * references, so it never keeps a container alive, and a container disappears from the
+ * registry once it's collected by the garbage collector.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public final class ContainerRegistry {
+    private final static AtomicLong CONTAINER_ID = new AtomicLong(0L);
+    private final static Map<Long, ContainerReference> CONTAINERS = new ConcurrentSkipListMap<>();
+    private final static ReferenceQueue<TableContainer<?, ?, ?>> COLLECTED = new ReferenceQueue<>();
+
+    private ContainerRegistry() {
+    }
+
+    /**
+     * Register a container which has just been created.
+     *
+     * @param container the container
+     * @return the id assigned to the container
+     */
+    static long register(TableContainer<?, ?, ?> container) {
+        expunge();
+        long id = CONTAINER_ID.incrementAndGet();
+        CONTAINERS.put(id, new ContainerReference(id, container));
+        return id;
+    }
+
+    /**
+     * Get the count of containers ever registered, including clones, snapshots and
+     * deserialized ones, while {@link TableContainer#CONTAINER_COUNT()} only counts
+     * constructed containers.
+     *
+     * @return the count of registered containers
+     */
+    public static long registeredCount() {
+        return CONTAINER_ID.get();
+    }
+
+    /**
+     * Get the count of containers which have not been collected yet.
+     *
+     * @return the count of live containers
+     */
+    public static int liveCount() {
+        expunge();
+        return CONTAINERS.size();
+    }
+
+    /**
+     * Get containers which have not been collected yet, ordered by creation.
+     *
+     * @return a list of live containers
+     */
+    public static List<TableContainer<?, ?, ?>> liveContainers() {
+        expunge();
+        return CONTAINERS.values().stream()
+                .map(Reference::get)
+                .filter(container -> container != null)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Create a report of memory footprint of all live containers.
+     *
+     * @return a new report
+     * @see #report(ExecutionReport)
+     */
+    public static ExecutionReport report() {
+        return report(ExecutionReport.create());
+    }
+
+    /**
+     * Put memory footprint of all live containers into a report.
+     *
+     * <p>The report contains <code>container.live</code>, <code>container.registered</code> and
+     * <code>container.bytes</code> in total, and the following entries for each container,
+     * where <code>{id}</code> is the id of container:
+     * <ul>
+     * <li><code>container.{id}.type</code>: simple name of the container class</li>
+     * <li><code>container.{id}.header</code>: header name</li>
+     * <li><code>container.{id}.rows</code>, <code>container.{id}.columns</code>: count of keys</li>
+     * <li><code>container.{id}.keys</code>, <code>container.{id}.structure</code>,
+     * <code>container.{id}.values</code>, <code>container.{id}.bytes</code>: see {@link MemoryFootprint}</li>
+     * </ul>
+     *
+     * <p>The report is taken in the caller's thread, while most containers must not be read
+     * when they're written by other threads. So keys and footprint are only reported for
+     * containers which are safe to read concurrently, i.e. snapshots and concurrent containers,
+     * and <code>container.bytes</code> sums them only. Measure other containers through
+     * {@link TableContainer#memoryFootprint()} in the thread writing them, or report their
+     * snapshots instead. Estimating visits every cell, so it's not cheap for large containers.
+     *
+     * @param report the report to put into
+     * @return the given report
+     */
+    @CanIgnoreReturnValue
+    public static ExecutionReport report(ExecutionReport report) {
+        List<TableContainer<?, ?, ?>> containers = liveContainers();
+        long total = 0L;
+        for (TableContainer<?, ?, ?> container : containers) {
+            String prefix = "container." + container.containerId() + ".";
+            report.put(prefix + "type", container.getClass().getSimpleName());
+            report.put(prefix + "header", String.valueOf(container.getHeaderName()));
+            if (!container.isThreadSafe()) {
+                continue;
+            }
+            MemoryFootprint footprint = container.memoryFootprint();
+            report.put(prefix + "rows", container.rowKeys().size());
+            report.put(prefix + "columns", container.columnKeys().size());
+            report.put(prefix + "keys", footprint.keys());
+            report.put(prefix + "structure", footprint.structure());
+            report.put(prefix + "values", footprint.values());
+            report.put(prefix + "bytes", footprint.total());
+            total += footprint.total();
+        }
+        report.put("container.live", containers.size());
+        report.put("container.registered", registeredCount());
+        report.put("container.bytes", total);
+        return report;
+    }
+
+    private static void expunge() {
+        Reference<?> reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            CONTAINERS.remove(((ContainerReference) reference).id);
+        }
+    }
+
+    private static class ContainerReference extends WeakReference<TableContainer<?, ?, ?>> {
+        private final long id;
+
+        private ContainerReference(long id, TableContainer<?, ?, ?> container) {
+            super(container, COLLECTED);
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package cn.sissors.hummingbird.collect;
+
+/**
+ * The type of joining two containers on row keys, see {@link TableContainer#join(TableContainer, JoinType)}.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public enum JoinType {
+    /**
+     * Keep only rows which exist in both containers.
+     */
+    INNER,
+    /**
+     * Keep all rows of the left container.
+     */
+    LEFT,
+    /**
+     * Keep all rows of both containers, rows only in the right container come last.
+     */
+    OUTER
+}
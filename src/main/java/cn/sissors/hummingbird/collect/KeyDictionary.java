@@ -0,0 +1,194 @@
+package cn.sissors.hummingbird.collect;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.Contract;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A dictionary that interns keys into dense integer ids, which are assigned
+ * in the order that keys are first seen.
+ *
+ * <p>It's used by containers which address cells through (row id, column id)
+ * instead of nested maps.
+ *
+ * <p>The dictionary is append-only. Keys are kept in fixed-size chunks that are
+ * never reallocated, so one thread may keep interning keys while other threads
+ * read the ids and keys which were assigned before.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class KeyDictionary<K> implements Serializable {
+    private final static int CHUNK_SHIFT = 10;
+    private final static int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private Map<Object, Integer> ids;
+    private volatile Object[][] chunks;
+    private volatile int size;
+
+    /**
+     * Stand-in for <code>null</code> keys, which are not allowed in concurrent maps.
+     */
+    private enum NullKey {
+        INSTANCE
+    }
+
+    public KeyDictionary() {
+        this.ids = Maps.newConcurrentMap();
+        this.chunks = new Object[1][];
+        this.size = 0;
+    }
+
+    private KeyDictionary(KeyDictionary<K> other) {
+        this.ids = Maps.newConcurrentMap();
+        this.ids.putAll(other.ids);
+        int size = other.size;
+        Object[][] chunks = other.chunks;
+        this.chunks = new Object[chunks.length][];
+        for (int i = 0; i < chunks.length && chunks[i] != null; i++) {
+            this.chunks[i] = chunks[i].clone();
+        }
+        this.size = size;
+    }
+
+    @Contract(value = "!null -> param1", pure = true)
+    private static Object mask(Object key) {
+        return key != null ? key : NullKey.INSTANCE;
+    }
+
+    /**
+     * Get the id of the given key.
+     *
+     * @param key the key
+     * @return the id of the key, or <code>-1</code> if the key has not been interned
+     */
+    public int id(K key) {
+        Integer id = ids.get(mask(key));
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Get the id of the given key, assigning a new one if the key has not been seen.
+     *
+     * <p>Only one thread is allowed to intern keys at a time.
+     *
+     * @param key the key
+     * @return the id of the key
+     */
+    public int intern(K key) {
+        Object maskedKey = mask(key);
+        Integer id = ids.get(maskedKey);
+        if (id == null) {
+            id = size;
+            Object[][] chunks = this.chunks;
+            int chunk = id >>> CHUNK_SHIFT;
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length << 1);
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new Object[CHUNK_SIZE];
+            }
+            chunks[chunk][id & (CHUNK_SIZE - 1)] = key;
+            this.chunks = chunks;
+            this.size = id + 1;
+            ids.put(maskedKey, id);
+        }
+        return id;
+    }
+
+    /**
+     * Get the key associated with the given id.
+     *
+     * @param id the id
+     * @return the key
+     */
+    @SuppressWarnings("unchecked")
+    public K key(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id: " + id + ", size: " + size);
+        }
+        return (K) chunks[id >>> CHUNK_SHIFT][id & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Check whether the key has been interned.
+     *
+     * @param key the key
+     * @return true or false
+     */
+    public boolean contains(K key) {
+        return ids.containsKey(mask(key));
+    }
+
+    /**
+     * Get the count of interned keys.
+     *
+     * @return the count of keys
+     */
+    @Contract(pure = true)
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get all keys ordered by id.
+     *
+     * <p>The list is a live view without copying, keys interned later appear at its end.
+     *
+     * @return an unmodifiable list of keys
+     */
+    public List<K> keys() {
+        return new KeyList(-1);
+    }
+
+    /**
+     * Get the first keys ordered by id, which is useful to read the dictionary
+     * as it was when it contained the given count of keys.
+     *
+     * @param limit the count of keys
+     * @return an unmodifiable list of keys
+     */
+    public List<K> keys(int limit) {
+        return new KeyList(limit);
+    }
+
+    /**
+     * Create an independent copy of the dictionary.
+     *
+     * @return a new dictionary with the same keys and ids
+     */
+    public KeyDictionary<K> copy() {
+        return new KeyDictionary<>(this);
+    }
+
+    /**
+     * A view of keys ordered by id, either fixed to a count of keys or following the
+     * size of dictionary when the limit is negative.
+     */
+    private class KeyList extends AbstractList<K> implements RandomAccess {
+        private final int limit;
+
+        private KeyList(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public K get(int index) {
+            if (index >= size()) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+            }
+            return key(index);
+        }
+
+        @Override
+        public int size() {
+            return limit >= 0 ? limit : size;
+        }
+    }
+}
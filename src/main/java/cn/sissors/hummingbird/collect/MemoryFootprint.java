@@ -0,0 +1,190 @@
+package cn.sissors.hummingbird.collect;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.Contract;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * An estimation of the heap retained by a container, in bytes.
+ *
+ * <p>The estimation assumes a 64-bit JVM with compressed references, i.e. 12-byte object
+ * headers, 4-byte references and 8-byte alignment. Strings, boxed primitives, json values,
+ * collections and maps are measured deeply, other objects are measured by their own fields
+ * only. It's meant to find which containers dominate the heap, not to be exact.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class MemoryFootprint {
+    private final static int OBJECT_HEADER = 12;
+    private final static int ARRAY_HEADER = 16;
+    private final static int REFERENCE = 4;
+    private final static Map<Class<?>, Long> SHALLOW_SIZES = Maps.newConcurrentMap();
+
+    private final long keys;
+    private final long structure;
+    private final long values;
+
+    public MemoryFootprint(long keys, long structure, long values) {
+        this.keys = keys;
+        this.structure = structure;
+        this.values = values;
+    }
+
+    /**
+     * Get the bytes of row keys and column keys, including their dictionaries.
+     *
+     * @return bytes of keys
+     */
+    @Contract(pure = true)
+    public long keys() {
+        return keys;
+    }
+
+    /**
+     * Get the bytes of structures which organize cells, excluding the values.
+     *
+     * @return bytes of structures
+     */
+    @Contract(pure = true)
+    public long structure() {
+        return structure;
+    }
+
+    /**
+     * Get the bytes of values, where a value shared by many cells is counted once only
+     * if values are deduplicated.
+     *
+     * @return bytes of values
+     */
+    @Contract(pure = true)
+    public long values() {
+        return values;
+    }
+
+    /**
+     * Get the total bytes.
+     *
+     * @return bytes in total
+     */
+    @Contract(pure = true)
+    public long total() {
+        return keys + structure + values;
+    }
+
+    /**
+     * Estimate the bytes of an array.
+     *
+     * @param length      the length of array
+     * @param elementSize the bytes of each element
+     * @return bytes of the array
+     */
+    @Contract(pure = true)
+    public static long sizeOfArray(int length, int elementSize) {
+        return align(ARRAY_HEADER + (long) length * elementSize);
+    }
+
+    /**
+     * Estimate the bytes retained by a value.
+     *
+     * @param value a value
+     * @return bytes of the value, or <code>0</code> for <code>null</code>
+     */
+    public static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return align(OBJECT_HEADER + 12) + sizeOfArray(((String) value).length(), 2);
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return align(OBJECT_HEADER + 8);
+        }
+        if (value instanceof Number || value instanceof Character || value instanceof Boolean) {
+            return align(OBJECT_HEADER + 4);
+        }
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            long size = align(OBJECT_HEADER + REFERENCE) + sizeOfMap(object.length());
+            for (String key : object.keySet()) {
+                size += sizeOf(key) + sizeOf(object.opt(key));
+            }
+            return size;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            long size = align(OBJECT_HEADER + REFERENCE) + sizeOfList(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                size += sizeOf(array.opt(i));
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long size = sizeOfMap(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            long size = sizeOfList(collection.size());
+            for (Object element : collection) {
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        return SHALLOW_SIZES.computeIfAbsent(value.getClass(), MemoryFootprint::shallowSize);
+    }
+
+    private static long sizeOfMap(int size) {
+        // the map object, its table and one node per entry
+        return align(OBJECT_HEADER + 36) + sizeOfArray(Integer.highestOneBit(Math.max(size, 1)) << 1, REFERENCE)
+                + (long) size * align(OBJECT_HEADER + 4 + 3 * REFERENCE);
+    }
+
+    private static long sizeOfList(int size) {
+        return align(OBJECT_HEADER + 8 + REFERENCE) + sizeOfArray(size, REFERENCE);
+    }
+
+    private static long shallowSize(Class<?> clazz) {
+        long size = OBJECT_HEADER;
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Class<?> type = field.getType();
+                if (type == long.class || type == double.class) {
+                    size += 8;
+                } else if (type == int.class || type == float.class) {
+                    size += 4;
+                } else if (type == short.class || type == char.class) {
+                    size += 2;
+                } else if (type == byte.class || type == boolean.class) {
+                    size += 1;
+                } else {
+                    size += REFERENCE;
+                }
+            }
+        }
+        return align(size);
+    }
+
+    @Contract(pure = true)
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("keys=%d, structure=%d, values=%d, total=%d", keys, structure, values, total());
+    }
+}
@@ -0,0 +1,37 @@
+package cn.sissors.hummingbird.collect;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * The policy to resolve a conflict when two containers being merged both hold a
+ * value at the same (row, column).
+ *
+ * <p>The first argument is the value which is already in the target container, the
+ * second one is the incoming value. Returning <code>null</code> leaves the cell empty.
+ * Any {@link BinaryOperator} can be used as a custom combiner, e.g. <code>Double::sum</code>.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+@FunctionalInterface
+public interface MergePolicy<V> extends BinaryOperator<V> {
+    /**
+     * The incoming value replaces the existing one, which is the default policy.
+     *
+     * @param <V> value type
+     * @return the policy
+     */
+    static <V> MergePolicy<V> lastWins() {
+        return (existing, incoming) -> incoming;
+    }
+
+    /**
+     * The existing value is kept and the incoming one is dropped.
+     *
+     * @param <V> value type
+     * @return the policy
+     */
+    static <V> MergePolicy<V> firstWins() {
+        return (existing, incoming) -> existing;
+    }
+}
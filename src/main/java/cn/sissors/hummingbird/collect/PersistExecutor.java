@@ -0,0 +1,420 @@
+package cn.sissors.hummingbird.collect;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import cn.sissors.hummingbird.runtime.report.ExecutionReport;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A background executor which persists snapshots of containers, so that threads
+ * pushing into containers don't wait for disks or remote servers.
+ *
+ * <p>Persists are queued per container and path. A persist submitted while an earlier
+ * one of the same container and path is still queued replaces the queued snapshot with
+ * the newer one, and both callers share the same future, since the newer snapshot
+ * contains everything of the earlier one. Persists of the same container and path
+ * never run at the same time, and are written in the order they're submitted. Snapshots
+ * which hold resources, such as the temporary files of a mapped container, are closed
+ * once they're persisted or replaced.
+ *
+ * <p>The queue is bounded by <code>capacity</code> distinct containers and paths, and
+ * {@link #submit(TableContainer, String)} blocks until there's room once it's full,
+ * which is visible through {@link #queueDepth()} and {@link #report(ExecutionReport)}.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class PersistExecutor {
+    private final static int DEFAULT_THREADS = 2;
+    private final static int DEFAULT_CAPACITY = 256;
+    private final static AtomicInteger EXECUTOR_ID = new AtomicInteger(0);
+
+    private final ExecutorService workers;
+    private final int capacity;
+    private final Object lock = new Object();
+    private final Map<Key, Slot> slots = Maps.newHashMap();
+    private boolean shutdown;
+
+    // metrics, guarded by lock
+    private int queueDepth;
+    private int running;
+    private int maxQueueDepth;
+    private long submitted;
+    private long coalesced;
+    private long completed;
+    private long failed;
+    private long blockedNanos;
+    private long waitNanos;
+    private long writeNanos;
+    private long maxLatencyNanos;
+
+    /**
+     * Create an executor.
+     *
+     * @param threads  count of threads to persist
+     * @param capacity max count of distinct containers and paths which are queued
+     */
+    public PersistExecutor(int threads, int capacity) {
+        if (threads <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("the threads and capacity of executor must be positive");
+        }
+        this.capacity = capacity;
+        int executorId = EXECUTOR_ID.incrementAndGet();
+        AtomicInteger threadId = new AtomicInteger(0);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "hummingbird-persist-" + executorId + "-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.workers = Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * Get the executor used by {@link TableContainer#persistAsync(String)}, which is shut
+     * down when the JVM exits after queued persists are written.
+     *
+     * @return the shared executor
+     */
+    public static PersistExecutor shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Persist a snapshot of container in background.
+     *
+     * <p>The snapshot is taken under the lock of the executor right before it's queued, so a
+     * queued snapshot is only ever replaced by a newer one, even if the container is submitted
+     * from several threads. Containers whose snapshot copies cells make other submitters wait.
+     *
+     * @param container the container, of which a {@link TableContainer#snapshot()} is taken
+     *                  once it can be queued or coalesced
+     * @param path      external storage path
+     * @return a future completed once the snapshot, or a newer one of the same container
+     * and path, is persisted, or completed exceptionally with {@link DataPersistenceException}
+     * @throws RejectedExecutionException the executor is shut down
+     */
+    public CompletableFuture<Void> submit(@NotNull TableContainer<?, ?, ?> container, @NotNull String path) {
+        Key key = new Key(container.containerId(), path);
+        long submitTime = System.nanoTime();
+        Slot slot;
+        Task task;
+        synchronized (lock) {
+            submitted++;
+            while (true) {
+                if (shutdown) {
+                    throw new RejectedExecutionException("the persist executor is shut down");
+                }
+                slot = slots.get(key);
+                if (slot != null && slot.pending != null) {
+                    slot.pending.coalesce(container);
+                    coalesced++;
+                    return slot.pending.future;
+                }
+                if (queueDepth < capacity) {
+                    break;
+                }
+                long blockStart = System.nanoTime();
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failed++;
+                    CompletableFuture<Void> future = new CompletableFuture<>();
+                    future.completeExceptionally(new DataPersistenceException("Data persistence is interrupted"));
+                    return future;
+                } finally {
+                    blockedNanos += System.nanoTime() - blockStart;
+                }
+            }
+            task = new Task(container, submitTime);
+            if (slot == null) {
+                slot = new Slot(key);
+                slots.put(key, slot);
+            }
+            slot.pending = task;
+            queueDepth++;
+            maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+            if (slot.running) {
+                // dispatched by the running persist once it's done
+                return task.future;
+            }
+            slot.running = true;
+        }
+        dispatch(slot);
+        return task.future;
+    }
+
+    private void dispatch(Slot slot) {
+        try {
+            workers.execute(() -> drain(slot));
+        } catch (RejectedExecutionException e) {
+            Task task;
+            synchronized (lock) {
+                task = slot.pending;
+                slot.pending = null;
+                slot.running = false;
+                slots.remove(slot.key);
+                queueDepth--;
+                failed++;
+                lock.notifyAll();
+            }
+            task.release();
+            task.future.completeExceptionally(e);
+        }
+    }
+
+    private void drain(Slot slot) {
+        Task task;
+        synchronized (lock) {
+            task = slot.pending;
+            slot.pending = null;
+            queueDepth--;
+            running++;
+            lock.notifyAll();
+        }
+        long startTime = System.nanoTime();
+        Throwable error = null;
+        try {
+            task.snapshot.persist(slot.key.path);
+        } catch (DataPersistenceException | RuntimeException e) {
+            error = e;
+        } finally {
+            task.release();
+        }
+        long endTime = System.nanoTime();
+        boolean next;
+        synchronized (lock) {
+            running--;
+            waitNanos += startTime - task.submitTime;
+            writeNanos += endTime - startTime;
+            maxLatencyNanos = Math.max(maxLatencyNanos, endTime - task.submitTime);
+            if (error == null) {
+                completed++;
+            } else {
+                failed++;
+            }
+            next = slot.pending != null;
+            if (!next) {
+                slot.running = false;
+                slots.remove(slot.key);
+                lock.notifyAll();
+            }
+        }
+        if (error == null) {
+            task.future.complete(null);
+        } else {
+            task.future.completeExceptionally(error);
+        }
+        if (next) {
+            dispatch(slot);
+        }
+    }
+
+    /**
+     * Stop accepting persists, and wait until queued persists are written.
+     *
+     * @param timeout the max time to wait
+     * @param unit    the unit of timeout
+     * @return true if all queued persists are written, or false if it times out
+     * @throws InterruptedException the waiting thread is interrupted
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            shutdown = true;
+            while (!slots.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+        }
+        workers.shutdown();
+        return workers.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the count of persists which are queued but not started yet, where coalesced
+     * persists are counted once.
+     *
+     * @return the queue depth
+     */
+    public int queueDepth() {
+        synchronized (lock) {
+            return queueDepth;
+        }
+    }
+
+    /**
+     * Get the count of persists which are being written.
+     *
+     * @return the count of running persists
+     */
+    public int running() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * Get the max count of distinct containers and paths which are queued.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Put metrics of the executor into a report, which contains the following entries:
+     * <ul>
+     * <li><code>persist.queued</code>, <code>persist.queued.max</code>: current and max queue depth</li>
+     * <li><code>persist.running</code>: count of persists being written</li>
+     * <li><code>persist.submitted</code>, <code>persist.coalesced</code>: count of persists submitted,
+     * and those merged into a queued one</li>
+     * <li><code>persist.completed</code>, <code>persist.failed</code>: count of persists written or failed</li>
+     * <li><code>persist.blocked.ms</code>: time submitters are blocked by a full queue in total</li>
+     * <li><code>persist.wait.ms</code>, <code>persist.write.ms</code>: average time a persist is queued
+     * and written</li>
+     * <li><code>persist.latency.max.ms</code>: max time from submitting to written</li>
+     * </ul>
+     *
+     * <p>A growing queue, long waits or blocked submitters mean I/O is the bottleneck.
+     *
+     * @param report the report to put into
+     * @return the given report
+     */
+    @CanIgnoreReturnValue
+    public ExecutionReport report(ExecutionReport report) {
+        synchronized (lock) {
+            long finished = completed + failed;
+            report.put("persist.queued", queueDepth);
+            report.put("persist.queued.max", maxQueueDepth);
+            report.put("persist.running", running);
+            report.put("persist.submitted", submitted);
+            report.put("persist.coalesced", coalesced);
+            report.put("persist.completed", completed);
+            report.put("persist.failed", failed);
+            report.put("persist.blocked.ms", toMillis(blockedNanos));
+            report.put("persist.wait.ms", finished == 0 ? 0.0 : toMillis(waitNanos) / finished);
+            report.put("persist.write.ms", finished == 0 ? 0.0 : toMillis(writeNanos) / finished);
+            report.put("persist.latency.max.ms", toMillis(maxLatencyNanos));
+        }
+        return report;
+    }
+
+    /**
+     * Create a report of metrics of the executor.
+     *
+     * @return a new report
+     * @see #report(ExecutionReport)
+     */
+    public ExecutionReport report() {
+        return report(ExecutionReport.create());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static class SharedHolder {
+        private final static PersistExecutor INSTANCE = new PersistExecutor(DEFAULT_THREADS, DEFAULT_CAPACITY);
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    INSTANCE.shutdown(1, TimeUnit.MINUTES);
+                } catch (InterruptedException ignored) {
+                }
+            }, "hummingbird-persist-shutdown"));
+        }
+    }
+
+    private static class Key {
+        private final long containerId;
+        private final String path;
+
+        private Key(long containerId, String path) {
+            this.containerId = containerId;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return containerId == key.containerId && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(containerId, path);
+        }
+    }
+
+    private static class Slot {
+        private final Key key;
+        private Task pending;
+        private boolean running;
+
+        private Slot(Key key) {
+            this.key = key;
+        }
+    }
+
+    private static class Task {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final long submitTime;
+        private volatile TableContainer<?, ?, ?> snapshot;
+        private volatile boolean owned;
+
+        private Task(TableContainer<?, ?, ?> container, long submitTime) {
+            this.snapshot = container.snapshot();
+            this.owned = snapshot != container;
+            this.submitTime = submitTime;
+        }
+
+        /**
+         * Replace the snapshot with a newer one of the container, and release the replaced one.
+         */
+        private void coalesce(TableContainer<?, ?, ?> container) {
+            TableContainer<?, ?, ?> snapshot = container.snapshot();
+            release();
+            this.snapshot = snapshot;
+            this.owned = snapshot != container;
+        }
+
+        /**
+         * Close the snapshot if it holds resources such as temporary files. A read-only
+         * container is its own snapshot, which is never closed here.
+         */
+        private void release() {
+            if (owned && snapshot instanceof Closeable) {
+                try {
+                    ((Closeable) snapshot).close();
+                } catch (IOException ignored) {
+                    // the snapshot is persisted or replaced already, so it doesn't fail the persist
+                }
+            }
+        }
+    }
+}
@@ -7,17 +7,33 @@ import cn.sissors.hummingbird.exceptions.DataPersistenceException;
 import cn.sissors.hummingbird.exceptions.IllegalValueTypeException;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import de.vandermeer.asciitable.AsciiTable;
-import de.vandermeer.asciitable.CWC_LongestLine;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table.Cell;
+import com.google.common.collect.Tables;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.PrintStream;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A collection that associates an ordered pair of keys, called a row key and a
@@ -28,26 +44,38 @@ import java.util.stream.Collectors;
  * @version 2018-10-12
  */
 public abstract class TableContainer<R, C, V> implements Cloneable, Serializable {
+    // kept from 1.3.x, whose containers held cells in rowMap and columnMap, see readObject
+    private static final long serialVersionUID = -6386303083605835726L;
+
     private String NULL_CHARACTER_DISPLAY = "-";
 
-    private static Long CONTAINER_ID;
+    private final static AtomicLong CONTAINER_ID;
+    private final static int PARALLEL_JOIN_THRESHOLD = 1 << 13;
+    private final static int KEY_ENTRY_SIZE = 56;
 
     private String headerName;
-    private Map<R, Map<C, V>> rowMap;
-    private Map<C, Map<R, V>> columnMap;
+    private TableStorage<R, C, V> storage;
+    private transient boolean readOnly;
+    private transient volatile Map<C, ColumnIndex<R, V>> indexes;
+    private transient ValuePool<V> valuePool;
+    private transient long containerId;
 
     static {
-        CONTAINER_ID = 0L;
+        CONTAINER_ID = new AtomicLong(0L);
     }
 
     /**
      * Container id is an auto-increment attribute for identifying a container.
-     * The value of id just equals to the count of container that exists in memory.
+     * The value of id just equals to the count of containers that have been constructed.
+     *
+     * <p>Clones, snapshots and deserialized containers are not counted, see
+     * {@link ContainerRegistry#registeredCount()} for the count of all of them, and
+     * {@link ContainerRegistry#liveCount()} for the count of containers in memory.
      *
-     * @return container count exists in memory
+     * @return container count that have been constructed
      */
     public static Long CONTAINER_COUNT() {
-        return CONTAINER_ID;
+        return CONTAINER_ID.get();
     }
 
     /**
@@ -76,19 +104,23 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
     /**
      * Get the table organized by row keys.
      *
+     * <p>The map is a read-only view derived from the underlying {@link TableStorage}.
+     *
      * @return a nested map whose structure is (row, (column, value))
      */
     public Map<R, Map<C, V>> rowMap() {
-        return rowMap;
+        return storage.rowMap();
     }
 
     /**
      * Get the table organized by column keys.
      *
+     * <p>The map is a read-only view derived from the underlying {@link TableStorage}.
+     *
      * @return a nested map whose structure is (column, (row, value))
      */
     public Map<C, Map<R, V>> columnMap() {
-        return columnMap;
+        return storage.columnMap();
     }
 
     /**
@@ -98,7 +130,8 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
      * @return a map whose structure is (column, value)
      */
     public Map<C, V> singleRow(R row) {
-        return rowMap().get(row);
+        int rowId = storage.rowId(row);
+        return rowId < 0 ? null : storage.rowView(rowId);
     }
 
     /**
@@ -108,31 +141,72 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
      * @return a map whose structure is (row, value)
      */
     public Map<R, V> singleColumn(C column) {
-        return columnMap().get(column);
+        int columnId = storage.columnId(column);
+        return columnId < 0 ? null : storage.columnView(columnId);
     }
 
     /**
      * Get row keys organized as a {@link java.util.List}.
      *
+     * <p>The list is an unmodifiable live view without copying, so row keys pushed
+     * later appear at its end. Methods which replace the whole content, such as
+     * {@link #clean()}, {@link #filter(Predicate, Predicate)} and {@link #sort()},
+     * detach previous views, so call it again afterwards.
+     *
      * @return a list that contains all row keys
      */
     public List<R> rowKeys() {
-        return Lists.newLinkedList(rowMap.keySet());
+        return storage.rowKeys();
     }
 
     /**
      * Get column keys organized as a {@link java.util.List}.
      *
+     * <p>The list is an unmodifiable live view as {@link #rowKeys()}.
+     *
      * @return a list that contains all column keys
      */
     public List<C> columnKeys() {
-        return Lists.newLinkedList(columnMap.keySet());
+        return storage.columnKeys();
+    }
+
+    /**
+     * Get a stream of all populated cells, ordered by row and then by column.
+     *
+     * <p>The stream is backed by a splitting {@link java.util.Spliterator} over the
+     * underlying storage, so <code>cells().parallel()</code> aggregates cells without
+     * intermediate copies. The container must not be modified during the traversal,
+     * take a {@link #snapshot()} first if pushing continues.
+     *
+     * @return a sequential stream of cells
+     */
+    public Stream<Cell<R, C, V>> cells() {
+        if (!isStorageBacked()) {
+            return rowCells();
+        }
+        return StreamSupport.stream(storage.cellSpliterator(), false);
+    }
+
+    /**
+     * Get a stream of populated cells read through {@link #rowKeys()} and
+     * {@link #singleRow(Object)}, which is what {@link #cells()} returns for containers
+     * not backed by {@link TableStorage}. It splits by row keys when run in parallel.
+     *
+     * @return a sequential stream of cells
+     */
+    protected final Stream<Cell<R, C, V>> rowCells() {
+        return rowKeys().stream().flatMap(rowKey -> {
+            Map<C, V> cells = singleRow(rowKey);
+            return cells == null ? Stream.empty() : cells.entrySet().stream()
+                    .filter(cell -> cell.getValue() != null)
+                    .map(cell -> Tables.immutableCell(rowKey, cell.getKey(), cell.getValue()));
+        });
     }
 
     private TableContainer() {
-        CONTAINER_ID++;
-        this.rowMap = Maps.newLinkedHashMap();
-        this.columnMap = Maps.newLinkedHashMap();
+        CONTAINER_ID.incrementAndGet();
+        this.containerId = ContainerRegistry.register(this);
+        this.storage = isStorageBacked() ? new TableStorage<>() : TableStorage.empty();
     }
 
     public TableContainer(String headerName) {
@@ -143,6 +217,8 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
     /**
      * Push a cell into container.
      *
+     * <p>A <code>null</code> value registers the row and column keys but leaves the cell empty.
+     *
      * @param row    row key
      * @param column column key
      * @param value  cell value
@@ -150,13 +226,108 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
      */
     @CanIgnoreReturnValue
     public TableContainer<R, C, V> push(R row, C column, V value) {
-        rowMap.computeIfAbsent(row, k -> Maps.newLinkedHashMap());
-        rowMap.get(row).put(column, value);
-        columnMap.computeIfAbsent(column, k -> Maps.newLinkedHashMap());
-        columnMap.get(column).put(row, value);
+        checkWritable();
+        storage.put(row, column, pooled(value));
+        indexCell(row, column);
+        return this;
+    }
+
+    /**
+     * Push a row of cells into container, which resolves the row only once.
+     *
+     * @param row   row key
+     * @param cells cells of the row as (column, value), <code>null</code> values leave cells empty
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    @SuppressWarnings("unchecked")
+    public TableContainer<R, C, V> pushRow(R row, Map<C, ? extends V> cells) {
+        checkWritable();
+        Object[] values = cells.values().toArray();
+        pushGrid(Collections.singletonList(row), Lists.newArrayList(cells.keySet()),
+                (rowIndex, columnIndex) -> (V) values[columnIndex]);
+        return this;
+    }
+
+    /**
+     * Push a column of cells into container, which resolves the column only once.
+     *
+     * @param column column key
+     * @param cells  cells of the column as (row, value), <code>null</code> values leave cells empty
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    @SuppressWarnings("unchecked")
+    public TableContainer<R, C, V> pushColumn(C column, Map<R, ? extends V> cells) {
+        checkWritable();
+        Object[] values = cells.values().toArray();
+        pushGrid(Lists.newArrayList(cells.keySet()), Collections.singletonList(column),
+                (rowIndex, columnIndex) -> (V) values[rowIndex]);
+        return this;
+    }
+
+    /**
+     * Push columnar data into container, where <code>columns[j][i]</code> is the value
+     * of (rowKeys[i], columnKeys[j]). Every key is resolved once and every row is grown
+     * once, which is much faster than pushing cell by cell.
+     *
+     * @param rowKeys    row keys
+     * @param columnKeys column keys
+     * @param columns    values of each column aligned with row keys, <code>null</code> values leave cells empty
+     * @return container itself (easy to invoke under chain-style)
+     * @throws IllegalArgumentException the shape of values doesn't match the keys
+     */
+    @CanIgnoreReturnValue
+    public TableContainer<R, C, V> bulkLoad(List<R> rowKeys, List<C> columnKeys, V[][] columns) {
+        checkWritable();
+        if (columns.length != columnKeys.size()) {
+            throw new IllegalArgumentException(String.format("%d columns of values for %d column keys",
+                    columns.length, columnKeys.size()));
+        }
+        for (V[] column : columns) {
+            if (column.length != rowKeys.size()) {
+                throw new IllegalArgumentException(String.format("%d values in a column for %d row keys",
+                        column.length, rowKeys.size()));
+            }
+        }
+        pushGrid(rowKeys, columnKeys, (rowIndex, columnIndex) -> columns[columnIndex][rowIndex]);
         return this;
     }
 
+    /**
+     * Push a grid of cells, which every bulk method is implemented through.
+     *
+     * <p>The default implementation writes the grid into {@link TableStorage} in one pass,
+     * or pushes it cell by cell if the container is not backed by the storage.
+     *
+     * @param rowKeys    row keys of the grid
+     * @param columnKeys column keys of the grid
+     * @param cells      values of the grid
+     */
+    protected void pushGrid(List<R> rowKeys, List<C> columnKeys, CellGrid<? extends V> cells) {
+        if (!isStorageBacked()) {
+            pushEach(rowKeys, columnKeys, cells);
+            return;
+        }
+        ValuePool<V> valuePool = this.valuePool;
+        storage.putAll(rowKeys, columnKeys, valuePool == null ? cells
+                : (rowIndex, columnIndex) -> valuePool.intern(cells.get(rowIndex, columnIndex)));
+        rowKeys.forEach(this::rowChanged);
+        Map<C, ColumnIndex<R, V>> indexes = this.indexes;
+        if (indexes != null) {
+            columnKeys.stream().filter(indexes::containsKey)
+                    .forEach(columnKey -> rowKeys.forEach(rowKey -> indexCell(rowKey, columnKey)));
+        }
+    }
+
+    private void pushEach(List<R> rowKeys, List<C> columnKeys, CellGrid<? extends V> cells) {
+        for (int rowIndex = 0; rowIndex < rowKeys.size(); rowIndex++) {
+            for (int columnIndex = 0; columnIndex < columnKeys.size(); columnIndex++) {
+                push(rowKeys.get(rowIndex), columnKeys.get(columnIndex), cells.get(rowIndex, columnIndex));
+            }
+        }
+    }
+
     /**
      * Get a cell based on (row, column).
      *
@@ -166,9 +337,7 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
      */
     @Nullable
     public V get(R row, C column) {
-        V v1 = rowMap.containsKey(row) ? rowMap.get(row).get(column) : null;
-        V v2 = columnMap.containsKey(column) ? columnMap.get(column).get(row) : null;
-        return v1 != null && v1.equals(v2) ? v1 : null;
+        return storage.get(row, column);
     }
 
     /**
@@ -178,11 +347,356 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
      */
     @CanIgnoreReturnValue
     public TableContainer<R, C, V> clean() {
-        this.rowMap = Maps.newLinkedHashMap();
-        this.columnMap = Maps.newLinkedHashMap();
+        checkWritable();
+        this.storage = new TableStorage<>();
+        invalidateIndexes();
         return this;
     }
 
+    /**
+     * Take an immutable snapshot of the container.
+     *
+     * <p>The snapshot has the same type and settings as the container and shares its
+     * content without copying any cell, so it's cheap enough to be taken on every
+     * report. Writes to the container after this call are not visible through the
+     * snapshot, which makes it safe to render or persist the snapshot in another
+     * thread while the owning thread keeps pushing into the container. Containers
+     * which don't keep cells in {@link TableStorage}, such as the numeric ones, copy
+     * all cells into the snapshot instead, see {@link #snapshotCopy()}.
+     *
+     * <p>Any attempt to modify the snapshot, such as {@link #push(Object, Object, Object)},
+     * {@link #clean()}, {@link #filter(Predicate, Predicate)} or {@link #sort()}, throws
+     * {@link ContainerRuntimeException}.
+     *
+     * @return a read-only container
+     */
+    public TableContainer<R, C, V> snapshot() {
+        if (readOnly) {
+            return this;
+        }
+        TableContainer<R, C, V> snapshot = snapshotCopy();
+        snapshot.readOnly = true;
+        snapshot.indexes = emptyIndexes();
+        return snapshot;
+    }
+
+    /**
+     * Create the copy of container which is turned into a snapshot by {@link #snapshot()}.
+     *
+     * <p>The default copy shares the underlying {@link TableStorage}, or is made by
+     * {@link #clone()} if the container is not backed by the storage.
+     *
+     * @return a copy of container
+     */
+    protected TableContainer<R, C, V> snapshotCopy() {
+        if (!isStorageBacked()) {
+            return clone();
+        }
+        TableContainer<R, C, V> snapshot = shallowClone();
+        snapshot.storage = storage.snapshot();
+        return snapshot;
+    }
+
+    /**
+     * Create an empty writable container of the same type and settings, such as the
+     * result of {@link #join(TableContainer, JoinType, UnaryOperator)}.
+     *
+     * <p>The default copy is emptied through {@link #clean()}. Containers whose
+     * <code>clean()</code> modifies state shared with the copy should override it.
+     *
+     * @return an empty container
+     */
+    protected TableContainer<R, C, V> emptyCopy() {
+        TableContainer<R, C, V> copy = shallowClone();
+        copy.storage = isStorageBacked() ? new TableStorage<>() : storage;
+        copy.readOnly = false;
+        copy.indexes = emptyIndexes();
+        return copy.clean();
+    }
+
+    /**
+     * Check whether cells are kept in the underlying {@link TableStorage}, which is true by default.
+     *
+     * <p>Containers which keep their cells elsewhere return false, and then the default
+     * hooks push grids cell by cell, read {@link #cells()} row by row, rebuild the container
+     * to reorganize it, and take snapshots through {@link #clone()}. They still override
+     * {@link #structureSize()}, and {@link #valueSize()} if values are not objects. The
+     * storage of such containers is the shared empty one, so it takes no memory.
+     *
+     * <p>It's called by the constructor, so it must not depend on any field.
+     *
+     * @return true or false
+     */
+    protected boolean isStorageBacked() {
+        return true;
+    }
+
+    /**
+     * Check whether the container is a read-only snapshot.
+     *
+     * @return true or false
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Check whether the container can be read while other threads write into it, which is
+     * true for read-only snapshots. Only such containers are measured by
+     * {@link ContainerRegistry#report()}.
+     *
+     * @return true or false
+     */
+    protected boolean isThreadSafe() {
+        return readOnly;
+    }
+
+    /**
+     * Ensure the container can be modified, which should be called by every
+     * modifying method.
+     *
+     * @throws ContainerRuntimeException the container is a read-only snapshot
+     */
+    protected final void checkWritable() {
+        if (readOnly) {
+            throw new ContainerRuntimeException("the snapshot of container is read-only");
+        }
+    }
+
+    /**
+     * Deduplicate equal values by {@link Object#equals(Object)}.
+     *
+     * @return container itself (easy to invoke under chain-style)
+     * @see #deduplicateValues(ValuePool)
+     */
+    @CanIgnoreReturnValue
+    public TableContainer<R, C, V> deduplicateValues() {
+        return deduplicateValues(ValuePool.byEquality());
+    }
+
+    /**
+     * Keep a single shared instance of equal values, which reduces memory a lot for
+     * tables repeating the same values across many cells. Values already in the
+     * container and values pushed later are replaced by the instances in the pool,
+     * so that <code>get</code> returns them without any decoding.
+     *
+     * <p>Values without value equality, such as {@link org.json.JSONObject}, need a
+     * pool created by {@link ValuePool#byKey(java.util.function.Function)}. Shared values
+     * must not be modified in place. Clones and snapshots share the pool, which is not
+     * persisted. Containers which don't keep cells in {@link TableStorage} only
+     * deduplicate values pushed later, and those keeping no value objects at all,
+     * such as numeric or memory-mapped containers, are not affected.
+     *
+     * @param valuePool the pool of values, or <code>null</code> to stop deduplicating
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public TableContainer<R, C, V> deduplicateValues(@Nullable ValuePool<V> valuePool) {
+        checkWritable();
+        this.valuePool = valuePool;
+        if (valuePool != null && isStorageBacked()) {
+            storage.replaceValues(valuePool::intern);
+        }
+        return this;
+    }
+
+    /**
+     * Get the shared instance of a value if values are deduplicated, which should be
+     * applied by every method that stores a value without {@link #push(Object, Object, Object)}
+     * of this class.
+     *
+     * @param value a value
+     * @return the shared instance, or the value itself if values are not deduplicated
+     */
+    protected final V pooled(V value) {
+        ValuePool<V> valuePool = this.valuePool;
+        return valuePool != null ? valuePool.intern(value) : value;
+    }
+
+    /**
+     * Get the id of container, which is unique among containers created in this process.
+     *
+     * @return the container id
+     * @see ContainerRegistry
+     */
+    public long containerId() {
+        return containerId;
+    }
+
+    /**
+     * Estimate the heap retained by the container, split into keys, structures and values.
+     *
+     * <p>Cells shared with clones or snapshots are counted by each of them. It visits every
+     * cell, so it's not cheap for large containers.
+     *
+     * @return the estimated footprint
+     */
+    public MemoryFootprint memoryFootprint() {
+        long keys = 0L;
+        for (R rowKey : rowKeys()) {
+            keys += KEY_ENTRY_SIZE + MemoryFootprint.sizeOf(rowKey);
+        }
+        for (C columnKey : columnKeys()) {
+            keys += KEY_ENTRY_SIZE + MemoryFootprint.sizeOf(columnKey);
+        }
+        return new MemoryFootprint(keys, structureSize(), valueSize());
+    }
+
+    /**
+     * Estimate the bytes of structures which organize cells, used by {@link #memoryFootprint()}.
+     *
+     * <p>The default estimation measures the underlying {@link TableStorage}. Containers not
+     * backed by the storage should override it.
+     *
+     * @return bytes of structures
+     */
+    protected long structureSize() {
+        return storage.structureSize();
+    }
+
+    /**
+     * Estimate the bytes of values, used by {@link #memoryFootprint()}. A value shared by
+     * many cells is counted once only if values are deduplicated.
+     *
+     * @return bytes of values
+     */
+    protected long valueSize() {
+        if (valuePool == null) {
+            return cells().mapToLong(cell -> MemoryFootprint.sizeOf(cell.getValue())).sum();
+        }
+        Set<Object> distinct = Sets.newIdentityHashSet();
+        return cells().map(Cell::getValue).filter(distinct::add).mapToLong(MemoryFootprint::sizeOf).sum();
+    }
+
+    /**
+     * Create a secondary index on a column whose values are {@link Comparable}.
+     *
+     * @param column column key
+     * @return container itself (easy to invoke under chain-style)
+     * @see #createIndex(Object, Comparator)
+     */
+    @CanIgnoreReturnValue
+    @SuppressWarnings("unchecked")
+    public TableContainer<R, C, V> createIndex(C column) {
+        return createIndex(column, (Comparator<? super V>) Comparator.naturalOrder());
+    }
+
+    /**
+     * Create a secondary index on a column, which keeps row keys sorted by their values
+     * in the column and answers range and top-k queries in O(log n + k), see {@link #index(Object)}.
+     *
+     * <p>The index is updated on every push, and reloaded from the column after the
+     * container is cleaned, filtered, sorted, cloned or loaded. Indexes are not persisted.
+     * An existing index on the column is replaced.
+     *
+     * @param column     column key
+     * @param comparator the order of values
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public TableContainer<R, C, V> createIndex(C column, Comparator<? super V> comparator) {
+        synchronized (this) {
+            Map<C, ColumnIndex<R, V>> indexes = this.indexes != null ? Maps.newHashMap(this.indexes) : Maps.newHashMap();
+            indexes.put(column, new ColumnIndex<>(comparator));
+            this.indexes = indexes;
+        }
+        index(column);
+        return this;
+    }
+
+    /**
+     * Remove the secondary index on a column.
+     *
+     * @param column column key
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public synchronized TableContainer<R, C, V> dropIndex(C column) {
+        if (indexes != null && indexes.containsKey(column)) {
+            Map<C, ColumnIndex<R, V>> indexes = Maps.newHashMap(this.indexes);
+            indexes.remove(column);
+            this.indexes = indexes;
+        }
+        return this;
+    }
+
+    /**
+     * Get the secondary index on a column.
+     *
+     * @param column column key
+     * @return the index, or <code>null</code> if the column is not indexed
+     */
+    @Nullable
+    public ColumnIndex<R, V> index(C column) {
+        Map<C, ColumnIndex<R, V>> indexes = this.indexes;
+        ColumnIndex<R, V> index = indexes != null ? indexes.get(column) : null;
+        if (index != null && index.isStale()) {
+            index.reloadIfStale(() -> singleColumn(column));
+        }
+        return index;
+    }
+
+    /**
+     * Update the secondary index on the column with the current value of a cell, which
+     * should be called by every method that writes a cell without {@link #push(Object, Object, Object)}
+     * of this class. It costs nothing if the column is not indexed. It also notifies
+     * {@link #rowChanged(Object)}.
+     *
+     * @param row    row key
+     * @param column column key
+     */
+    protected final void indexCell(R row, C column) {
+        rowChanged(row);
+        Map<C, ColumnIndex<R, V>> indexes = this.indexes;
+        ColumnIndex<R, V> index = indexes != null ? indexes.get(column) : null;
+        if (index != null && !index.isStale()) {
+            // read the value under the lock of index, so concurrent writes of a cell leave the latest value
+            synchronized (index) {
+                index.update(row, get(row, column));
+            }
+        }
+    }
+
+    /**
+     * Mark all secondary indexes as outdated, which should be called by every method
+     * that replaces cells without {@link #push(Object, Object, Object)}. Indexes are
+     * reloaded from their columns on the next query. It also notifies {@link #contentReplaced()}.
+     */
+    protected final void invalidateIndexes() {
+        contentReplaced();
+        Map<C, ColumnIndex<R, V>> indexes = this.indexes;
+        if (indexes != null) {
+            indexes.values().forEach(ColumnIndex::invalidate);
+        }
+    }
+
+    /**
+     * Notified after cells of a row are written or removed, through {@link #indexCell(Object, Object)}
+     * and {@link #pushGrid(List, List, CellGrid)}. It does nothing by default, and is overridden
+     * to track changes, e.g. by the csv container to persist only changed rows.
+     *
+     * @param row row key
+     */
+    protected void rowChanged(R row) {
+    }
+
+    /**
+     * Notified after cells are replaced without {@link #rowChanged(Object)}, through
+     * {@link #invalidateIndexes()}, e.g. cleaned, filtered, sorted or loaded. It does nothing by default.
+     */
+    protected void contentReplaced() {
+    }
+
+    private Map<C, ColumnIndex<R, V>> emptyIndexes() {
+        Map<C, ColumnIndex<R, V>> indexes = this.indexes;
+        if (indexes == null) {
+            return null;
+        }
+        Map<C, ColumnIndex<R, V>> copies = Maps.newHashMap();
+        indexes.forEach((column, index) -> copies.put(column, index.emptyCopy()));
+        return copies;
+    }
+
     /**
      * Persist container data to external permanent storage.
      *
@@ -191,6 +705,33 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
      */
     public abstract void persist(String path) throws DataPersistenceException;
 
+    /**
+     * Persist container data in background through {@link PersistExecutor#shared()}.
+     *
+     * @param path external storage path
+     * @return a future completed once persisted
+     * @see #persistAsync(String, PersistExecutor)
+     */
+    public CompletableFuture<Void> persistAsync(String path) {
+        return persistAsync(path, PersistExecutor.shared());
+    }
+
+    /**
+     * Persist container data in background.
+     *
+     * <p>A {@link #snapshot()} is taken right now and persisted by the executor, so
+     * pushing into the container can continue at once. Persists of the same container
+     * and path which are still queued are coalesced into the latest one. The future is
+     * completed exceptionally with {@link DataPersistenceException} if persisting fails.
+     *
+     * @param path     external storage path
+     * @param executor the executor to persist in
+     * @return a future completed once persisted
+     */
+    public CompletableFuture<Void> persistAsync(String path, PersistExecutor executor) {
+        return executor.submit(this, path);
+    }
+
     /**
      * Load data from external storage into container.
      *
@@ -209,15 +750,189 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
      */
     @CanIgnoreReturnValue
     public TableContainer<R, C, V> merge(TableContainer<R, C, V> other) {
-        other.rowKeys().forEach(rowKey -> other.columnKeys().forEach(columnKey -> {
-            V value = other.get(rowKey, columnKey);
-            if (value != null) {
-                this.push(rowKey, columnKey, value);
-            }
-        }));
+        return merge(other, MergePolicy.lastWins());
+    }
+
+    /**
+     * Merge two containers into single one and replaced the current. Only populated
+     * cells of the other container are visited.
+     *
+     * @param other  another container with the sample (R, C, V) type
+     * @param policy resolves (existing, incoming) values of the same cell, see {@link MergePolicy}
+     * @return current container
+     */
+    @CanIgnoreReturnValue
+    public TableContainer<R, C, V> merge(TableContainer<R, C, V> other, BinaryOperator<V> policy) {
+        checkWritable();
+        mergeCells(other.rowKeys(), other::singleRow, policy);
         return this;
     }
 
+    /**
+     * Merge many containers into the current one, which is useful to combine partial
+     * results of partitions.
+     *
+     * <p>If the container is backed by {@link TableStorage}, cells of the containers are
+     * copied into storages and merged pairwise as a tree on the common {@link ForkJoinPool},
+     * and the result is merged into the storage of the container directly. Otherwise the
+     * containers are merged one by one without intermediate copies. Only populated cells
+     * are visited. The result equals merging the containers one by one in iteration order,
+     * so {@link MergePolicy#firstWins()} keeps the value of the current container or the
+     * earliest container holding the cell.
+     *
+     * @param others containers with the sample (R, C, V) type
+     * @param policy resolves (existing, incoming) values of the same cell, see {@link MergePolicy}
+     * @return current container
+     */
+    @CanIgnoreReturnValue
+    public TableContainer<R, C, V> mergeAll(Collection<? extends TableContainer<R, C, V>> others,
+                                           BinaryOperator<V> policy) {
+        checkWritable();
+        List<TableContainer<R, C, V>> parts = Lists.newArrayList(others);
+        if (parts.isEmpty()) {
+            return this;
+        }
+        if (!isStorageBacked()) {
+            parts.forEach(part -> mergeCells(part.rowKeys(), part::singleRow, policy));
+            return this;
+        }
+        mergeStorage(ForkJoinPool.commonPool().invoke(new MergeTask<>(parts, 0, parts.size(), policy)), policy);
+        return this;
+    }
+
+    /**
+     * Merge populated cells of a storage into the underlying storage, which is used by
+     * {@link #mergeAll(Collection, BinaryOperator)} for containers backed by the storage.
+     * Changed rows are notified through {@link #rowChanged(Object)}.
+     *
+     * @param cells  the cells to merge
+     * @param policy resolves (existing, incoming) values of the same cell
+     */
+    protected void mergeStorage(TableStorage<R, C, V> cells, BinaryOperator<V> policy) {
+        ValuePool<V> valuePool = this.valuePool;
+        if (valuePool != null) {
+            cells.replaceValues(valuePool::intern);
+        }
+        storage.merge(cells, policy);
+        invalidateIndexes();
+        List<R> rowKeys = cells.rowKeys();
+        for (int rowId = 0; rowId < rowKeys.size(); rowId++) {
+            if (!cells.rowView(rowId).isEmpty()) {
+                rowChanged(rowKeys.get(rowId));
+            }
+        }
+    }
+
+    /**
+     * Merge many containers into the current one, the latest value wins on conflicts.
+     *
+     * @param others containers with the sample (R, C, V) type
+     * @return current container
+     */
+    @CanIgnoreReturnValue
+    public TableContainer<R, C, V> mergeAll(Collection<? extends TableContainer<R, C, V>> others) {
+        return mergeAll(others, MergePolicy.lastWins());
+    }
+
+    /**
+     * Join another container on row keys into a new container, whose columns are the
+     * columns of this container followed by the columns of the other. A column of the
+     * other container which collides with a column of this one is renamed to
+     * <code>"header.column"</code> by the header name of the other, which requires
+     * column keys to be strings.
+     *
+     * @param other another container
+     * @param type  inner, left or outer join
+     * @return the joined container
+     * @see #join(TableContainer, JoinType, UnaryOperator)
+     */
+    @SuppressWarnings("unchecked")
+    public TableContainer<R, C, V> join(TableContainer<R, C, V> other, JoinType type) {
+        return join(other, type, column -> {
+            if (!(column instanceof String)) {
+                throw new ContainerRuntimeException(String.format("column %s exists in both containers", column));
+            }
+            return (C) (other.getHeaderName() + "." + column);
+        });
+    }
+
+    /**
+     * Join another container on row keys into a new container, which is created by
+     * {@link #emptyCopy()} and so has the same type and settings as this one.
+     *
+     * <p>Rows keep the order of this container, and for outer join the rows only in the
+     * other container follow in their own order. Row lookups are hash probes into the
+     * key dictionary of the other container, so no extra hash table is built, and large
+     * containers are probed in parallel. Neither container may be modified during the join.
+     *
+     * @param other  another container
+     * @param type   inner, left or outer join
+     * @param rename renames a column of the other container which also exists in this one
+     * @return the joined container
+     * @throws ContainerRuntimeException renamed columns still collide
+     */
+    public TableContainer<R, C, V> join(TableContainer<R, C, V> other, JoinType type, UnaryOperator<C> rename) {
+        List<C> leftColumnKeys = Lists.newArrayList(columnKeys());
+        Set<C> columnKeys = Sets.newLinkedHashSet(leftColumnKeys);
+        Map<C, C> rightColumnKeys = Maps.newLinkedHashMap();
+        for (C column : other.columnKeys()) {
+            C renamed = columnKeys.contains(column) ? rename.apply(column) : column;
+            if (!columnKeys.add(renamed)) {
+                throw new ContainerRuntimeException(String.format("column %s exists in both containers", renamed));
+            }
+            rightColumnKeys.put(column, renamed);
+        }
+        TableContainer<R, C, V> result = emptyCopy();
+        result.pushGrid(Collections.emptyList(), Lists.newArrayList(columnKeys), (rowIndex, columnIndex) -> null);
+
+        List<R> leftRowKeys = Lists.newArrayList(rowKeys());
+        Stream<R> probes = leftRowKeys.size() >= PARALLEL_JOIN_THRESHOLD ? leftRowKeys.parallelStream() : leftRowKeys.stream();
+        List<Map<C, V>> matches = probes.map(other::singleRow).collect(Collectors.toList());
+        for (int i = 0; i < leftRowKeys.size(); i++) {
+            Map<C, V> match = matches.get(i);
+            if (match == null && type == JoinType.INNER) {
+                continue;
+            }
+            R rowKey = leftRowKeys.get(i);
+            Map<C, V> row = Maps.newLinkedHashMap();
+            Map<C, V> cells = singleRow(rowKey);
+            if (cells != null) {
+                row.putAll(cells);
+            }
+            if (match != null) {
+                match.forEach((column, value) -> row.put(rightColumnKeys.get(column), value));
+            }
+            result.pushRow(rowKey, row);
+        }
+        if (type == JoinType.OUTER) {
+            for (R rowKey : Lists.newArrayList(other.rowKeys())) {
+                if (singleRow(rowKey) == null) {
+                    Map<C, V> row = Maps.newLinkedHashMap();
+                    Map<C, V> cells = other.singleRow(rowKey);
+                    if (cells != null) {
+                        cells.forEach((column, value) -> row.put(rightColumnKeys.get(column), value));
+                    }
+                    result.pushRow(rowKey, row);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void mergeCells(List<R> rowKeys, Function<R, Map<C, V>> rows, BinaryOperator<V> policy) {
+        rowKeys.forEach(rowKey -> {
+            Map<C, V> cells = rows.apply(rowKey);
+            if (cells != null) {
+                cells.forEach((columnKey, value) -> {
+                    if (value != null) {
+                        V existing = get(rowKey, columnKey);
+                        push(rowKey, columnKey, existing == null ? value : policy.apply(existing, value));
+                    }
+                });
+            }
+        });
+    }
+
     /**
      * Apply filters on the current container. If no filter is applied on the
      * column or the row, pass <code>null</code> to this method.
@@ -230,11 +945,9 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
     public TableContainer<R, C, V> filter(@Nullable Predicate<R> rowFilter, @Nullable Predicate<C> columnFilter) {
         final Predicate<R> finalRowFilter = rowFilter != null ? rowFilter : (rowKey -> true);
         final Predicate<C> finalColumnFilter = columnFilter != null ? columnFilter : (columnKey -> true);
-        TableContainer<R, C, V> other = this.clone();
-        this.clean();
-        other.rowKeys().stream().filter(finalRowFilter).forEach(rowKey
-                -> other.columnKeys().stream().filter(finalColumnFilter).forEach(columnKey
-                -> this.push(rowKey, columnKey, other.get(rowKey, columnKey))));
+        checkWritable();
+        reorganize(rowKeys().stream().filter(finalRowFilter).collect(Collectors.toList()),
+                columnKeys().stream().filter(finalColumnFilter).collect(Collectors.toList()));
         return this;
     }
 
@@ -257,22 +970,80 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
      * @since 1.3.0
      */
     public TableContainer<R, C, V> sort(@Nullable Comparator<R> rowComparator, @Nullable Comparator<C> columnComparator) {
-        TableContainer<R, C, V> other = this.clone();
-        this.clean();
-        List<R> orderedRowKeys = other.rowKeys();
-        List<C> orderedColumnKeys = other.columnKeys();
+        checkWritable();
+        List<R> orderedRowKeys = Lists.newArrayList(rowKeys());
+        List<C> orderedColumnKeys = Lists.newArrayList(columnKeys());
         if (rowComparator != null) {
             orderedRowKeys.sort(rowComparator);
         }
         if (columnComparator != null) {
             orderedColumnKeys.sort(columnComparator);
         }
-        orderedRowKeys.forEach(rowKey
-                -> orderedColumnKeys.forEach(columnKey
-                -> push(rowKey, columnKey, other.get(rowKey, columnKey))));
+        reorganize(orderedRowKeys, orderedColumnKeys);
         return this;
     }
 
+    /**
+     * Keep only the given keys and arrange them in the given order. Both {@link #filter(Predicate, Predicate)}
+     * and {@link #sort(Comparator, Comparator)} are implemented through it.
+     *
+     * <p>The default implementation remaps populated cells inside {@link TableStorage}
+     * without looking up any empty cell, or rebuilds the container from its populated
+     * cells if it's not backed by the storage.
+     *
+     * @param rowKeys    distinct existing row keys in the new order
+     * @param columnKeys distinct existing column keys in the new order
+     */
+    protected void reorganize(List<R> rowKeys, List<C> columnKeys) {
+        if (!isStorageBacked()) {
+            rebuild(rowKeys, columnKeys);
+            return;
+        }
+        this.storage = storage.reorganize(rowKeys, columnKeys);
+        invalidateIndexes();
+    }
+
+    /**
+     * Rebuild the container through {@link #push(Object, Object, Object)}. Cells are read
+     * through {@link #singleRow(Object)}, so empty cells are skipped as long as rows are sparse.
+     * The copy read from is closed afterwards if it's {@link Closeable}.
+     */
+    private void rebuild(List<R> rowKeys, List<C> columnKeys) {
+        TableContainer<R, C, V> other = this.clone();
+        try {
+            this.clean();
+            if (!rowKeys.isEmpty() && !columnKeys.isEmpty()) {
+                rebuild(other, rowKeys, columnKeys);
+            }
+        } finally {
+            if (other instanceof Closeable) {
+                try {
+                    ((Closeable) other).close();
+                } catch (IOException e) {
+                    throw new ContainerRuntimeException(e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void rebuild(TableContainer<R, C, V> other, List<R> rowKeys, List<C> columnKeys) {
+        R firstRowKey = rowKeys.get(0);
+        C firstColumnKey = columnKeys.get(0);
+        columnKeys.forEach(columnKey -> push(firstRowKey, columnKey, null));
+        Set<C> keptColumnKeys = Sets.newHashSet(columnKeys);
+        rowKeys.forEach(rowKey -> {
+            push(rowKey, firstColumnKey, null);
+            Map<C, V> cells = other.singleRow(rowKey);
+            if (cells != null) {
+                cells.forEach((columnKey, value) -> {
+                    if (keptColumnKeys.contains(columnKey)) {
+                        push(rowKey, columnKey, value);
+                    }
+                });
+            }
+        });
+    }
+
     /**
      * Print the container to the console.
      */
@@ -286,7 +1057,17 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
      * @param printStream the stream to receive output
      */
     public void print(PrintStream printStream) {
-        printStream.println(toString());
+        renderer().print(printStream);
+    }
+
+    /**
+     * Get a renderer to print the container row by row, which supports printing
+     * only the head, the tail or a page of a large container.
+     *
+     * @return a new renderer
+     */
+    public TableRenderer<R, C, V> renderer() {
+        return new TableRenderer<>(this);
     }
 
     public String getHeaderName() {
@@ -297,37 +1078,117 @@ public abstract class TableContainer<R, C, V> implements Cloneable, Serializable
         this.headerName = headerName;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Create a writable copy of container. Cells are shared with the origin until
+     * either of them is modified.
+     *
+     * @return a copy of container
+     */
     @Override
     public TableContainer<R, C, V> clone() {
+        TableContainer<R, C, V> other = shallowClone();
+        other.storage = isStorageBacked() ? storage.fork() : storage;
+        other.readOnly = false;
+        other.indexes = emptyIndexes();
+        return other;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TableContainer<R, C, V> shallowClone() {
         try {
-            return (TableContainer<R, C, V>) super.clone();
+            TableContainer<R, C, V> other = (TableContainer<R, C, V>) super.clone();
+            other.containerId = ContainerRegistry.register(other);
+            return other;
         } catch (CloneNotSupportedException e) {
             e.printStackTrace();
         }
         throw new ContainerRuntimeException("the types of table don't support to clone");
     }
 
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = inputStream.readFields();
+        this.NULL_CHARACTER_DISPLAY = (String) fields.get("NULL_CHARACTER_DISPLAY", "-");
+        this.headerName = (String) fields.get("headerName", null);
+        if (fields.getObjectStreamClass().getField("rowMap") != null) {
+            this.storage = legacyStorage((Map<R, Map<C, V>>) fields.get("rowMap", null),
+                    (Map<C, Map<R, V>>) fields.get("columnMap", null));
+        } else {
+            this.storage = (TableStorage<R, C, V>) fields.get("storage", null);
+        }
+        this.containerId = ContainerRegistry.register(this);
+        if (!isStorageBacked()) {
+            this.storage = TableStorage.empty();
+        } else if (storage.isReadOnly()) {
+            // a persisted snapshot is loaded back as a writable container
+            this.storage = storage.fork();
+        }
+    }
+
+    /**
+     * Convert cells persisted by 1.3.x, which kept the same cells in a row map and a column
+     * map, where a registered but empty cell held <code>null</code>.
+     */
+    @SuppressWarnings("unchecked")
+    private static <R, C, V> TableStorage<R, C, V> legacyStorage(Map<R, Map<C, V>> rowMap, Map<C, Map<R, V>> columnMap) {
+        TableStorage<R, C, V> storage = new TableStorage<>();
+        storage.putAll(Collections.emptyList(), Lists.newArrayList(columnMap.keySet()), (rowIndex, columnIndex) -> null);
+        rowMap.forEach((rowKey, cells) -> {
+            Object[] values = cells.values().toArray();
+            storage.putAll(Collections.singletonList(rowKey), Lists.newArrayList(cells.keySet()),
+                    (rowIndex, columnIndex) -> (V) values[columnIndex]);
+        });
+        return storage;
+    }
+
     @Override
     public String toString() {
-        AsciiTable asciiTable = new AsciiTable();
-        List<String> columns = Lists.newLinkedList();
-        columns.add(getHeaderName());
-        columns.addAll(columnKeys().stream().map(Object::toString).collect(Collectors.toList()));
-        asciiTable.addRule();
-        asciiTable.addRow(columns);
-        rowKeys().forEach(rowKey -> {
-            List<String> cells = Lists.newLinkedList();
-            cells.add(rowKey.toString());
-            columnKeys().forEach(columnKey -> {
-                V cell = get(rowKey, columnKey);
-                cells.add(cell != null ? cell.toString() : NULL_CHARACTER_DISPLAY());
-            });
-            asciiTable.addRule();
-            asciiTable.addRow(cells);
-        });
-        asciiTable.addRule();
-        asciiTable.getRenderer().setCWC(new CWC_LongestLine());
-        return asciiTable.render();
+        return renderer().toString();
+    }
+
+    /**
+     * Values of a grid of cells, addressed by the indexes of their row key and column key.
+     */
+    @FunctionalInterface
+    public interface CellGrid<V> {
+        /**
+         * @param rowIndex    the index of row key
+         * @param columnIndex the index of column key
+         * @return the value, or <code>null</code> for an empty cell
+         */
+        V get(int rowIndex, int columnIndex);
+    }
+
+    /**
+     * Copy populated cells of containers into storages and merge them in halves.
+     */
+    private static class MergeTask<R, C, V> extends RecursiveTask<TableStorage<R, C, V>> {
+        private final List<TableContainer<R, C, V>> parts;
+        private final int from;
+        private final int to;
+        private final BinaryOperator<V> policy;
+
+        private MergeTask(List<TableContainer<R, C, V>> parts, int from, int to, BinaryOperator<V> policy) {
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+            this.policy = policy;
+        }
+
+        @Override
+        protected TableStorage<R, C, V> compute() {
+            if (to - from == 1) {
+                TableStorage<R, C, V> cells = new TableStorage<>();
+                parts.get(from).cells().forEach(cell -> cells.put(cell.getRowKey(), cell.getColumnKey(), cell.getValue()));
+                return cells;
+            }
+            int middle = (from + to) >>> 1;
+            MergeTask<R, C, V> left = new MergeTask<>(parts, from, middle, policy);
+            left.fork();
+            TableStorage<R, C, V> right = new MergeTask<>(parts, middle, to, policy).compute();
+            TableStorage<R, C, V> merged = left.join();
+            merged.merge(right, policy);
+            return merged;
+        }
     }
 }
\ No newline at end of file
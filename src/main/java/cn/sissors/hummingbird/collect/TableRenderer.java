@@ -0,0 +1,240 @@
+package cn.sissors.hummingbird.collect;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Render a container as a text table with box-drawing borders, row by row.
+ *
+ * <p>Nothing but column widths is kept in memory. Widths are computed by a pre-pass
+ * over the rendered rows which keeps only the longest length of every column, or
+ * from a bounded sample of rows set by {@link #sampleWidths(int)}, in which case
+ * longer cells are truncated and end with "~". Rendering can be limited to the first
+ * and last rows through {@link #head(int)} and {@link #tail(int)}, or to a single page
+ * through {@link #page(int, int)}, so that printing a huge container costs O(page) memory.
+ *
+ * <p>Line breaks inside cells are rendered as spaces.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class TableRenderer<R, C, V> {
+    private final static String ELLIPSIS = "...";
+
+    private final TableContainer<R, C, V> container;
+    private int head = -1;
+    private int tail = 0;
+    private int page = -1;
+    private int pageSize = 0;
+    private int sampleSize = -1;
+
+    public TableRenderer(TableContainer<R, C, V> container) {
+        this.container = container;
+    }
+
+    /**
+     * Render only the first rows. It can be combined with {@link #tail(int)}, and a row
+     * of "..." is rendered between them if some rows are skipped.
+     *
+     * @param rows the count of rows
+     * @return renderer itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public TableRenderer<R, C, V> head(int rows) {
+        this.head = Math.max(rows, 0);
+        this.page = -1;
+        return this;
+    }
+
+    /**
+     * Render only the last rows. It can be combined with {@link #head(int)}.
+     *
+     * @param rows the count of rows
+     * @return renderer itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public TableRenderer<R, C, V> tail(int rows) {
+        this.tail = Math.max(rows, 0);
+        this.head = Math.max(head, 0);
+        this.page = -1;
+        return this;
+    }
+
+    /**
+     * Render a single page of rows, which replaces head and tail.
+     *
+     * @param page     the page index starting from 0
+     * @param pageSize the count of rows per page
+     * @return renderer itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public TableRenderer<R, C, V> page(int page, int pageSize) {
+        this.page = Math.max(page, 0);
+        this.pageSize = Math.max(pageSize, 0);
+        this.head = -1;
+        this.tail = 0;
+        return this;
+    }
+
+    /**
+     * Compute column widths from the header and at most the given count of rendered
+     * rows instead of all of them. Longer cells in the other rows are truncated and
+     * end with "~".
+     *
+     * @param rows the count of sampled rows, or a negative value to measure every row
+     * @return renderer itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public TableRenderer<R, C, V> sampleWidths(int rows) {
+        this.sampleSize = rows;
+        return this;
+    }
+
+    /**
+     * Print the table to the specified print stream.
+     *
+     * @param printStream the stream to receive output
+     */
+    public void print(PrintStream printStream) {
+        render(printStream);
+        printStream.println();
+        printStream.flush();
+    }
+
+    /**
+     * Write the table line by line, without a line break after the last line.
+     *
+     * @param output the output to receive the table
+     */
+    public void render(Appendable output) {
+        try {
+            List<R> rowKeys = container.rowKeys();
+            List<C> columnKeys = container.columnKeys();
+            List<int[]> ranges = ranges(rowKeys.size());
+            int[] widths = widths(rowKeys, columnKeys, ranges);
+            String[] cells = new String[widths.length];
+            line(output, '┌', '┬', '┐', widths);
+            cells[0] = text(container.getHeaderName());
+            for (int column = 1; column < widths.length; column++) {
+                cells[column] = text(columnKeys.get(column - 1));
+            }
+            output.append('\n');
+            row(output, cells, widths);
+            int last = -1;
+            for (int[] range : ranges) {
+                if (last >= 0 && range[0] > last) {
+                    for (int column = 0; column < widths.length; column++) {
+                        cells[column] = ELLIPSIS;
+                    }
+                    output.append('\n');
+                    line(output, '├', '┼', '┤', widths);
+                    output.append('\n');
+                    row(output, cells, widths);
+                }
+                for (int rowIndex = range[0]; rowIndex < range[1]; rowIndex++) {
+                    cells(rowKeys.get(rowIndex), columnKeys, cells);
+                    output.append('\n');
+                    line(output, '├', '┼', '┤', widths);
+                    output.append('\n');
+                    row(output, cells, widths);
+                }
+                last = range[1];
+            }
+            output.append('\n');
+            line(output, '└', '┴', '┘', widths);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        render(builder);
+        return builder.toString();
+    }
+
+    /**
+     * @return ascending and disjoint ranges [from, to) of row indexes to render
+     */
+    private List<int[]> ranges(int rowCount) {
+        List<int[]> ranges = Lists.newArrayList();
+        if (page >= 0) {
+            long from = Math.min((long) page * pageSize, rowCount);
+            ranges.add(new int[]{(int) from, (int) Math.min(from + pageSize, rowCount)});
+        } else if (head < 0 || head + tail >= rowCount) {
+            ranges.add(new int[]{0, rowCount});
+        } else {
+            ranges.add(new int[]{0, head});
+            ranges.add(new int[]{rowCount - tail, rowCount});
+        }
+        return ranges;
+    }
+
+    private int[] widths(List<R> rowKeys, List<C> columnKeys, List<int[]> ranges) {
+        int[] widths = new int[columnKeys.size() + 1];
+        widths[0] = text(container.getHeaderName()).length();
+        for (int column = 1; column < widths.length; column++) {
+            widths[column] = text(columnKeys.get(column - 1)).length();
+        }
+        String[] cells = new String[widths.length];
+        int sampled = 0;
+        for (int[] range : ranges) {
+            if (ranges.size() > 1) {
+                for (int column = 0; column < widths.length; column++) {
+                    widths[column] = Math.max(widths[column], ELLIPSIS.length());
+                }
+            }
+            for (int rowIndex = range[0]; rowIndex < range[1] && (sampleSize < 0 || sampled < sampleSize); rowIndex++, sampled++) {
+                cells(rowKeys.get(rowIndex), columnKeys, cells);
+                for (int column = 0; column < widths.length; column++) {
+                    widths[column] = Math.max(widths[column], cells[column].length());
+                }
+            }
+        }
+        return widths;
+    }
+
+    private void cells(R rowKey, List<C> columnKeys, String[] cells) {
+        cells[0] = text(rowKey);
+        for (int column = 1; column < cells.length; column++) {
+            V value = container.get(rowKey, columnKeys.get(column - 1));
+            cells[column] = value != null ? text(value) : container.NULL_CHARACTER_DISPLAY();
+        }
+    }
+
+    private static String text(Object value) {
+        String text = String.valueOf(value);
+        return text.indexOf('\n') < 0 && text.indexOf('\r') < 0 ? text : text.replaceAll("\r\n|\r|\n", " ");
+    }
+
+    private static void line(Appendable output, char left, char middle, char right, int[] widths) throws IOException {
+        output.append(left);
+        for (int column = 0; column < widths.length; column++) {
+            if (column > 0) {
+                output.append(middle);
+            }
+            for (int i = 0; i < widths[column]; i++) {
+                output.append('─');
+            }
+        }
+        output.append(right);
+    }
+
+    private static void row(Appendable output, String[] cells, int[] widths) throws IOException {
+        output.append('│');
+        for (int column = 0; column < widths.length; column++) {
+            String cell = cells[column];
+            if (cell.length() > widths[column]) {
+                cell = widths[column] > 1 ? cell.substring(0, widths[column] - 1) + "~" : cell.substring(0, widths[column]);
+            }
+            output.append(Strings.padEnd(cell, widths[column], ' ')).append('│');
+        }
+    }
+}
@@ -0,0 +1,916 @@
+package cn.sissors.hummingbird.collect;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Table.Cell;
+import com.google.common.collect.Tables;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * The storage engine behind {@link TableContainer}.
+ *
+ * <p>Row keys and column keys are interned into dense ids through {@link KeyDictionary}.
+ * Each row keeps its cells once, in a pair of parallel arrays sorted by column id,
+ * so a lookup is one dictionary probe per key plus a binary search inside the row.
+ * The nested maps organized by row or by column are read-only views derived from
+ * this structure instead of separate copies.
+ *
+ * <p>Storages share structure through {@link #snapshot()} and {@link #fork()}. Rows
+ * are stamped with the epoch of the storage that owns them, and a storage copies a
+ * row before its first modification if the row carries another epoch. The row
+ * directory is copied at the first write after the sharing happened, so neither
+ * operation copies any cell up front.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class TableStorage<R, C, V> implements Serializable {
+    private final static int INITIAL_ROW_CAPACITY = 4;
+    private final static AtomicLong EPOCH = new AtomicLong(0L);
+    private final static TableStorage<?, ?, ?> EMPTY = new TableStorage<>().snapshot();
+
+    private KeyDictionary<R> rowDictionary;
+    private KeyDictionary<C> columnDictionary;
+    private List<SparseRow> rows;
+    private long cellCount;
+    private transient long epoch;
+    private boolean rowsShared;
+    private final boolean readOnly;
+    private final int rowLimit;
+    private final int columnLimit;
+
+    public TableStorage() {
+        this(new KeyDictionary<>(), new KeyDictionary<>(), Lists.newArrayList(), 0, false, -1, -1);
+    }
+
+    private TableStorage(KeyDictionary<R> rowDictionary, KeyDictionary<C> columnDictionary, List<SparseRow> rows,
+                         long cellCount, boolean readOnly, int rowLimit, int columnLimit) {
+        this.rowDictionary = rowDictionary;
+        this.columnDictionary = columnDictionary;
+        this.rows = rows;
+        this.cellCount = cellCount;
+        this.epoch = EPOCH.incrementAndGet();
+        this.rowsShared = false;
+        this.readOnly = readOnly;
+        this.rowLimit = rowLimit;
+        this.columnLimit = columnLimit;
+    }
+
+    /**
+     * Get the shared empty storage, which is read-only.
+     *
+     * @return the empty storage
+     */
+    @SuppressWarnings("unchecked")
+    public static <R, C, V> TableStorage<R, C, V> empty() {
+        return (TableStorage<R, C, V>) EMPTY;
+    }
+
+    /**
+     * Create an immutable view of the current content in O(1).
+     *
+     * <p>The view shares dictionaries, rows and cells with this storage. Later writes
+     * to this storage copy the rows they touch instead of modifying them in place,
+     * and keys interned later are hidden from the view, so the view never changes.
+     * It may be read by other threads while this storage keeps being written by its
+     * owning thread.
+     *
+     * @return a read-only storage
+     */
+    public TableStorage<R, C, V> snapshot() {
+        if (readOnly) {
+            return this;
+        }
+        TableStorage<R, C, V> snapshot = new TableStorage<>(rowDictionary, columnDictionary, rows, cellCount,
+                true, rowCount(), columnCount());
+        detach();
+        return snapshot;
+    }
+
+    /**
+     * Create an independent writable copy. Dictionaries and the row directory are
+     * copied, while rows are shared until either side modifies them.
+     *
+     * @return a writable storage
+     */
+    public TableStorage<R, C, V> fork() {
+        int rowCount = rowCount();
+        TableStorage<R, C, V> fork = new TableStorage<>(rowDictionary.copy(), columnDictionary.copy(),
+                Lists.newArrayList(rows.subList(0, Math.min(rowCount, rows.size()))), cellCount, false, -1, -1);
+        if (readOnly) {
+            fork.trim(rowCount, columnCount());
+        } else {
+            detach();
+        }
+        return fork;
+    }
+
+    /**
+     * Give up the ownership of all current rows, so that they are copied before
+     * being modified.
+     */
+    private void detach() {
+        this.rowsShared = true;
+        this.epoch = EPOCH.incrementAndGet();
+    }
+
+    /**
+     * Drop the keys interned after a snapshot was taken, which are copied along
+     * with the dictionaries when a snapshot is forked.
+     */
+    private void trim(int rowCount, int columnCount) {
+        if (rowDictionary.size() > rowCount) {
+            KeyDictionary<R> trimmed = new KeyDictionary<>();
+            rowDictionary.keys(rowCount).forEach(trimmed::intern);
+            this.rowDictionary = trimmed;
+        }
+        if (columnDictionary.size() > columnCount) {
+            KeyDictionary<C> trimmed = new KeyDictionary<>();
+            columnDictionary.keys(columnCount).forEach(trimmed::intern);
+            this.columnDictionary = trimmed;
+        }
+    }
+
+    @Contract(pure = true)
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Associate a value with (row, column). Both keys are registered even if the
+     * value is <code>null</code>, in which case any existing cell is removed.
+     *
+     * @param row    row key
+     * @param column column key
+     * @param value  cell value
+     */
+    public void put(R row, C column, @Nullable V value) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("snapshot storage is read-only");
+        }
+        int rowId = rowDictionary.intern(row);
+        int columnId = columnDictionary.intern(column);
+        SparseRow sparseRow = writableRow(rowId);
+        if (value != null) {
+            cellCount += sparseRow.put(columnId, value) ? 1 : 0;
+        } else {
+            cellCount -= sparseRow.remove(columnId) ? 1 : 0;
+        }
+    }
+
+    /**
+     * Associate values with a grid of (row, column) pairs. Every key is interned once
+     * and every row is resolved and grown once, instead of once per cell as
+     * {@link #put(Object, Object, Object)}. Like it, all keys are registered, and a
+     * <code>null</code> value removes any existing cell.
+     *
+     * @param rowKeys    row keys of the grid
+     * @param columnKeys column keys of the grid
+     * @param cells      values of the grid, indexed by (row index, column index)
+     */
+    public void putAll(List<R> rowKeys, List<C> columnKeys, TableContainer.CellGrid<? extends V> cells) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("snapshot storage is read-only");
+        }
+        int[] columnIds = new int[columnKeys.size()];
+        for (int column = 0; column < columnIds.length; column++) {
+            columnIds[column] = columnDictionary.intern(columnKeys.get(column));
+        }
+        for (int row = 0; row < rowKeys.size(); row++) {
+            SparseRow sparseRow = writableRow(rowDictionary.intern(rowKeys.get(row)));
+            sparseRow.ensureCapacity(sparseRow.size + columnIds.length);
+            for (int column = 0; column < columnIds.length; column++) {
+                V value = cells.get(row, column);
+                if (value != null) {
+                    cellCount += sparseRow.put(columnIds[column], value) ? 1 : 0;
+                } else {
+                    cellCount -= sparseRow.remove(columnIds[column]) ? 1 : 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace every populated cell by the result of the function, which is used to
+     * deduplicate values. Rows shared with snapshots or forks are copied first.
+     *
+     * @param function maps a value to its replacement, which must not be <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    public void replaceValues(UnaryOperator<V> function) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("snapshot storage is read-only");
+        }
+        for (int rowId = 0; rowId < rows.size(); rowId++) {
+            if (rows.get(rowId).size > 0) {
+                SparseRow sparseRow = writableRow(rowId);
+                for (int index = 0; index < sparseRow.size; index++) {
+                    sparseRow.values[index] = function.apply((V) sparseRow.values[index]);
+                }
+            }
+        }
+    }
+
+    private SparseRow writableRow(int rowId) {
+        if (rowsShared) {
+            this.rows = Lists.newArrayList(rows);
+            this.rowsShared = false;
+        }
+        while (rows.size() <= rowId) {
+            rows.add(new SparseRow(epoch));
+        }
+        SparseRow sparseRow = rows.get(rowId);
+        if (sparseRow.epoch != epoch) {
+            sparseRow = sparseRow.copy(epoch);
+            rows.set(rowId, sparseRow);
+        }
+        return sparseRow;
+    }
+
+    /**
+     * Create a storage which keeps the given row keys and column keys in the given
+     * order, which is how filtering and sorting are done.
+     *
+     * <p>Only populated cells are visited. Each kept row is copied with its column
+     * ids remapped, and it's re-sorted only if the column order changed, so the cost
+     * is proportional to the count of keys plus the count of cells instead of
+     * (rows x columns). Like pushing the cells again, no key is registered if either
+     * list is empty.
+     *
+     * @param rowKeys    distinct row keys of this storage, in the new order
+     * @param columnKeys distinct column keys of this storage, in the new order
+     * @return a new writable storage
+     */
+    public TableStorage<R, C, V> reorganize(List<R> rowKeys, List<C> columnKeys) {
+        TableStorage<R, C, V> result = new TableStorage<>();
+        if (rowKeys.isEmpty() || columnKeys.isEmpty()) {
+            return result;
+        }
+        int[] columnMapping = new int[columnCount()];
+        Arrays.fill(columnMapping, -1);
+        for (C column : columnKeys) {
+            columnMapping[existingId(columnId(column), column)] = result.columnDictionary.intern(column);
+        }
+        boolean ordered = true;
+        for (int columnId = 0, last = -1; columnId < columnMapping.length && ordered; columnId++) {
+            if (columnMapping[columnId] >= 0) {
+                ordered = columnMapping[columnId] > last;
+                last = columnMapping[columnId];
+            }
+        }
+        for (R row : rowKeys) {
+            int rowId = existingId(rowId(row), row);
+            result.rowDictionary.intern(row);
+            SparseRow sparseRow = sparseRow(rowId).remap(columnMapping, ordered, result.epoch);
+            result.rows.add(sparseRow);
+            result.cellCount += sparseRow.size;
+        }
+        return result;
+    }
+
+    /**
+     * Merge populated cells of another storage into this one. Keys are registered
+     * when their first cell arrives, in the order of the other storage.
+     *
+     * @param other    another storage
+     * @param combiner resolves (existing, incoming) values of the same cell,
+     *                 a <code>null</code> result removes the cell
+     */
+    @SuppressWarnings("unchecked")
+    public void merge(TableStorage<R, C, V> other, BinaryOperator<V> combiner) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("snapshot storage is read-only");
+        }
+        int[] columnMapping = new int[other.columnCount()];
+        Arrays.fill(columnMapping, -1);
+        int rowCount = Math.min(other.rowCount(), other.rows.size());
+        for (int otherRowId = 0; otherRowId < rowCount; otherRowId++) {
+            SparseRow otherRow = other.rows.get(otherRowId);
+            if (otherRow.size == 0) {
+                continue;
+            }
+            SparseRow sparseRow = null;
+            for (int index = 0; index < otherRow.size; index++) {
+                int otherColumnId = otherRow.columns[index];
+                if (columnMapping[otherColumnId] < 0) {
+                    columnMapping[otherColumnId] = columnDictionary.intern(other.columnDictionary.key(otherColumnId));
+                }
+                if (sparseRow == null) {
+                    sparseRow = writableRow(rowDictionary.intern(other.rowDictionary.key(otherRowId)));
+                }
+                int columnId = columnMapping[otherColumnId];
+                V incoming = (V) otherRow.values[index];
+                V existing = (V) sparseRow.get(columnId);
+                V value = existing == null ? incoming : combiner.apply(existing, incoming);
+                if (value != null) {
+                    cellCount += sparseRow.put(columnId, value) ? 1 : 0;
+                } else {
+                    cellCount -= sparseRow.remove(columnId) ? 1 : 0;
+                }
+            }
+        }
+    }
+
+    private static int existingId(int id, Object key) {
+        if (id < 0) {
+            throw new IllegalArgumentException("key doesn't exist: " + key);
+        }
+        return id;
+    }
+
+    /**
+     * Get the value associated with (row, column).
+     *
+     * @param row    row key
+     * @param column column key
+     * @return the value, or <code>null</code> if the cell is empty
+     */
+    @Nullable
+    public V get(R row, C column) {
+        int rowId = rowId(row);
+        if (rowId < 0) {
+            return null;
+        }
+        int columnId = columnId(column);
+        return columnId < 0 ? null : value(rowId, columnId);
+    }
+
+    /**
+     * Get the id of a row key.
+     *
+     * @param row row key
+     * @return the row id, or <code>-1</code> if the row doesn't exist
+     */
+    public int rowId(R row) {
+        int rowId = rowDictionary.id(row);
+        return rowId < rowCount() ? rowId : -1;
+    }
+
+    /**
+     * Get the id of a column key.
+     *
+     * @param column column key
+     * @return the column id, or <code>-1</code> if the column doesn't exist
+     */
+    public int columnId(C column) {
+        int columnId = columnDictionary.id(column);
+        return columnId < columnCount() ? columnId : -1;
+    }
+
+    /**
+     * Get the count of row keys.
+     *
+     * @return the count of rows
+     */
+    public int rowCount() {
+        return readOnly ? rowLimit : rowDictionary.size();
+    }
+
+    /**
+     * Get the count of column keys.
+     *
+     * @return the count of columns
+     */
+    public int columnCount() {
+        return readOnly ? columnLimit : columnDictionary.size();
+    }
+
+    /**
+     * Get all row keys ordered by id.
+     *
+     * @return an unmodifiable live view of row keys
+     */
+    public List<R> rowKeys() {
+        return readOnly ? rowDictionary.keys(rowLimit) : rowDictionary.keys();
+    }
+
+    /**
+     * Get all column keys ordered by id.
+     *
+     * @return an unmodifiable live view of column keys
+     */
+    public List<C> columnKeys() {
+        return readOnly ? columnDictionary.keys(columnLimit) : columnDictionary.keys();
+    }
+
+    /**
+     * Get a spliterator over populated cells, ordered by row id and then by column id.
+     *
+     * <p>It splits by ranges of rows, so cells can be consumed by a parallel stream
+     * without being copied. The storage must not be modified during the traversal
+     * unless it's a snapshot.
+     *
+     * @return a spliterator of cells
+     */
+    public Spliterator<Cell<R, C, V>> cellSpliterator() {
+        return new CellSpliterator(rows, 0, Math.min(rowCount(), rows.size()), cellCount);
+    }
+
+    /**
+     * Get the value located by ids.
+     *
+     * @param rowId    the row id
+     * @param columnId the column id
+     * @return the value, or <code>null</code> if the cell is empty
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public V value(int rowId, int columnId) {
+        return rowId < rows.size() ? (V) rows.get(rowId).get(columnId) : null;
+    }
+
+    /**
+     * Get the count of non-empty cells.
+     *
+     * @return the count of cells
+     */
+    @Contract(pure = true)
+    public long cellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Estimate the bytes of rows, excluding keys and values.
+     *
+     * @return bytes of rows
+     */
+    public long structureSize() {
+        long size = MemoryFootprint.sizeOfArray(rows.size(), 4);
+        for (SparseRow row : rows) {
+            if (row != SparseRow.EMPTY) {
+                size += 32 + MemoryFootprint.sizeOfArray(row.columns.length, 4)
+                        + MemoryFootprint.sizeOfArray(row.values.length, 4);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Get a read-only view of the table organized by row keys.
+     *
+     * @return a nested map whose structure is (row, (column, value))
+     */
+    public Map<R, Map<C, V>> rowMap() {
+        return new AbstractMap<R, Map<C, V>>() {
+            @Override
+            public Map<C, V> get(Object key) {
+                @SuppressWarnings("unchecked")
+                int rowId = rowId((R) key);
+                return rowId < 0 ? null : rowView(rowId);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return rowCount();
+            }
+
+            @NotNull
+            @Override
+            public Set<Entry<R, Map<C, V>>> entrySet() {
+                return new IdEntrySet<R, Map<C, V>>(rowDictionary, rowCount()) {
+                    @Override
+                    Map<C, V> valueOf(int id) {
+                        return rowView(id);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Get a read-only view of the table organized by column keys.
+     *
+     * @return a nested map whose structure is (column, (row, value))
+     */
+    public Map<C, Map<R, V>> columnMap() {
+        return new AbstractMap<C, Map<R, V>>() {
+            @Override
+            public Map<R, V> get(Object key) {
+                @SuppressWarnings("unchecked")
+                int columnId = columnId((C) key);
+                return columnId < 0 ? null : columnView(columnId);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return columnCount();
+            }
+
+            @NotNull
+            @Override
+            public Set<Entry<C, Map<R, V>>> entrySet() {
+                return new IdEntrySet<C, Map<R, V>>(columnDictionary, columnCount()) {
+                    @Override
+                    Map<R, V> valueOf(int id) {
+                        return columnView(id);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Get a read-only view of a single row, ordered by column id.
+     *
+     * @param rowId the row id
+     * @return a map whose structure is (column, value)
+     */
+    public Map<C, V> rowView(final int rowId) {
+        return new AbstractMap<C, V>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public V get(Object key) {
+                int columnId = columnId((C) key);
+                return columnId < 0 ? null : value(rowId, columnId);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return sparseRow(rowId).size;
+            }
+
+            @NotNull
+            @Override
+            public Set<Entry<C, V>> entrySet() {
+                return new AbstractSet<Entry<C, V>>() {
+                    @Override
+                    public Iterator<Entry<C, V>> iterator() {
+                        final SparseRow sparseRow = sparseRow(rowId);
+                        return new Iterator<Entry<C, V>>() {
+                            private int index = 0;
+
+                            @Override
+                            public boolean hasNext() {
+                                return index < sparseRow.size;
+                            }
+
+                            @SuppressWarnings("unchecked")
+                            @Override
+                            public Entry<C, V> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                Entry<C, V> entry = new SimpleImmutableEntry<>(
+                                        columnDictionary.key(sparseRow.columns[index]), (V) sparseRow.values[index]);
+                                index++;
+                                return entry;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return sparseRow(rowId).size;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Get a read-only view of a single column, ordered by row id.
+     *
+     * @param columnId the column id
+     * @return a map whose structure is (row, value)
+     */
+    public Map<R, V> columnView(final int columnId) {
+        return new AbstractMap<R, V>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public V get(Object key) {
+                int rowId = rowId((R) key);
+                return rowId < 0 ? null : value(rowId, columnId);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @NotNull
+            @Override
+            public Set<Entry<R, V>> entrySet() {
+                return new AbstractSet<Entry<R, V>>() {
+                    @Override
+                    public Iterator<Entry<R, V>> iterator() {
+                        final List<SparseRow> rows = TableStorage.this.rows;
+                        final int rowCount = Math.min(rowCount(), rows.size());
+                        return new Iterator<Entry<R, V>>() {
+                            private int rowId = advance(0);
+
+                            private int advance(int from) {
+                                while (from < rowCount && rows.get(from).get(columnId) == null) {
+                                    from++;
+                                }
+                                return from;
+                            }
+
+                            @Override
+                            public boolean hasNext() {
+                                return rowId < rowCount;
+                            }
+
+                            @Override
+                            public Entry<R, V> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                @SuppressWarnings("unchecked")
+                                Entry<R, V> entry = new SimpleImmutableEntry<>(rowDictionary.key(rowId), (V) rows.get(rowId).get(columnId));
+                                rowId = advance(rowId + 1);
+                                return entry;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        int size = 0;
+                        int rowCount = Math.min(rowCount(), rows.size());
+                        for (int rowId = 0; rowId < rowCount; rowId++) {
+                            size += rows.get(rowId).get(columnId) != null ? 1 : 0;
+                        }
+                        return size;
+                    }
+                };
+            }
+        };
+    }
+
+    private SparseRow sparseRow(int rowId) {
+        return rowId < rows.size() ? rows.get(rowId) : SparseRow.EMPTY;
+    }
+
+    private void readObject(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        // rows come back without an owner and are copied once at their first modification
+        this.epoch = EPOCH.incrementAndGet();
+    }
+
+    /**
+     * Traverse cells of a range of rows, and split the range in halves.
+     */
+    private class CellSpliterator implements Spliterator<Cell<R, C, V>> {
+        private final List<SparseRow> rows;
+        private int rowId;
+        private int index;
+        private final int to;
+        private long estimatedSize;
+
+        private CellSpliterator(List<SparseRow> rows, int from, int to, long estimatedSize) {
+            this.rows = rows;
+            this.rowId = from;
+            this.index = 0;
+            this.to = to;
+            this.estimatedSize = estimatedSize;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean tryAdvance(Consumer<? super Cell<R, C, V>> action) {
+            for (; rowId < to; rowId++, index = 0) {
+                SparseRow sparseRow = rows.get(rowId);
+                if (index < sparseRow.size) {
+                    action.accept(Tables.immutableCell(rowDictionary.key(rowId),
+                            columnDictionary.key(sparseRow.columns[index]), (V) sparseRow.values[index]));
+                    index++;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void forEachRemaining(Consumer<? super Cell<R, C, V>> action) {
+            for (; rowId < to; rowId++, index = 0) {
+                SparseRow sparseRow = rows.get(rowId);
+                R row = sparseRow.size > index ? rowDictionary.key(rowId) : null;
+                for (; index < sparseRow.size; index++) {
+                    action.accept(Tables.immutableCell(row,
+                            columnDictionary.key(sparseRow.columns[index]), (V) sparseRow.values[index]));
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<Cell<R, C, V>> trySplit() {
+            int from = index > 0 ? rowId + 1 : rowId;
+            if (to - from < 2) {
+                return null;
+            }
+            int middle = (from + to) >>> 1;
+            long prefixSize = estimatedSize >>> 1;
+            CellSpliterator prefix = new CellSpliterator(rows, rowId, middle, prefixSize);
+            prefix.index = index;
+            this.rowId = middle;
+            this.index = 0;
+            this.estimatedSize -= prefixSize;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | (readOnly ? IMMUTABLE : 0);
+        }
+    }
+
+    /**
+     * The entry set of a map whose keys are the keys of a dictionary.
+     */
+    private abstract static class IdEntrySet<K, T> extends AbstractSet<Map.Entry<K, T>> {
+        private final KeyDictionary<K> dictionary;
+        private final int size;
+
+        IdEntrySet(KeyDictionary<K> dictionary, int size) {
+            this.dictionary = dictionary;
+            this.size = size;
+        }
+
+        abstract T valueOf(int id);
+
+        @Override
+        public Iterator<Map.Entry<K, T>> iterator() {
+            return new Iterator<Map.Entry<K, T>>() {
+                private int id = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return id < size;
+                }
+
+                @Override
+                public Map.Entry<K, T> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Map.Entry<K, T> entry = new AbstractMap.SimpleImmutableEntry<>(dictionary.key(id), valueOf(id));
+                    id++;
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Cells of a single row, kept in two parallel arrays sorted by column id.
+     */
+    private static class SparseRow implements Serializable {
+        private final static SparseRow EMPTY = new SparseRow(0L);
+
+        private int[] columns;
+        private Object[] values;
+        private int size;
+        private transient long epoch;
+
+        private SparseRow(long epoch) {
+            this.columns = new int[INITIAL_ROW_CAPACITY];
+            this.values = new Object[INITIAL_ROW_CAPACITY];
+            this.size = 0;
+            this.epoch = epoch;
+        }
+
+        private SparseRow copy(long epoch) {
+            SparseRow copy = new SparseRow(epoch);
+            copy.columns = Arrays.copyOf(columns, Math.max(size, INITIAL_ROW_CAPACITY));
+            copy.values = Arrays.copyOf(values, Math.max(size, INITIAL_ROW_CAPACITY));
+            copy.size = size;
+            return copy;
+        }
+
+        private int indexOf(int columnId) {
+            // cells are mostly appended in column order, so check the tail first
+            if (size > 0 && columns[size - 1] < columnId) {
+                return -(size + 1);
+            }
+            return Arrays.binarySearch(columns, 0, size, columnId);
+        }
+
+        private Object get(int columnId) {
+            int index = indexOf(columnId);
+            return index >= 0 ? values[index] : null;
+        }
+
+        /**
+         * @param columnMapping the new id of each column, or <code>-1</code> to drop it
+         * @param ordered       whether the mapping keeps the relative order of columns
+         * @return a new row with remapped columns
+         */
+        private SparseRow remap(int[] columnMapping, boolean ordered, long epoch) {
+            SparseRow remapped = new SparseRow(epoch);
+            int capacity = Math.max(size, INITIAL_ROW_CAPACITY);
+            remapped.columns = new int[capacity];
+            remapped.values = new Object[capacity];
+            for (int index = 0; index < size; index++) {
+                int columnId = columnMapping[columns[index]];
+                if (columnId >= 0) {
+                    remapped.columns[remapped.size] = columnId;
+                    remapped.values[remapped.size] = values[index];
+                    remapped.size++;
+                }
+            }
+            if (!ordered && remapped.size > 1) {
+                long[] order = new long[remapped.size];
+                for (int index = 0; index < remapped.size; index++) {
+                    order[index] = ((long) remapped.columns[index] << 32) | index;
+                }
+                Arrays.sort(order);
+                Object[] sortedValues = new Object[capacity];
+                for (int index = 0; index < order.length; index++) {
+                    remapped.columns[index] = (int) (order[index] >>> 32);
+                    sortedValues[index] = remapped.values[(int) order[index]];
+                }
+                remapped.values = sortedValues;
+            }
+            return remapped;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > columns.length) {
+                capacity = Math.max(capacity, size + (size >> 1) + 1);
+                columns = Arrays.copyOf(columns, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+        }
+
+        /**
+         * @return true if a new cell is created, false if an existing cell is replaced
+         */
+        private boolean put(int columnId, Object value) {
+            int index = indexOf(columnId);
+            if (index >= 0) {
+                values[index] = value;
+                return false;
+            }
+            index = -(index + 1);
+            if (size == columns.length) {
+                int capacity = size + (size >> 1) + 1;
+                columns = Arrays.copyOf(columns, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            System.arraycopy(columns, index, columns, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            columns[index] = columnId;
+            values[index] = value;
+            size++;
+            return true;
+        }
+
+        /**
+         * @return true if an existing cell is removed
+         */
+        private boolean remove(int columnId) {
+            int index = indexOf(columnId);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(columns, index + 1, columns, index, size - index - 1);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            values[--size] = null;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package cn.sissors.hummingbird.collect;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A pool which maps equal values to a single shared instance, so that a table
+ * repeating the same values across many cells keeps only one copy of each.
+ *
+ * <p>Values are held through weak references, a value which is no longer referenced
+ * by any cell is dropped from the pool by the garbage collector. Values are compared
+ * either by {@link Object#equals(Object)} or by a key derived from them, the latter is
+ * useful for types without value equality such as {@link org.json.JSONObject}.
+ *
+ * <p>Shared values must not be modified in place. The pool is thread-safe.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class ValuePool<V> {
+    private final Function<? super V, ?> keyFunction;
+    private final Interner<V> interner;
+    private final ConcurrentMap<Object, V> values;
+
+    private ValuePool(Function<? super V, ?> keyFunction) {
+        this.keyFunction = keyFunction;
+        this.interner = keyFunction == null ? Interners.newWeakInterner() : null;
+        this.values = keyFunction != null ? new MapMaker().weakValues().makeMap() : null;
+    }
+
+    /**
+     * Create a pool which compares values by {@link Object#equals(Object)}.
+     *
+     * @param <V> value type
+     * @return the pool
+     */
+    public static <V> ValuePool<V> byEquality() {
+        return new ValuePool<>(null);
+    }
+
+    /**
+     * Create a pool which treats values with equal keys as equal, e.g.
+     * <code>ValuePool.byKey(Object::toString)</code> for json values.
+     *
+     * @param keyFunction derives the key of a value, which must not refer to the value
+     * @param <V>         value type
+     * @return the pool
+     */
+    public static <V> ValuePool<V> byKey(Function<? super V, ?> keyFunction) {
+        return new ValuePool<>(keyFunction);
+    }
+
+    /**
+     * Get the shared instance equal to the given value, the value itself becomes the
+     * shared instance if it's seen for the first time.
+     *
+     * @param value a value
+     * @return the shared instance, or <code>null</code> if the value is <code>null</code>
+     */
+    public V intern(V value) {
+        if (value == null) {
+            return null;
+        }
+        if (interner != null) {
+            return interner.intern(value);
+        }
+        V existing = values.putIfAbsent(keyFunction.apply(value), value);
+        return existing != null ? existing : value;
+    }
+}
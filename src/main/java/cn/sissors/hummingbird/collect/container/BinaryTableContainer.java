@@ -1,9 +1,11 @@
 package cn.sissors.hummingbird.collect.container;
 
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
 import cn.sissors.hummingbird.collect.TableContainer;
 import cn.sissors.hummingbird.exceptions.DataLoadingException;
 import cn.sissors.hummingbird.exceptions.DataPersistenceException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 
@@ -15,6 +17,13 @@ import java.io.*;
  * @version 2018-10-25
  */
 public class BinaryTableContainer<R, C, V> extends TableContainer<R, C, V> {
+    // kept from 1.3.x, so that containers persisted by it can be loaded
+    private static final long serialVersionUID = -6250683352971812766L;
+
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    private transient Compression compression;
+
     public BinaryTableContainer(String headerName) {
         super(headerName);
     }
@@ -22,15 +31,17 @@ public class BinaryTableContainer<R, C, V> extends TableContainer<R, C, V> {
     /**
      * Persist container data to external permanent storage.
      *
+     * <p>The file is compressed on the fly by the codec set through {@link #compression(Compression)},
+     * or selected by the suffix of path, e.g. <b>result.bin.gz</b>.
+     *
      * @param path external storage path
      * @throws DataPersistenceException error appearance such as {@link java.io.IOException} and so on
      */
     @Override
     public void persist(@NotNull String path) throws DataPersistenceException {
-        try {
-            ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(path));
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new BufferedOutputStream(
+                compressionOf(path).compress(new FileOutputStream(path)), BUFFER_SIZE))) {
             objectOutputStream.writeObject(this);
-            objectOutputStream.close();
         } catch (IOException e) {
             throw new DataPersistenceException(e.getMessage());
         }
@@ -39,6 +50,8 @@ public class BinaryTableContainer<R, C, V> extends TableContainer<R, C, V> {
     /**
      * Load data from external storage into container.
      *
+     * <p>The file is decompressed on the fly as {@link #persist(String)}.
+     *
      * @param path external storage path
      * @return the container that has been loaded
      * @throws DataLoadingException error appearance such as {@link java.lang.ClassNotFoundException}, {@link java.lang.ClassCastException} and so on
@@ -46,13 +59,40 @@ public class BinaryTableContainer<R, C, V> extends TableContainer<R, C, V> {
     @SuppressWarnings("unchecked")
     @Override
     public BinaryTableContainer<R, C, V> load(@NotNull String path) throws DataLoadingException {
-        try {
-            ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(path));
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new BufferedInputStream(
+                compressionOf(path).decompress(new FileInputStream(path)), BUFFER_SIZE))) {
             BinaryTableContainer<R, C, V> binaryTableContainer = this.getClass().cast(objectInputStream.readObject());
-            objectInputStream.close();
+            binaryTableContainer.compression = compression;
             return binaryTableContainer;
         } catch (IOException | ClassNotFoundException e) {
             throw new DataLoadingException(e.getMessage());
         }
     }
+
+    /**
+     * Set the codec to compress persisted files and decompress loaded files.
+     *
+     * @param compression the codec, or <code>null</code> to select it by the suffix of path
+     * @return current container
+     * @see Compression#of(String)
+     */
+    @CanIgnoreReturnValue
+    public BinaryTableContainer<R, C, V> compression(@Nullable Compression compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * Get the codec set through {@link #compression(Compression)}.
+     *
+     * @return the codec, or <code>null</code> if it's selected by the suffix of path
+     */
+    @Nullable
+    public Compression compression() {
+        return compression;
+    }
+
+    private Compression compressionOf(String path) {
+        return compression != null ? compression : Compression.of(path);
+    }
 }
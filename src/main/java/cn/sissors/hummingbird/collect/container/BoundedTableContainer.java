@@ -0,0 +1,408 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import cn.sissors.hummingbird.collect.MemoryFootprint;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A csv table container which keeps at most a given count of rows, and optionally
+ * only rows younger than a given age, for long-running collection such as a row per
+ * time bucket.
+ *
+ * <p>Rows are kept in eviction order, and the oldest rows are evicted in O(1) each
+ * when a push exceeds the bounds. The order is either the order rows were first pushed
+ * ({@link EvictionOrder#FIRST_PUSHED}, like a ring buffer) or the order rows were last
+ * pushed ({@link EvictionOrder#LEAST_RECENTLY_PUSHED}). Reading never changes the order,
+ * so printing or persisting the container doesn't affect which rows are evicted.
+ *
+ * <p>A column is listed only as long as some row holds it, so {@link #rowMap()},
+ * {@link #columnMap()} and {@link #columnKeys()} never refer to evicted rows. A column
+ * which appears again after all its rows were evicted is listed at the end.
+ *
+ * <p>Evicted rows can be spilled through {@link #onEviction(Consumer)}, e.g.
+ *
+ * <pre>{@code
+ * container.onEviction(evicted -> evicted.persist(path));
+ * }</pre>
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class BoundedTableContainer<R, C, V> extends CSVTableContainer<R, C, V> {
+    private final int maxRows;
+    private long maxAge = Long.MAX_VALUE;
+    private EvictionOrder evictionOrder = EvictionOrder.FIRST_PUSHED;
+    private transient Consumer<? super CSVTableContainer<R, C, V>> evictionListener;
+
+    private LinkedHashMap<R, Row<C, V>> rows;
+    private LinkedHashMap<C, Integer> columns;
+
+    /**
+     * The order in which rows are evicted.
+     */
+    public enum EvictionOrder {
+        /**
+         * Evict the row which was pushed for the first time earliest, updates don't refresh rows.
+         */
+        FIRST_PUSHED,
+        /**
+         * Evict the row which was pushed for the last time earliest.
+         */
+        LEAST_RECENTLY_PUSHED
+    }
+
+    /**
+     * Create a container which keeps at most the given count of rows.
+     *
+     * @param headerName  header name
+     * @param ROW_TYPE    row type
+     * @param COLUMN_TYPE column type
+     * @param VALUE_TYPE  value type
+     * @param maxRows     the maximum count of rows
+     */
+    public BoundedTableContainer(String headerName, Class<R> ROW_TYPE, Class<C> COLUMN_TYPE, Class<V> VALUE_TYPE,
+                                 int maxRows) {
+        super(headerName, ROW_TYPE, COLUMN_TYPE, VALUE_TYPE);
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException("max rows must be positive: " + maxRows);
+        }
+        this.maxRows = maxRows;
+        this.rows = Maps.newLinkedHashMap();
+        this.columns = Maps.newLinkedHashMap();
+    }
+
+    /**
+     * Evict rows older than the given age, measured from the time they entered the
+     * eviction order. Expired rows are evicted on push and by {@link #evictExpired()}.
+     *
+     * @param maxAge the maximum age of rows
+     * @param unit   time unit of the age
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public BoundedTableContainer<R, C, V> maxAge(long maxAge, TimeUnit unit) {
+        this.maxAge = unit.toMillis(maxAge);
+        return this;
+    }
+
+    /**
+     * Set the order in which rows are evicted, which only applies to rows pushed later.
+     *
+     * <p>DEFAULT: {@link EvictionOrder#FIRST_PUSHED}
+     *
+     * @param evictionOrder eviction order
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public BoundedTableContainer<R, C, V> evictionOrder(EvictionOrder evictionOrder) {
+        this.evictionOrder = evictionOrder;
+        return this;
+    }
+
+    /**
+     * Set the callback which receives evicted rows. All rows evicted at once are passed
+     * as a single new {@link CSVTableContainer} with the same header name and types, in
+     * eviction order. The callback is not serialized or cloned.
+     *
+     * @param evictionListener the callback, or <code>null</code> to drop evicted rows
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public BoundedTableContainer<R, C, V> onEviction(@Nullable Consumer<? super CSVTableContainer<R, C, V>> evictionListener) {
+        this.evictionListener = evictionListener;
+        return this;
+    }
+
+    /**
+     * Get the maximum count of rows.
+     *
+     * @return the maximum count of rows
+     */
+    public int maxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Get the count of rows currently kept.
+     *
+     * @return the count of rows
+     */
+    public int rowCount() {
+        return rows.size();
+    }
+
+    /**
+     * Push a cell into container, then evict the oldest rows if the container exceeds
+     * its bounds.
+     *
+     * @param row    row key
+     * @param column column key
+     * @param value  cell value
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public BoundedTableContainer<R, C, V> push(R row, C column, V value) {
+        checkWritable();
+        long now = System.currentTimeMillis();
+        Row<C, V> cells = rows.get(row);
+        if (cells == null) {
+            cells = new Row<>(now);
+            rows.put(row, cells);
+        } else if (evictionOrder == EvictionOrder.LEAST_RECENTLY_PUSHED) {
+            rows.remove(row);
+            rows.put(row, cells);
+            cells.time = now;
+        }
+        if (!cells.values.containsKey(column)) {
+            columns.merge(column, 1, Integer::sum);
+        }
+        cells.values.put(column, pooled(value));
+        indexCell(row, column);
+        evict(now);
+        return this;
+    }
+
+    /**
+     * Evict rows which are older than the maximum age.
+     *
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public BoundedTableContainer<R, C, V> evictExpired() {
+        checkWritable();
+        evict(System.currentTimeMillis());
+        return this;
+    }
+
+    private void evict(long now) {
+        CSVTableContainer<R, C, V> evicted = null;
+        Iterator<Map.Entry<R, Row<C, V>>> iterator = rows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<R, Row<C, V>> eldest = iterator.next();
+            if (rows.size() <= maxRows && now - eldest.getValue().time <= maxAge) {
+                break;
+            }
+            iterator.remove();
+            // an evicted row leaves as a whole, even if it has no cell to notify through indexCell
+            contentReplaced();
+            R rowKey = eldest.getKey();
+            if (evictionListener != null && evicted == null) {
+                evicted = new CSVTableContainer<>(getHeaderName(), getRowType(), getColumnType(), getValueType())
+                        .separator(separator()).newLine(newLine());
+            }
+            for (Map.Entry<C, V> cell : eldest.getValue().values.entrySet()) {
+                columns.computeIfPresent(cell.getKey(), (columnKey, count) -> count > 1 ? count - 1 : null);
+                indexCell(rowKey, cell.getKey());
+                if (evicted != null) {
+                    evicted.push(rowKey, cell.getKey(), cell.getValue());
+                }
+            }
+        }
+        if (evicted != null) {
+            evictionListener.accept(evicted);
+        }
+    }
+
+    @Nullable
+    @Override
+    public V get(R row, C column) {
+        Row<C, V> cells = rows.get(row);
+        return cells != null ? cells.values.get(column) : null;
+    }
+
+    /**
+     * Get row keys in eviction order, the eldest row first.
+     *
+     * @return a list that contains all row keys
+     */
+    @Override
+    public List<R> rowKeys() {
+        return Collections.unmodifiableList(Lists.newArrayList(rows.keySet()));
+    }
+
+    /**
+     * Get column keys held by the rows currently kept.
+     *
+     * @return a list that contains all column keys
+     */
+    @Override
+    public List<C> columnKeys() {
+        return Collections.unmodifiableList(Lists.newArrayList(columns.keySet()));
+    }
+
+    /**
+     * Get a copy of the table organized by row keys.
+     *
+     * @return a nested map whose structure is (row, (column, value))
+     */
+    @Override
+    public Map<R, Map<C, V>> rowMap() {
+        Map<R, Map<C, V>> rowMap = Maps.newLinkedHashMap();
+        rows.forEach((rowKey, cells) -> rowMap.put(rowKey, cells.populated()));
+        return Collections.unmodifiableMap(rowMap);
+    }
+
+    /**
+     * Get a copy of the table organized by column keys.
+     *
+     * @return a nested map whose structure is (column, (row, value))
+     */
+    @Override
+    public Map<C, Map<R, V>> columnMap() {
+        Map<C, Map<R, V>> columnMap = Maps.newLinkedHashMap();
+        columns.keySet().forEach(columnKey -> columnMap.put(columnKey, Maps.newLinkedHashMap()));
+        rows.forEach((rowKey, cells) -> cells.values.forEach((columnKey, value) -> {
+            if (value != null) {
+                columnMap.get(columnKey).put(rowKey, value);
+            }
+        }));
+        columnMap.replaceAll((columnKey, column) -> Collections.unmodifiableMap(column));
+        return Collections.unmodifiableMap(columnMap);
+    }
+
+    @Override
+    public Map<C, V> singleRow(R row) {
+        Row<C, V> cells = rows.get(row);
+        return cells != null ? cells.populated() : null;
+    }
+
+    @Override
+    public Map<R, V> singleColumn(C column) {
+        if (!columns.containsKey(column)) {
+            return null;
+        }
+        Map<R, V> singleColumn = Maps.newLinkedHashMap();
+        rows.forEach((rowKey, cells) -> {
+            V value = cells.values.get(column);
+            if (value != null) {
+                singleColumn.put(rowKey, value);
+            }
+        });
+        return Collections.unmodifiableMap(singleColumn);
+    }
+
+    @CanIgnoreReturnValue
+    @Override
+    public BoundedTableContainer<R, C, V> clean() {
+        checkWritable();
+        this.rows = Maps.newLinkedHashMap();
+        this.columns = Maps.newLinkedHashMap();
+        invalidateIndexes();
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public BoundedTableContainer<R, C, V> clone() {
+        BoundedTableContainer<R, C, V> other = (BoundedTableContainer<R, C, V>) super.clone();
+        other.rows = Maps.newLinkedHashMap();
+        rows.forEach((rowKey, cells) -> other.rows.put(rowKey, cells.copy()));
+        other.columns = Maps.newLinkedHashMap(columns);
+        other.evictionListener = null;
+        return other;
+    }
+
+    /**
+     * The copy keeps the bounds, but evicted rows of it are not passed to the eviction listener.
+     *
+     * @return an empty container
+     */
+    @Override
+    protected BoundedTableContainer<R, C, V> emptyCopy() {
+        BoundedTableContainer<R, C, V> other = (BoundedTableContainer<R, C, V>) super.emptyCopy();
+        other.evictionListener = null;
+        return other;
+    }
+
+    /**
+     * Rows keep their age, and the new order of rows becomes the eviction order.
+     *
+     * @param rowKeys    distinct existing row keys in the new order
+     * @param columnKeys distinct existing column keys in the new order
+     */
+    @Override
+    protected void reorganize(List<R> rowKeys, List<C> columnKeys) {
+        LinkedHashMap<R, Row<C, V>> rows = Maps.newLinkedHashMap();
+        LinkedHashMap<C, Integer> columns = Maps.newLinkedHashMap();
+        columnKeys.forEach(columnKey -> columns.put(columnKey, 0));
+        rowKeys.forEach(rowKey -> {
+            Row<C, V> cells = this.rows.get(rowKey);
+            Row<C, V> kept = new Row<>(cells.time);
+            columnKeys.forEach(columnKey -> {
+                if (cells.values.containsKey(columnKey)) {
+                    kept.values.put(columnKey, cells.values.get(columnKey));
+                    columns.merge(columnKey, 1, Integer::sum);
+                }
+            });
+            rows.put(rowKey, kept);
+        });
+        columns.values().removeIf(count -> count == 0);
+        this.rows = rows;
+        this.columns = columns;
+        invalidateIndexes();
+    }
+
+    @Override
+    protected boolean isStorageBacked() {
+        return false;
+    }
+
+    /**
+     * The structures are the linked maps of rows.
+     *
+     * @return bytes of structures
+     */
+    @Override
+    protected long structureSize() {
+        long size = linkedMapSize(rows.size()) + linkedMapSize(columns.size());
+        for (Row<C, V> row : rows.values()) {
+            size += 24 + linkedMapSize(row.values.size());
+        }
+        return size;
+    }
+
+    private static long linkedMapSize(int size) {
+        return 56 + MemoryFootprint.sizeOfArray(Integer.highestOneBit(Math.max(size, 1)) << 1, 4) + 40L * size;
+    }
+
+    /**
+     * Cells of a single row, where a registered but empty cell holds <code>null</code>.
+     */
+    private static class Row<C, V> implements Serializable {
+        private final LinkedHashMap<C, V> values;
+        private long time;
+
+        private Row(long time) {
+            this.values = Maps.newLinkedHashMap();
+            this.time = time;
+        }
+
+        private Map<C, V> populated() {
+            Map<C, V> populated = Maps.newLinkedHashMap();
+            values.forEach((columnKey, value) -> {
+                if (value != null) {
+                    populated.put(columnKey, value);
+                }
+            });
+            return Collections.unmodifiableMap(populated);
+        }
+
+        private Row<C, V> copy() {
+            Row<C, V> copy = new Row<>(time);
+            copy.values.putAll(values);
+            return copy;
+        }
+    }
+}
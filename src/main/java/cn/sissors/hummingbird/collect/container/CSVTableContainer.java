@@ -10,22 +10,42 @@ import cn.sissors.hummingbird.exceptions.DataPersistenceException;
 import cn.sissors.hummingbird.exceptions.IllegalValueTypeException;
 import cn.sissors.hummingbird.exceptions.NetworkTransferException;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Arrays;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
@@ -37,6 +57,9 @@ import java.util.regex.Pattern;
  */
 public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
     private final static String LOCAL_STORAGE_DIR = "./persistence/";
+    private final static int WRITE_BUFFER_SIZE = 1 << 16;
+    private final static long MIN_CHUNK_SIZE = 1 << 20;
+    private final static String TYPES_LINE = "#types";
     private final static Map<RemoteProfile.RemoteServer, Connection> remoteConnectionCache;
 
     private String SEPARATOR = "|";
@@ -44,8 +67,12 @@ public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
     private Class<R> ROW_TYPE;
     private Class<C> COLUMN_TYPE;
     private Class<V> VALUE_TYPE;
+    private Map<C, Class<? extends V>> schema = Collections.emptyMap();
+    private Compression compression;
+    private boolean appendMode;
+    private transient volatile PersistLog<R> persistLog;
 
-    private final static Map<Class, Function<String, ?>> PARSERS = new ImmutableMap.Builder<Class, Function<String, ?>>()
+    private final static Map<Class<?>, Function<String, ?>> BUILT_IN_PARSERS = ImmutableMap.<Class<?>, Function<String, ?>>builder()
             .put(Integer.class, Integer::valueOf)
             .put(Long.class, Long::valueOf)
             .put(String.class, String::toString)
@@ -53,6 +80,7 @@ public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
             .put(JSONObject.class, JSONObject::new)
             .put(JSONArray.class, JSONArray::new)
             .build();
+    private final static Map<Class<?>, Function<String, ?>> PARSERS = Maps.newConcurrentMap();
 
     static {
         File storageDir = new File(LOCAL_STORAGE_DIR);
@@ -61,6 +89,7 @@ public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
             storageDir.mkdirs();
         }
         remoteConnectionCache = Maps.newConcurrentMap();
+        PARSERS.putAll(BUILT_IN_PARSERS);
     }
 
     @SuppressWarnings({"unchecked", "UnstableApiUsage"})
@@ -140,6 +169,14 @@ public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
      *
      * <p>For different new line character under different systems, set it through NEW_LINE(String).
      *
+     * <p>The file is encoded in UTF-8 and written row by row through a buffer, so the memory
+     * used by persisting doesn't grow with the size of container. The file is compressed on
+     * the fly by the codec set through {@link #compression(Compression)}, or selected by the
+     * suffix of path, e.g. <b>result.csv.gz</b>.
+     *
+     * <p>In append mode set through {@link #appendMode(boolean)}, only rows added since the
+     * last persist to the same path are appended to the file.
+     *
      * <p>The pattern for remote path is <b>"user.password@host:port:path-to-file.csv"</b>.
      *
      * <p>e.g.
@@ -158,33 +195,126 @@ public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
             }
             File outputFile = new File(path);
             if (outputFile.getParentFile().exists() || outputFile.getParentFile().mkdirs()) {
-                FileWriter outputWriter = new FileWriter(outputFile);
-                final StringBuilder outputBuilder = new StringBuilder()
-                        .append(getHeaderName())
-                        .append(separator())
-                        .append(StringUtils.join(this.columnMap().keySet().toArray(), separator()))
-                        .append(newLine());
-                this.rowKeys().forEach(rowKey -> outputBuilder.append(rowKey)
-                        .append(separator())
-                        .append(StringUtils.join(this.columnKeys().stream().map(columnKey -> get(rowKey, columnKey)).toArray(), separator()))
-                        .append(newLine()));
-                outputWriter.write(outputBuilder.toString());
-                outputWriter.flush();
-                outputWriter.close();
+                if (appendMode) {
+                    persistChanges(outputFile, compressionOf(path));
+                } else {
+                    try (Writer outputWriter = openWriter(outputFile, compressionOf(path), false)) {
+                        writeTo(outputWriter, this.rowKeys(), this.columnKeys());
+                    }
+                }
             }
         } catch (IOException e) {
             throw new DataPersistenceException(e.getMessage());
         }
     }
 
+    private static Writer openWriter(File outputFile, Compression compression, boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(compression.compress(new FileOutputStream(outputFile, append)),
+                StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Append rows added since the last persist if the file is still as written by it, and
+     * nothing but the added rows has been changed. Otherwise the whole file is rewritten.
+     *
+     * <p>Changed rows are removed from the log one by one, so a row changed again while
+     * persisting is kept for the next persist. Rows tracked by id are cleared at once, as
+     * the containers tracking them don't support writes while persisting.
+     */
+    private void persistChanges(File outputFile, Compression compression) throws IOException {
+        PersistLog<R> log = this.persistLog;
+        if (log == null || log.owner != containerId()) {
+            log = new PersistLog<>(containerId());
+            this.persistLog = log;
+        }
+        boolean replaced = log.replaced.getAndSet(false);
+        List<R> rowKeys = this.rowKeys();
+        List<C> columnKeys = this.columnKeys();
+        int rowCount = rowKeys.size();
+        int columnCount = columnKeys.size();
+        boolean append = !replaced && log.matches(outputFile, compression, this) && rowCount >= log.rowCount
+                && columnCount == log.columnCount;
+        Set<R> addedRows = append ? Sets.newHashSet(rowKeys.subList(log.rowCount, rowCount)) : Collections.emptySet();
+        for (Iterator<R> iterator = log.changedRows.iterator(); iterator.hasNext(); ) {
+            // rows pushed after counting are appended by the next persist, so they are dropped as well
+            append &= addedRows.contains(iterator.next());
+            iterator.remove();
+        }
+        // ids of rows are their positions in rowKeys(), so any id below the last count is an existing row
+        append &= log.changedRowIds.previousSetBit(log.rowCount - 1) < 0;
+        log.changedRowIds.clear();
+        try (Writer outputWriter = openWriter(outputFile, compression, append)) {
+            if (append) {
+                for (int i = log.rowCount; i < rowCount; i++) {
+                    writeRow(outputWriter, rowKeys.get(i), columnKeys);
+                }
+            } else {
+                writeTo(outputWriter, rowKeys.subList(0, rowCount), columnKeys.subList(0, columnCount));
+            }
+        }
+        log.written(outputFile, compression, this, rowCount, columnCount);
+    }
+
+    /**
+     * Write the container in csv format row by row, so that no more than a single row
+     * is kept in memory besides the container itself. Empty cells are written as empty strings.
+     *
+     * @param outputWriter the writer to write into, which is neither flushed nor closed
+     * @param rowKeys      row keys to write
+     * @param columnKeys   column keys to write
+     * @throws IOException error appearance in writing
+     */
+    private void writeTo(Writer outputWriter, List<R> rowKeys, List<C> columnKeys) throws IOException {
+        final String separator = separator();
+        final String newLine = newLine();
+        outputWriter.write(String.valueOf(getHeaderName()));
+        for (C columnKey : columnKeys) {
+            outputWriter.write(separator);
+            writeCell(outputWriter, columnKey);
+        }
+        outputWriter.write(newLine);
+        Map<C, Class<? extends V>> schema = this.schema;
+        if (!schema.isEmpty()) {
+            outputWriter.write(TYPES_LINE);
+            for (C columnKey : columnKeys) {
+                outputWriter.write(separator);
+                Class<?> type = schema.get(columnKey);
+                writeCell(outputWriter, type != null ? type.getName() : null);
+            }
+            outputWriter.write(newLine);
+        }
+        for (R rowKey : rowKeys) {
+            writeRow(outputWriter, rowKey, columnKeys);
+        }
+    }
+
+    private void writeRow(Writer outputWriter, R rowKey, List<C> columnKeys) throws IOException {
+        final String separator = separator();
+        writeCell(outputWriter, rowKey);
+        for (C columnKey : columnKeys) {
+            outputWriter.write(separator);
+            writeCell(outputWriter, get(rowKey, columnKey));
+        }
+        outputWriter.write(newLine());
+    }
+
+    private static void writeCell(Writer outputWriter, Object cell) throws IOException {
+        if (cell != null) {
+            outputWriter.write(cell.toString());
+        }
+    }
+
     /**
      * Load data from external storage into container.
      *
      * <p><b>Notice:</b> set row, column and value types first before calling this method.
      *
      * <p>The three types of row, column and value, abbreviated as R, C and V,
-     * are requested for supporting by PARSERS or implementing the
-     * {@link cn.sissors.hummingbird.collect.feature.Parsable} interface.
+     * are requested for supporting by PARSERS, registering by {@link #registerParser(Class, Function)}
+     * or implementing the {@link cn.sissors.hummingbird.collect.feature.Parsable} interface.
+     *
+     * <p>Empty cells are loaded as <code>null</code> unless the value type is {@link String}.
+     * The file is decoded in UTF-8, and decompressed on the fly as {@link #persist(String)}.
      *
      * <p>The pattern for remote path is <b>"user.password@host:port:path-to-file.csv"</b>.
      *
@@ -197,58 +327,331 @@ public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
      * @throws DataLoadingException error appearance such as {@link java.io.IOException},
      *                              {@link cn.sissors.hummingbird.exceptions.IllegalValueTypeException} and so on
      */
-    @SuppressWarnings("unchecked")
     @Override
     public CSVTableContainer<R, C, V> load(@NotNull String path) throws DataLoadingException {
         try {
             if (RemoteProfile.isLegal(path)) {
                 return loadFromRemote(path);
             }
-            String SEPARATOR_REGEX = separator().replaceAll("\\|", "\\\\|");
-            Scanner inputScanner = new Scanner(new File(path));
-            String[] headerUnits = inputScanner.nextLine().split(SEPARATOR_REGEX);
-            this.clean().setHeaderName(headerUnits[0]);
-            C[] columnKeys = (C[]) Arrays
-                    .stream(ArrayUtils.subarray(headerUnits, 1, headerUnits.length))
-                    .map(column -> {
-                        try {
-                            return parse(column, getColumnType());
-                        } catch (ClassNotFoundException | IllegalAccessException | IllegalValueTypeException
-                                | InstantiationException e) {
-                            e.printStackTrace();
-                        }
-                        return null;
-                    }).toArray();
-            String rowLine;
-            while (inputScanner.hasNextLine() && (rowLine = inputScanner.nextLine()).length() > 0) {
-                String[] rowUnits = rowLine.split(SEPARATOR_REGEX);
-                R rowKey = parse(rowUnits[0], getRowType());
-                for (int i = 1; i < rowUnits.length; i++) {
-                    C columnKey = columnKeys[i - 1];
-                    V value = parse(rowUnits[i], getValueType());
-                    push(rowKey, columnKey, value);
+            try (CSVTokenizer tokenizer = new CSVTokenizer(compressionOf(path)
+                    .decompress(new FileInputStream(path)), separator())) {
+                List<C> columnKeys = loadHeader(tokenizer, path);
+                boolean hasLine = tokenizer.nextLine();
+                if (hasLine && loadTypes(tokenizer, columnKeys)) {
+                    hasLine = tokenizer.nextLine();
+                }
+                RowParser<R> parser = rowParser(columnKeys);
+                // the array is consumed by each push before the next line is read, so it's reused
+                Object[] row = new Object[columnKeys.size() + 1];
+                while (hasLine && !tokenizer.isEmptyLine()) {
+                    pushParsedRow(row, parseRow(tokenizer, row, parser), columnKeys);
+                    hasLine = tokenizer.nextLine();
                 }
             }
-            inputScanner.close();
             return this;
-        } catch (FileNotFoundException | IllegalAccessException | InstantiationException | IllegalValueTypeException
-                | ClassNotFoundException e) {
+        } catch (IOException | IllegalAccessException | InstantiationException | IllegalValueTypeException
+                | IndexOutOfBoundsException e) {
             throw new DataLoadingException("Data loading failed. Please check external file path and value type");
         }
     }
 
+    /**
+     * Load data from external storage into container, parsing chunks of the file in parallel
+     * on the common {@link ForkJoinPool}.
+     *
+     * @param path external storage path
+     * @return the container that has been loaded
+     * @throws DataLoadingException error appearance such as {@link java.io.IOException},
+     *                              {@link cn.sissors.hummingbird.exceptions.IllegalValueTypeException} and so on
+     * @see #loadParallel(String, ForkJoinPool)
+     */
+    public CSVTableContainer<R, C, V> loadParallel(@NotNull String path) throws DataLoadingException {
+        return loadParallel(path, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load data from external storage into container, parsing chunks of the file in parallel.
+     *
+     * <p>Rows after the header are split into byte ranges aligned to line breaks, about four
+     * ranges per thread but no smaller than 1 MiB. Each range is tokenized and parsed by a
+     * task of the pool, and parsed rows are pushed in the original order as soon as their
+     * range is done, so the result equals {@link #load(String)}.
+     *
+     * <p>Remote files are downloaded first and loaded by {@link #load(String)}, so are
+     * compressed files which can't be split into byte ranges.
+     *
+     * @param path external storage path
+     * @param pool the pool to parse chunks
+     * @return the container that has been loaded
+     * @throws DataLoadingException error appearance such as {@link java.io.IOException},
+     *                              {@link cn.sissors.hummingbird.exceptions.IllegalValueTypeException} and so on
+     */
+    public CSVTableContainer<R, C, V> loadParallel(@NotNull String path, ForkJoinPool pool) throws DataLoadingException {
+        return loadParallel(path, pool, MIN_CHUNK_SIZE);
+    }
+
+    CSVTableContainer<R, C, V> loadParallel(String path, ForkJoinPool pool, long minChunkSize) throws DataLoadingException {
+        if (RemoteProfile.isLegal(path) || compressionOf(path) != Compression.NONE) {
+            return load(path);
+        }
+        File file = new File(path);
+        List<ForkJoinTask<ParsedChunk>> chunks = Lists.newArrayList();
+        try {
+            List<C> columnKeys;
+            long dataStart;
+            try (CSVTokenizer tokenizer = new CSVTokenizer(file, separator())) {
+                columnKeys = loadHeader(tokenizer, path);
+                dataStart = tokenizer.offset();
+                if (tokenizer.nextLine() && loadTypes(tokenizer, columnKeys)) {
+                    dataStart = tokenizer.offset();
+                }
+            }
+            RowParser<R> parser = rowParser(columnKeys);
+            long dataBegin = dataStart;
+            long dataEnd = file.length();
+            long chunkCount = Math.max(1L, Math.min(pool.getParallelism() * 4L, (dataEnd - dataBegin) / minChunkSize));
+            for (long i = 0; i < chunkCount; i++) {
+                long from = dataBegin + (dataEnd - dataBegin) * i / chunkCount;
+                long to = dataBegin + (dataEnd - dataBegin) * (i + 1) / chunkCount;
+                chunks.add(pool.submit(() -> parseChunk(file, from, to, from == dataBegin, columnKeys.size(), parser)));
+            }
+            for (int i = 0; i < chunks.size(); i++) {
+                ParsedChunk chunk = chunks.get(i).get();
+                chunks.set(i, null);
+                for (Object[] row : chunk.rows) {
+                    pushParsedRow(row, row.length, columnKeys);
+                }
+                if (chunk.stopped) {
+                    break;
+                }
+            }
+            return this;
+        } catch (IOException | IllegalAccessException | InstantiationException | IllegalValueTypeException
+                | IndexOutOfBoundsException | ExecutionException e) {
+            throw new DataLoadingException("Data loading failed. Please check external file path and value type");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataLoadingException("Data loading is interrupted");
+        } finally {
+            chunks.stream().filter(Objects::nonNull).forEach(chunk -> chunk.cancel(true));
+        }
+    }
+
+    /**
+     * Parse lines starting within a byte range. A line which starts before the range
+     * belongs to the previous range, even if it ends within this one.
+     *
+     * @param first whether the range starts right after the header
+     */
+    private ParsedChunk parseChunk(File file, long from, long to, boolean first, int columnCount,
+                                   RowParser<R> parser) throws IOException {
+        ParsedChunk chunk = new ParsedChunk();
+        long start = first ? from : from - 1;
+        try (FileInputStream input = new FileInputStream(file)) {
+            input.getChannel().position(start);
+            CSVTokenizer tokenizer = new CSVTokenizer(input, separator());
+            if (!first) {
+                // skip the rest of the line which crosses the start of range
+                tokenizer.nextLine();
+            }
+            while (start + tokenizer.offset() < to && tokenizer.nextLine()) {
+                if (tokenizer.isEmptyLine()) {
+                    chunk.stopped = true;
+                    break;
+                }
+                if (tokenizer.cellCount() > columnCount + 1) {
+                    throw new IndexOutOfBoundsException("more cells than columns");
+                }
+                Object[] row = new Object[tokenizer.cellCount()];
+                parseRow(tokenizer, row, parser);
+                chunk.rows.add(row);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Clean the container and load its header.
+     *
+     * @return column keys in the header
+     */
+    List<C> loadHeader(CSVTokenizer tokenizer, String path) throws IOException, DataLoadingException,
+            IllegalAccessException, InstantiationException, IllegalValueTypeException {
+        if (!tokenizer.nextLine()) {
+            throw new DataLoadingException("Data loading failed. The file is empty: " + path);
+        }
+        this.clean().setHeaderName(tokenizer.cell(0));
+        Function<String, C> columnParser = parser(getColumnType());
+        List<C> columnKeys = new ArrayList<>(tokenizer.cellCount() - 1);
+        for (int i = 1; i < tokenizer.cellCount(); i++) {
+            columnKeys.add(columnParser.apply(tokenizer.cell(i)));
+        }
+        return columnKeys;
+    }
+
+    /**
+     * Parse the current line into the row key followed by values.
+     *
+     * @param row the array to parse into
+     * @return the count of parsed cells
+     */
+    static <R> int parseRow(CSVTokenizer tokenizer, Object[] row, RowParser<R> parser) {
+        int cellCount = tokenizer.cellCount();
+        row[0] = parser.rowParser.apply(tokenizer.cell(0));
+        for (int i = 1; i < cellCount; i++) {
+            String cell = tokenizer.cell(i);
+            row[i] = cell.isEmpty() && !parser.keepsEmpty[i - 1] ? null : parser.valueParsers[i - 1].apply(cell);
+        }
+        return cellCount;
+    }
+
+    /**
+     * Resolve the parsers of a row, where each column is parsed by the parser of its type in schema.
+     */
+    RowParser<R> rowParser(List<C> columnKeys)
+            throws IllegalAccessException, InstantiationException, IllegalValueTypeException {
+        Function<?, ?>[] valueParsers = new Function<?, ?>[columnKeys.size()];
+        boolean[] keepsEmpty = new boolean[columnKeys.size()];
+        for (int i = 0; i < columnKeys.size(); i++) {
+            Class<? extends V> type = valueType(columnKeys.get(i));
+            valueParsers[i] = parser(type);
+            keepsEmpty[i] = type == String.class;
+        }
+        return new RowParser<>(parser(getRowType()), valueParsers, keepsEmpty);
+    }
+
+    /**
+     * Load the types line following the header if the current line is, types declared
+     * through {@link #schema(Object, Class)} are kept.
+     *
+     * @return whether the current line is a types line
+     */
+    @SuppressWarnings("unchecked")
+    boolean loadTypes(CSVTokenizer tokenizer, List<C> columnKeys) throws IllegalValueTypeException {
+        if (!TYPES_LINE.equals(tokenizer.cell(0))) {
+            return false;
+        }
+        Map<C, Class<? extends V>> schema = Maps.newLinkedHashMap(this.schema);
+        for (int i = 1; i < tokenizer.cellCount() && i <= columnKeys.size(); i++) {
+            String typeName = tokenizer.cell(i);
+            if (!typeName.isEmpty() && !schema.containsKey(columnKeys.get(i - 1))) {
+                Class<?> type = typeOf(typeName);
+                if (!getValueType().isAssignableFrom(type)) {
+                    throw new IllegalValueTypeException(String.format("%s is not a sub-type of %s",
+                            type.getCanonicalName(), getValueType().getCanonicalName()));
+                }
+                schema.put(columnKeys.get(i - 1), (Class<? extends V>) type);
+            }
+        }
+        this.schema = Collections.unmodifiableMap(schema);
+        return true;
+    }
+
+    private static Class<?> typeOf(String typeName) throws IllegalValueTypeException {
+        for (Class<?> type : PARSERS.keySet()) {
+            if (type.getName().equals(typeName) || type.getSimpleName().equals(typeName)) {
+                return type;
+            }
+        }
+        try {
+            return Class.forName(typeName);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalValueTypeException(String.format("%s is not found", typeName));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pushParsedRow(Object[] row, int cellCount, List<C> columnKeys) {
+        // the whole line is pushed at once, so the row is resolved only once
+        pushGrid(Collections.singletonList((R) row[0]), columnKeys.subList(0, cellCount - 1),
+                (rowIndex, columnIndex) -> (V) row[columnIndex + 1]);
+    }
+
+    /**
+     * Parsers of a row resolved once for loading a file.
+     */
+    static class RowParser<R> {
+        private final Function<String, R> rowParser;
+        private final Function<String, ?>[] valueParsers;
+        private final boolean[] keepsEmpty;
+
+        @SuppressWarnings("unchecked")
+        private RowParser(Function<String, R> rowParser, Function<?, ?>[] valueParsers, boolean[] keepsEmpty) {
+            this.rowParser = rowParser;
+            this.valueParsers = (Function<String, ?>[]) valueParsers;
+            this.keepsEmpty = keepsEmpty;
+        }
+    }
+
+    /**
+     * Rows changed since the last persist in append mode, and the state of the file written by it.
+     *
+     * <p>The log is owned by a single container, so clones and snapshots which copy the
+     * reference neither track changes into it nor append by it. Rows are tracked either
+     * by key, or by id in a bitmap if the container has dense row ids, see {@link #trackedRowId(Object)}.
+     */
+    private static class PersistLog<R> {
+        private final long owner;
+        private final Set<R> changedRows = ConcurrentHashMap.newKeySet();
+        private final BitSet changedRowIds = new BitSet();
+        private final AtomicBoolean replaced = new AtomicBoolean();
+        private volatile String path;
+        private volatile long length;
+        private volatile long lastModified;
+        private volatile Compression compression;
+        private volatile String header;
+        private volatile String separator;
+        private volatile String newLine;
+        private volatile Map<?, ?> schema;
+        private volatile int rowCount;
+        private volatile int columnCount;
+
+        private PersistLog(long owner) {
+            this.owner = owner;
+        }
+
+        private boolean matches(File file, Compression compression, CSVTableContainer<?, ?, ?> container) throws IOException {
+            return compression != Compression.DEFLATE && compression == this.compression
+                    && file.getCanonicalPath().equals(path) && file.length() == length && file.lastModified() == lastModified
+                    && Objects.equals(container.getHeaderName(), header) && container.separator().equals(separator)
+                    && container.newLine().equals(newLine) && container.schema().equals(schema);
+        }
+
+        private void written(File file, Compression compression, CSVTableContainer<?, ?, ?> container,
+                             int rowCount, int columnCount) throws IOException {
+            this.path = file.getCanonicalPath();
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+            this.compression = compression;
+            this.header = container.getHeaderName();
+            this.separator = container.separator();
+            this.newLine = container.newLine();
+            this.schema = container.schema();
+            this.rowCount = rowCount;
+            this.columnCount = columnCount;
+        }
+    }
+
+    /**
+     * Rows parsed from a range of file, and whether an empty line ends loading within the range.
+     */
+    private static class ParsedChunk {
+        private final List<Object[]> rows = Lists.newArrayList();
+        private boolean stopped;
+    }
+
     @Contract(pure = true)
-    private Class<R> getRowType() {
+    Class<R> getRowType() {
         return ROW_TYPE;
     }
 
     @Contract(pure = true)
-    private Class<C> getColumnType() {
+    Class<C> getColumnType() {
         return COLUMN_TYPE;
     }
 
     @Contract(pure = true)
-    private Class<V> getValueType() {
+    Class<V> getValueType() {
         return VALUE_TYPE;
     }
 
@@ -267,6 +670,76 @@ public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
         return this;
     }
 
+    /**
+     * Declare the type of values in a column, which overrides the value type of container
+     * for the column, e.g. integer counters and json payloads in a table whose value type
+     * is {@link Object}.
+     *
+     * <p>Each column is loaded by the parser of its own type. A container with a schema
+     * persists the types in a line following the header, which starts with <b>#types</b>,
+     * and the types are declared by the line on load unless declared here. A types line
+     * can also be written by hand with simple names of built-in types, e.g.
+     * <code>#types|Integer|Double|JSONObject</code>.
+     *
+     * @param column the column key
+     * @param type   the type of values in the column, or <code>null</code> to use the value type of container
+     * @return current container
+     */
+    @CanIgnoreReturnValue
+    public CSVTableContainer<R, C, V> schema(C column, @Nullable Class<? extends V> type) {
+        Map<C, Class<? extends V>> schema = Maps.newLinkedHashMap(this.schema);
+        if (type != null) {
+            schema.put(column, type);
+        } else {
+            schema.remove(column);
+        }
+        this.schema = Collections.unmodifiableMap(schema);
+        return this;
+    }
+
+    /**
+     * Get types of columns declared by {@link #schema(Object, Class)} or by the types line of loaded file.
+     *
+     * @return an unmodifiable map from column keys to types
+     */
+    public Map<C, Class<? extends V>> schema() {
+        return schema;
+    }
+
+    /**
+     * Get the type of values in a column.
+     *
+     * @param column the column key
+     * @return the declared type of column, or the value type of container
+     */
+    public Class<? extends V> valueType(C column) {
+        Class<? extends V> type = schema.get(column);
+        return type != null ? type : getValueType();
+    }
+
+    /**
+     * Register the parser of a type, which is used to load keys or values of the type
+     * instead of implementing {@link Parsable}, e.g.
+     * <code>registerParser(LocalDate.class, LocalDate::parse)</code>.
+     *
+     * <p>Parsers are shared by all containers in the process. It replaces the parser
+     * registered or resolved before, but never the built-in ones, such as {@link Integer},
+     * {@link Double} or {@link String}, which would change every container loading them.
+     * Declare another type through {@link #schema(Object, Class)} for a column parsed differently.
+     *
+     * @param clazz  target object class
+     * @param parser converts a text string into target object
+     * @param <T>    target object type
+     * @throws IllegalArgumentException the type has a built-in parser
+     */
+    public static <T> void registerParser(Class<T> clazz, Function<String, ? extends T> parser) {
+        if (BUILT_IN_PARSERS.containsKey(clazz)) {
+            throw new IllegalArgumentException(String.format("the built-in parser of %s can't be replaced",
+                    clazz.getCanonicalName()));
+        }
+        PARSERS.put(clazz, parser);
+    }
+
     /**
      * Parse a text string into target class.
      *
@@ -274,29 +747,66 @@ public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
      *
      * <p>But it's more flexible which can convert string into any types which are supported.
      * Support types of this method:
-     * <p>1. types listed in PARSERS map;
+     * <p>1. types listed in PARSERS map or registered by {@link #registerParser(Class, Function)};
      * <p>2. types that implement {@link cn.sissors.hummingbird.collect.feature.Parsable} interface.
      *
      * @param text  text string
      * @param clazz target object class
      * @param <T>   target object type
      * @return a target class object
-     * @throws ClassNotFoundException    class name not illegal
+     * @throws IllegalAccessException    method access failed in target class
+     * @throws InstantiationException    no empty constructor found in target class
+     * @throws IllegalValueTypeException not supported for target type
+     */
+    static <T> T parse(String text, Class<T> clazz)
+            throws IllegalAccessException, InstantiationException, IllegalValueTypeException {
+        return parser(clazz).apply(text);
+    }
+
+    /**
+     * Get the parser of target class, which is resolved once and cached.
+     *
+     * <p>A {@link Parsable} type is resolved to its public empty constructor, and each text
+     * string is parsed by a new instance, so that instances are never shared between threads.
+     *
+     * @param clazz target object class
+     * @param <T>   target object type
+     * @return the parser
      * @throws IllegalAccessException    method access failed in target class
      * @throws InstantiationException    no empty constructor found in target class
      * @throws IllegalValueTypeException not supported for target type
      */
     @SuppressWarnings("unchecked")
-    private <T> T parse(String text, Class<T> clazz)
-            throws ClassNotFoundException, IllegalAccessException, InstantiationException, IllegalValueTypeException {
-        if (PARSERS.containsKey(clazz)) {
-            return (T) PARSERS.get(clazz).apply(text);
+    static <T> Function<String, T> parser(Class<T> clazz)
+            throws IllegalAccessException, InstantiationException, IllegalValueTypeException {
+        Function<String, T> parser = (Function<String, T>) PARSERS.get(clazz);
+        if (parser != null) {
+            return parser;
+        }
+        if (!Parsable.class.isAssignableFrom(clazz)) {
+            throw new IllegalValueTypeException(String.format("%s is not supported for loading from local file", clazz.getCanonicalName()));
         }
-        if (Parsable.class.isAssignableFrom(clazz)) {
-            Parsable<T> t = (Parsable<T>) Class.forName(clazz.getName()).newInstance();
-            return t.parse(text);
+        if (Modifier.isAbstract(clazz.getModifiers())) {
+            throw new InstantiationException(clazz.getName());
         }
-        throw new IllegalValueTypeException(String.format("%s is not supported for loading from local file", clazz.getCanonicalName()));
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup().findConstructor(clazz, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Parsable.class));
+        } catch (NoSuchMethodException e) {
+            throw new InstantiationException(clazz.getName());
+        }
+        parser = text -> {
+            try {
+                return ((Parsable<T>) constructor.invokeExact()).parse(text);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        Function<String, T> existing = (Function<String, T>) PARSERS.putIfAbsent(clazz, parser);
+        return existing != null ? existing : parser;
     }
 
     /**
@@ -323,6 +833,102 @@ public class CSVTableContainer<R, C, V> extends TableContainer<R, C, V> {
         return this;
     }
 
+    /**
+     * Set the codec to compress persisted files and decompress loaded files.
+     *
+     * @param compression the codec, or <code>null</code> to select it by the suffix of path
+     * @return current container
+     * @see Compression#of(String)
+     */
+    @CanIgnoreReturnValue
+    public CSVTableContainer<R, C, V> compression(@Nullable Compression compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * Get the codec set through {@link #compression(Compression)}.
+     *
+     * @return the codec, or <code>null</code> if it's selected by the suffix of path
+     */
+    @Nullable
+    public Compression compression() {
+        return compression;
+    }
+
+    Compression compressionOf(String path) {
+        return compression != null ? compression : Compression.of(path);
+    }
+
+    /**
+     * Set whether {@link #persist(String)} appends rows added since the last persist instead
+     * of rewriting the whole file, which keeps the cost of periodic persisting proportional
+     * to the rows added in between.
+     *
+     * <p>Rows changed since the last persist are tracked by their keys, or by their ids in
+     * numeric containers. The file is still rewritten if any existing row is changed, the
+     * header, schema or separators are changed,
+     * the container is cleaned, filtered, sorted or loaded, or the file is modified by others
+     * or persisted through another container, e.g. a snapshot. Files compressed by
+     * {@link Compression#DEFLATE} are always rewritten, while each append to a GZIP file
+     * adds a new member.
+     *
+     * @param appendMode true to append
+     * @return current container
+     */
+    @CanIgnoreReturnValue
+    public CSVTableContainer<R, C, V> appendMode(boolean appendMode) {
+        this.appendMode = appendMode;
+        if (!appendMode) {
+            this.persistLog = null;
+        }
+        return this;
+    }
+
+    /**
+     * Get whether {@link #persist(String)} appends rows added since the last persist.
+     *
+     * @return true or false
+     */
+    public boolean appendMode() {
+        return appendMode;
+    }
+
+    @Override
+    protected void rowChanged(R row) {
+        PersistLog<R> log = this.persistLog;
+        if (log != null && log.owner == containerId()) {
+            int rowId = row != null ? trackedRowId(row) : -1;
+            if (rowId >= 0) {
+                log.changedRowIds.set(rowId);
+            } else if (row != null) {
+                log.changedRows.add(row);
+            } else {
+                log.replaced.set(true);
+            }
+        }
+    }
+
+    /**
+     * Get the id of a row which is tracked in append mode instead of its key. The id must
+     * be the position of row in {@link #rowKeys()}, and the container must not be written
+     * by several threads, as ids are recorded in a plain bitmap.
+     *
+     * @param row row key
+     * @return the row id, or <code>-1</code> to track the row by its key
+     */
+    protected int trackedRowId(R row) {
+        return -1;
+    }
+
+    @Override
+    protected void contentReplaced() {
+        PersistLog<R> log = this.persistLog;
+        if (log != null && log.owner == containerId()) {
+            log.replaced.set(true);
+        }
+    }
+
     private void persistToRemote(String path) throws DataPersistenceException {
         File csvFile = null;
         try {
@@ -0,0 +1,233 @@
+package cn.sissors.hummingbird.collect.container;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A tokenizer which splits a UTF-8 csv file into cells by scanning bytes, without
+ * decoding whole lines or matching regular expressions.
+ *
+ * <p>Bytes are read into a single growing buffer, and each cell is decoded straight from
+ * its slice of the buffer. Since no byte of a multi-byte UTF-8 character is an ASCII byte,
+ * separators and line breaks can be located safely before decoding.
+ *
+ * <p>A line ends with <code>\r\n</code>, <code>\n</code> or <code>\r</code>, just as
+ * {@link java.util.Scanner#nextLine()}.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+class CSVTokenizer implements Closeable {
+    private final static int BUFFER_SIZE = 1 << 16;
+    private final static int INITIAL_CELL_CAPACITY = 16;
+
+    private final InputStream input;
+    private final byte[] separator;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private int cellStart;
+    private long consumed;
+    private boolean pendingLineFeed;
+    private String[] cells;
+    private int cellCount;
+    private int cellLimit;
+
+    CSVTokenizer(File file, String separator) throws FileNotFoundException {
+        this(new FileInputStream(file), separator);
+    }
+
+    CSVTokenizer(InputStream input, String separator) {
+        this(input, new byte[BUFFER_SIZE], 0, separator);
+    }
+
+    /**
+     * Tokenize bytes in memory, e.g. lines read from a mapped file, which are used as the buffer without copying.
+     */
+    CSVTokenizer(byte[] bytes, String separator) {
+        this(null, bytes, bytes.length, separator);
+    }
+
+    private CSVTokenizer(InputStream input, byte[] buffer, int limit, String separator) {
+        if (separator.isEmpty()) {
+            throw new IllegalArgumentException("separator must not be empty");
+        }
+        this.input = input;
+        this.separator = separator.getBytes(StandardCharsets.UTF_8);
+        this.buffer = buffer;
+        this.limit = limit;
+        this.cells = new String[INITIAL_CELL_CAPACITY];
+    }
+
+    /**
+     * Read the next line and split it into cells.
+     *
+     * @return false if the end of file is reached
+     * @throws IOException error appearance in reading
+     */
+    boolean nextLine() throws IOException {
+        return nextLine(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Read the next line and split it into cells, where only the leading cells are decoded,
+     * e.g. a single cell to read row keys only. Cells beyond the limit are counted but not
+     * decoded, so they must not be read, and trailing empty ones are not dropped by {@link #cellCount()}.
+     *
+     * @param cellLimit the count of leading cells to decode
+     * @return false if the end of file is reached
+     * @throws IOException error appearance in reading
+     */
+    boolean nextLine(int cellLimit) throws IOException {
+        this.cellLimit = cellLimit;
+        cellCount = 0;
+        cellStart = position;
+        if (pendingLineFeed) {
+            pendingLineFeed = false;
+            if (position < limit || fill()) {
+                if (buffer[position] == '\n') {
+                    position++;
+                }
+                cellStart = position;
+            }
+        }
+        if (position >= limit && !fill()) {
+            return false;
+        }
+        while (true) {
+            if (position >= limit && !fill()) {
+                addCell();
+                return true;
+            }
+            byte b = buffer[position];
+            if (b == '\n' || b == '\r') {
+                addCell();
+                position++;
+                pendingLineFeed = b == '\r';
+                return true;
+            }
+            if (b == separator[0] && isSeparator()) {
+                addCell();
+                position += separator.length;
+                cellStart = position;
+            } else {
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Get the count of cells in the current line, where trailing empty cells are
+     * dropped just as {@link String#split(String)} but the first cell is always kept.
+     *
+     * @return count of cells
+     */
+    int cellCount() {
+        int count = cellCount;
+        while (count > 1 && count <= cellLimit && cells[count - 1].isEmpty()) {
+            count--;
+        }
+        return count;
+    }
+
+    /**
+     * Get a cell of the current line.
+     *
+     * @param index the index of cell
+     * @return the cell
+     */
+    String cell(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Check whether the current line is empty.
+     *
+     * @return true or false
+     */
+    boolean isEmptyLine() {
+        return cellCount == 1 && cells[0].isEmpty();
+    }
+
+    /**
+     * Get the count of bytes before the next line, counted from where the input starts.
+     *
+     * @return offset of the next line
+     * @throws IOException error appearance in reading
+     */
+    long offset() throws IOException {
+        cellStart = position;
+        if (pendingLineFeed && (position < limit || fill())) {
+            pendingLineFeed = false;
+            if (buffer[position] == '\n') {
+                position++;
+            }
+        }
+        return consumed + position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (input != null) {
+            input.close();
+        }
+    }
+
+    private boolean isSeparator() throws IOException {
+        for (int k = 1; k < separator.length; k++) {
+            if (position + k >= limit && !fill()) {
+                return false;
+            }
+            if (buffer[position + k] != separator[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addCell() {
+        if (cellCount >= cellLimit) {
+            cellCount++;
+            return;
+        }
+        if (cellCount == cells.length) {
+            cells = Arrays.copyOf(cells, cellCount << 1);
+        }
+        int length = position - cellStart;
+        cells[cellCount++] = length == 0 ? "" : new String(buffer, cellStart, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read more bytes, where bytes of the current cell are moved to the head of buffer,
+     * and the buffer grows if a single cell fills it up.
+     *
+     * @return false if the end of file is reached
+     */
+    private boolean fill() throws IOException {
+        if (input == null) {
+            return false;
+        }
+        if (cellStart > 0) {
+            consumed += cellStart;
+            System.arraycopy(buffer, cellStart, buffer, 0, limit - cellStart);
+            position -= cellStart;
+            limit -= cellStart;
+            cellStart = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length << 1);
+        }
+        int read = input.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
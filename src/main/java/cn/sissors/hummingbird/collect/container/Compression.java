@@ -0,0 +1,109 @@
+package cn.sissors.hummingbird.collect.container;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codecs to compress persisted containers, which wrap file streams so that data are
+ * compressed and decompressed on the fly without staging the whole file in memory.
+ *
+ * <p>The codec of a file can be selected by its suffix through {@link #of(String)},
+ * e.g. <b>result.csv.gz</b> and <b>result.bin.gz</b> are compressed by {@link #GZIP}.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public enum Compression {
+    /**
+     * No compression.
+     */
+    NONE(""),
+    /**
+     * GZIP format, selected by suffix <b>.gz</b>.
+     */
+    GZIP(".gz"),
+    /**
+     * ZLIB format, selected by suffix <b>.deflate</b>.
+     */
+    DEFLATE(".deflate");
+
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    private final String suffix;
+
+    Compression(String suffix) {
+        this.suffix = suffix;
+    }
+
+    /**
+     * Get the file suffix of codec.
+     *
+     * @return suffix of file, empty for {@link #NONE}
+     */
+    public String suffix() {
+        return suffix;
+    }
+
+    /**
+     * Select the codec by the suffix of path, ignoring case.
+     *
+     * @param path file path
+     * @return the codec, {@link #NONE} if no suffix matches
+     */
+    public static Compression of(@NotNull String path) {
+        String lowerPath = path.toLowerCase(Locale.ROOT);
+        for (Compression compression : values()) {
+            if (compression != NONE && lowerPath.endsWith(compression.suffix)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Wrap a stream so that bytes written into it are compressed, where closing the
+     * returned stream finishes compression and closes the given one.
+     *
+     * @param output the stream to write compressed bytes into
+     * @return the compressing stream, or the given one for {@link #NONE}
+     * @throws IOException error appearance in writing the format header
+     */
+    public OutputStream compress(@NotNull OutputStream output) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(output, BUFFER_SIZE);
+            case DEFLATE:
+                return new BufferedOutputStream(new DeflaterOutputStream(output), BUFFER_SIZE);
+            default:
+                return output;
+        }
+    }
+
+    /**
+     * Wrap a stream so that bytes read from it are decompressed.
+     *
+     * @param input the stream to read compressed bytes from
+     * @return the decompressing stream, or the given one for {@link #NONE}
+     * @throws IOException error appearance in reading the format header
+     */
+    public InputStream decompress(@NotNull InputStream input) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPInputStream(input, BUFFER_SIZE);
+            case DEFLATE:
+                return new InflaterInputStream(new BufferedInputStream(input, BUFFER_SIZE));
+            default:
+                return input;
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import cn.sissors.hummingbird.collect.MemoryFootprint;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * A csv table container which can be shared by multiple threads.
+ *
+ * <p>Row keys and column keys are registered in append-only ordered dictionaries, so
+ * both of them keep their insertion order. Each row stores its cells in an
+ * {@link AtomicReferenceArray} indexed by column id. Cell updates are guarded by a
+ * striped lock chosen by the row id, while {@link #get(Object, Object)},
+ * {@link #rowKeys()} and {@link #columnKeys()} never lock. A key is always registered
+ * before any of its cells is published, so a cell visible through <code>get</code>
+ * always has its row and column listed in <code>rowKeys</code> and <code>columnKeys</code>.
+ *
+ * <p>{@link #clone()} and {@link #snapshot()} capture the table at a single point in time
+ * without copying any cell. Every lock stripe is held just while the row directory is
+ * captured, after which rows are shared until either side writes them, and a shared row
+ * is copied by its next write.
+ *
+ * <p><b>Notice:</b> row keys and column keys must not be <code>null</code>.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class ConcurrentTableContainer<R, C, V> extends CSVTableContainer<R, C, V> {
+    private final int concurrencyLevel;
+    private volatile Table<R, C, V> table;
+
+    public ConcurrentTableContainer(String headerName) {
+        super(headerName);
+        this.concurrencyLevel = defaultConcurrencyLevel();
+        this.table = new Table<>(concurrencyLevel);
+    }
+
+    public ConcurrentTableContainer(String headerName, Class<R> ROW_TYPE, Class<C> COLUMN_TYPE, Class<V> VALUE_TYPE) {
+        this(headerName, ROW_TYPE, COLUMN_TYPE, VALUE_TYPE, defaultConcurrencyLevel());
+    }
+
+    /**
+     * Create a container with the given count of lock stripes.
+     *
+     * @param headerName       header name
+     * @param ROW_TYPE         row type
+     * @param COLUMN_TYPE      column type
+     * @param VALUE_TYPE       value type
+     * @param concurrencyLevel the estimated count of concurrently writing threads
+     */
+    public ConcurrentTableContainer(String headerName, Class<R> ROW_TYPE, Class<C> COLUMN_TYPE, Class<V> VALUE_TYPE,
+                                    int concurrencyLevel) {
+        super(headerName, ROW_TYPE, COLUMN_TYPE, VALUE_TYPE);
+        this.concurrencyLevel = concurrencyLevel;
+        this.table = new Table<>(concurrencyLevel);
+    }
+
+    @Contract(pure = true)
+    private static int defaultConcurrencyLevel() {
+        return Runtime.getRuntime().availableProcessors() * 4;
+    }
+
+    /**
+     * Push a cell into container. It's safe to be called from multiple threads.
+     *
+     * @param row    row key
+     * @param column column key
+     * @param value  cell value
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public ConcurrentTableContainer<R, C, V> push(@NotNull R row, @NotNull C column, V value) {
+        checkWritable();
+        table.put(row, column, pooled(value));
+        indexCell(row, column);
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public V get(R row, C column) {
+        return table.get(row, column);
+    }
+
+    /**
+     * Get row keys organized as a {@link java.util.List}, in insertion order.
+     *
+     * <p>The list is a live view which never locks, row keys registered by other
+     * threads appear at its end.
+     *
+     * @return a list that contains all row keys registered so far
+     */
+    @Override
+    public List<R> rowKeys() {
+        return table.rows.view();
+    }
+
+    /**
+     * Get column keys organized as a {@link java.util.List}, in insertion order.
+     *
+     * <p>The list is a live view which never locks, column keys registered by other
+     * threads appear at its end.
+     *
+     * @return a list that contains all column keys registered so far
+     */
+    @Override
+    public List<C> columnKeys() {
+        return table.columns.view();
+    }
+
+    /**
+     * Get a snapshot of the table organized by row keys.
+     *
+     * @return a nested map whose structure is (row, (column, value))
+     */
+    @Override
+    public Map<R, Map<C, V>> rowMap() {
+        Table<R, C, V> table = this.table;
+        List<C> columnKeys = table.columns.keys();
+        Map<R, Map<C, V>> rowMap = Maps.newLinkedHashMap();
+        table.rows.keys().forEach(rowKey -> rowMap.put(rowKey, table.row(rowKey, columnKeys)));
+        return Collections.unmodifiableMap(rowMap);
+    }
+
+    /**
+     * Get a snapshot of the table organized by column keys.
+     *
+     * @return a nested map whose structure is (column, (row, value))
+     */
+    @Override
+    public Map<C, Map<R, V>> columnMap() {
+        Table<R, C, V> table = this.table;
+        List<R> rowKeys = table.rows.keys();
+        Map<C, Map<R, V>> columnMap = Maps.newLinkedHashMap();
+        table.columns.keys().forEach(columnKey -> columnMap.put(columnKey, table.column(columnKey, rowKeys)));
+        return Collections.unmodifiableMap(columnMap);
+    }
+
+    @Override
+    public Map<C, V> singleRow(R row) {
+        Table<R, C, V> table = this.table;
+        return table.rows.get(row) != null ? table.row(row, table.columns.keys()) : null;
+    }
+
+    @Override
+    public Map<R, V> singleColumn(C column) {
+        Table<R, C, V> table = this.table;
+        return table.columns.get(column) != null ? table.column(column, table.rows.keys()) : null;
+    }
+
+    /**
+     * Get the count of non-empty cells.
+     *
+     * @return the count of cells
+     */
+    public long size() {
+        return table.cellCount.sum();
+    }
+
+    @CanIgnoreReturnValue
+    @Override
+    public ConcurrentTableContainer<R, C, V> clean() {
+        checkWritable();
+        this.table = new Table<>(concurrencyLevel);
+        invalidateIndexes();
+        return this;
+    }
+
+    /**
+     * Create a writable copy of container at a single point in time, which costs O(rows)
+     * and copies no cell. Rows are shared with the origin until either of them writes it.
+     *
+     * @return a copy of container
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public ConcurrentTableContainer<R, C, V> clone() {
+        ConcurrentTableContainer<R, C, V> other = (ConcurrentTableContainer<R, C, V>) super.clone();
+        other.table = table.copy(concurrencyLevel);
+        return other;
+    }
+
+    @Override
+    protected boolean isStorageBacked() {
+        return false;
+    }
+
+    @Override
+    protected boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * The structures are the rows and their value arrays.
+     *
+     * @return bytes of structures
+     */
+    @Override
+    protected long structureSize() {
+        Table<R, C, V> table = this.table;
+        long size = MemoryFootprint.sizeOfArray(table.rows.keys.length, 4)
+                + MemoryFootprint.sizeOfArray(table.columns.keys.length, 4);
+        for (Row<V> row : table.rows.entries.values()) {
+            size += 40 + MemoryFootprint.sizeOfArray(row.values.length(), 4);
+        }
+        return size;
+    }
+
+    /**
+     * All the state of a container, replaced as a whole by {@link #clean()}.
+     */
+    private static class Table<R, C, V> implements Serializable {
+        private final OrderedRegistry<R, Row<V>> rows = new OrderedRegistry<>();
+        private final OrderedRegistry<C, Integer> columns = new OrderedRegistry<>();
+        private final ReentrantLock[] stripes;
+        private final LongAdder cellCount = new LongAdder();
+        // changed only while holding every stripe, rows of another epoch are shared with a copy
+        private long epoch;
+
+        private Table(int concurrencyLevel) {
+            int stripeCount = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1) << 1);
+            this.stripes = new ReentrantLock[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new ReentrantLock();
+            }
+        }
+
+        private void put(R row, C column, V value) {
+            Objects.requireNonNull(row);
+            Objects.requireNonNull(column);
+            int columnId = columns.register(column, Integer::valueOf);
+            Row<V> cells = rows.register(row, Row::new);
+            ReentrantLock lock = stripes[cells.id & (stripes.length - 1)];
+            lock.lock();
+            try {
+                AtomicReferenceArray<V> values = cells.values;
+                if (columnId >= values.length() && value == null) {
+                    return;
+                }
+                if (columnId >= values.length() || cells.epoch != epoch) {
+                    int capacity = columnId < values.length() ? values.length()
+                            : Math.max(Math.max(values.length() << 1, Row.INITIAL_CAPACITY), columnId + 1);
+                    AtomicReferenceArray<V> owned = new AtomicReferenceArray<>(capacity);
+                    for (int i = 0; i < values.length(); i++) {
+                        owned.lazySet(i, values.get(i));
+                    }
+                    cells.values = values = owned;
+                    cells.epoch = epoch;
+                }
+                V previous = values.getAndSet(columnId, value);
+                if (previous == null && value != null) {
+                    cellCount.increment();
+                } else if (previous != null && value == null) {
+                    cellCount.decrement();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Copy the table at a single point in time. Every stripe is held while the values
+         * of rows are captured, and the epoch moves on so that rows are copied before
+         * they're written again.
+         */
+        private Table<R, C, V> copy(int concurrencyLevel) {
+            List<R> rowKeys;
+            List<C> columnKeys;
+            AtomicReferenceArray<V>[] values;
+            long cellCount;
+            for (ReentrantLock stripe : stripes) {
+                stripe.lock();
+            }
+            try {
+                rowKeys = rows.keys();
+                columnKeys = columns.keys();
+                values = newValueArrays(rowKeys.size());
+                for (int rowId = 0; rowId < values.length; rowId++) {
+                    values[rowId] = rows.entry(rowId).values;
+                }
+                cellCount = this.cellCount.sum();
+                epoch++;
+            } finally {
+                for (ReentrantLock stripe : stripes) {
+                    stripe.unlock();
+                }
+            }
+            Table<R, C, V> copy = new Table<>(concurrencyLevel);
+            columnKeys.forEach(columnKey -> copy.columns.register(columnKey, Integer::valueOf));
+            for (int rowId = 0; rowId < values.length; rowId++) {
+                AtomicReferenceArray<V> shared = values[rowId];
+                copy.rows.register(rowKeys.get(rowId), id -> new Row<>(id, shared));
+            }
+            copy.cellCount.add(cellCount);
+            return copy;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> AtomicReferenceArray<V>[] newValueArrays(int length) {
+            return (AtomicReferenceArray<V>[]) new AtomicReferenceArray<?>[length];
+        }
+
+        private V get(R row, C column) {
+            if (row == null || column == null) {
+                return null;
+            }
+            Row<V> cells = rows.get(row);
+            Integer columnId = columns.get(column);
+            if (cells == null || columnId == null) {
+                return null;
+            }
+            AtomicReferenceArray<V> values = cells.values;
+            return columnId < values.length() ? values.get(columnId) : null;
+        }
+
+        private Map<C, V> row(R row, List<C> columnKeys) {
+            Map<C, V> singleRow = Maps.newLinkedHashMap();
+            columnKeys.forEach(columnKey -> {
+                V value = get(row, columnKey);
+                if (value != null) {
+                    singleRow.put(columnKey, value);
+                }
+            });
+            return Collections.unmodifiableMap(singleRow);
+        }
+
+        private Map<R, V> column(C column, List<R> rowKeys) {
+            Map<R, V> singleColumn = Maps.newLinkedHashMap();
+            rowKeys.forEach(rowKey -> {
+                V value = get(rowKey, column);
+                if (value != null) {
+                    singleColumn.put(rowKey, value);
+                }
+            });
+            return Collections.unmodifiableMap(singleColumn);
+        }
+    }
+
+    /**
+     * Cells of a single row indexed by column id. The values are allocated by the first
+     * write, and may be shared with copies of the table unless the row has the epoch of
+     * its table, both of which are guarded by the stripe of the row.
+     */
+    private static class Row<V> implements Serializable {
+        private final static int INITIAL_CAPACITY = 8;
+
+        private final int id;
+        private volatile AtomicReferenceArray<V> values;
+        private long epoch = -1L;
+
+        private Row(int id) {
+            this(id, new AtomicReferenceArray<>(0));
+        }
+
+        private Row(int id, AtomicReferenceArray<V> values) {
+            this.id = id;
+            this.values = values;
+        }
+    }
+
+    /**
+     * An append-only dictionary which keeps keys in registration order.
+     *
+     * <p>Lookups go through a {@link ConcurrentMap} without locking. Registration of new
+     * keys is serialized, and a key is appended to the ordered array before it becomes
+     * visible in the map.
+     */
+    private static class OrderedRegistry<K, T> implements Serializable {
+        private final static int INITIAL_CAPACITY = 16;
+
+        private final ConcurrentMap<K, T> entries = Maps.newConcurrentMap();
+        private volatile Object[] keys = new Object[INITIAL_CAPACITY];
+        private volatile Object[] orderedEntries = new Object[INITIAL_CAPACITY];
+        private volatile int size = 0;
+
+        private T get(K key) {
+            return entries.get(key);
+        }
+
+        private T register(K key, IntFunction<T> factory) {
+            T entry = entries.get(key);
+            if (entry != null) {
+                return entry;
+            }
+            synchronized (this) {
+                entry = entries.get(key);
+                if (entry == null) {
+                    int id = size;
+                    entry = factory.apply(id);
+                    Object[] orderedKeys = keys;
+                    Object[] orderedEntries = this.orderedEntries;
+                    if (id == orderedKeys.length) {
+                        orderedKeys = Arrays.copyOf(orderedKeys, id << 1);
+                        orderedEntries = Arrays.copyOf(orderedEntries, id << 1);
+                        keys = orderedKeys;
+                        this.orderedEntries = orderedEntries;
+                    }
+                    orderedKeys[id] = key;
+                    orderedEntries[id] = entry;
+                    size = id + 1;
+                    entries.put(key, entry);
+                }
+                return entry;
+            }
+        }
+
+        /**
+         * Get the entry of a registered id, which must be less than a size read before.
+         */
+        @SuppressWarnings("unchecked")
+        private T entry(int id) {
+            return (T) orderedEntries[id];
+        }
+
+        private List<K> view() {
+            return new OrderedView();
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<K> keys() {
+            int size = this.size;
+            Object[] orderedKeys = this.keys;
+            return (List<K>) Arrays.asList(Arrays.copyOf(orderedKeys, size));
+        }
+
+        /**
+         * A live view of registered keys, the size is read before the array so that
+         * every key within the size has been published.
+         */
+        private class OrderedView extends AbstractList<K> implements RandomAccess {
+            @SuppressWarnings("unchecked")
+            @Override
+            public K get(int index) {
+                int size = OrderedRegistry.this.size;
+                if (index >= size) {
+                    throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+                }
+                return (K) keys[index];
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import cn.sissors.hummingbird.collect.MemoryFootprint;
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A table container whose values are kept in primitive <code>double</code> arrays
+ * addressed by dense row and column ids, which avoids boxing every cell.
+ *
+ * <p>Use {@link #pushDouble(Object, Object, double)} and {@link #getDouble(Object, Object)}
+ * on hot paths, both of them never allocate for existing keys. An empty cell is read
+ * as zero, use {@link #containsCell(Object, Object)} or {@link #getDouble(Object, Object, double)}
+ * to tell it from a stored zero.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class DoubleTableContainer<R, C> extends NumericTableContainer<R, C, Double> {
+    private double[][] values;
+
+    public DoubleTableContainer(String headerName) {
+        super(headerName);
+    }
+
+    public DoubleTableContainer(String headerName, Class<R> ROW_TYPE, Class<C> COLUMN_TYPE) {
+        super(headerName, ROW_TYPE, COLUMN_TYPE, Double.class);
+    }
+
+    /**
+     * Push a primitive value into container.
+     *
+     * @param row    row key
+     * @param column column key
+     * @param value  cell value
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public DoubleTableContainer<R, C> pushDouble(R row, C column, double value) {
+        long cell = occupy(row, column);
+        values[(int) (cell >>> 32)][(int) cell] = value;
+        indexCell(row, column);
+        return this;
+    }
+
+    /**
+     * Get a primitive value based on (row, column).
+     *
+     * @param row    row key
+     * @param column column key
+     * @return the cell value, or zero if the cell is empty
+     */
+    public double getDouble(R row, C column) {
+        return getDouble(row, column, 0.0);
+    }
+
+    /**
+     * Get a primitive value based on (row, column).
+     *
+     * @param row          row key
+     * @param column       column key
+     * @param defaultValue the value returned if the cell is empty
+     * @return the cell value
+     */
+    public double getDouble(R row, C column, double defaultValue) {
+        int rowId = rowId(row);
+        int columnId = columnId(column);
+        return isPresent(rowId, columnId) ? values[rowId][columnId] : defaultValue;
+    }
+
+    /**
+     * Load data from external storage into container.
+     *
+     * @param path external storage path
+     * @return the container that has been loaded
+     * @throws DataLoadingException error appearance such as {@link java.io.IOException} and so on
+     */
+    @Override
+    public DoubleTableContainer<R, C> load(@NotNull String path) throws DataLoadingException {
+        super.load(path);
+        return this;
+    }
+
+    @Override
+    protected void growRows(int rowCapacity) {
+        values = Arrays.copyOf(values, rowCapacity);
+    }
+
+    @Override
+    protected void growColumns(int rowId, int columnCapacity) {
+        values[rowId] = values[rowId] == null ? new double[columnCapacity] : Arrays.copyOf(values[rowId], columnCapacity);
+    }
+
+    @Override
+    protected void resetValues() {
+        values = new double[0][];
+    }
+
+    @Override
+    protected void copyValues() {
+        double[][] copy = new double[values.length][];
+        for (int rowId = 0; rowId < values.length; rowId++) {
+            copy[rowId] = values[rowId] != null ? values[rowId].clone() : null;
+        }
+        values = copy;
+    }
+
+    @Override
+    protected long valueArraySize() {
+        long size = MemoryFootprint.sizeOfArray(values.length, 4);
+        for (double[] row : values) {
+            size += row != null ? MemoryFootprint.sizeOfArray(row.length, 8) : 0L;
+        }
+        return size;
+    }
+
+    @Override
+    protected Double boxed(int rowId, int columnId) {
+        return values[rowId][columnId];
+    }
+
+    @Override
+    protected void unboxed(int rowId, int columnId, Double value) {
+        values[rowId][columnId] = value;
+    }
+}
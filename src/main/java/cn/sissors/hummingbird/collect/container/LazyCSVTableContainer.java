@@ -0,0 +1,599 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import cn.sissors.hummingbird.collect.KeyDictionary;
+import cn.sissors.hummingbird.collect.MemoryFootprint;
+import cn.sissors.hummingbird.collect.TableStorage;
+import cn.sissors.hummingbird.exceptions.ContainerRuntimeException;
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import cn.sissors.hummingbird.exceptions.IllegalValueTypeException;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table.Cell;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A csv table container which loads a file lazily, for reading a few rows of a large table.
+ *
+ * <p>{@link #load(String)} makes a single pass over the file which only decodes row keys and
+ * records where each line starts, then keeps the file memory-mapped. A row is parsed when it's
+ * touched by {@link #get(Object, Object)}, {@link #singleRow(Object)} or an iteration, and
+ * decoded rows are kept in a LRU cache of {@link #cacheSize()} rows. So loading takes a
+ * sequential read of the file, and the heap holds only row keys, line offsets and cached rows.
+ *
+ * <p>Any modification, such as {@link #push(Object, Object, Object)}, {@link #filter} or
+ * {@link #sort()}, parses every row into the container through {@link #materialize()} first,
+ * after which it works as a {@link CSVTableContainer}. Clones and snapshots share the mapped
+ * file and the cache until they are modified.
+ *
+ * <p>Compressed files can't be mapped, so they are loaded at once as {@link CSVTableContainer#load(String)}.
+ * Malformed lines are found only when they are parsed, which throws {@link ContainerRuntimeException}.
+ *
+ * <p><b>Notice:</b> the file must not be modified while any container is lazily backed by it.
+ * Persisting onto the backing file materializes the container first, but not its clones or snapshots.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class LazyCSVTableContainer<R, C, V> extends CSVTableContainer<R, C, V> {
+    private final static int DEFAULT_CACHE_SIZE = 1024;
+
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+    private transient volatile RowIndex<R, C, V> rowIndex;
+
+    public LazyCSVTableContainer(Class<R> ROW_TYPE, Class<C> COLUMN_TYPE, Class<V> VALUE_TYPE) {
+        super(ROW_TYPE, COLUMN_TYPE, VALUE_TYPE);
+    }
+
+    public LazyCSVTableContainer(String headerName, Class<R> ROW_TYPE, Class<C> COLUMN_TYPE, Class<V> VALUE_TYPE) {
+        super(headerName, ROW_TYPE, COLUMN_TYPE, VALUE_TYPE);
+    }
+
+    /**
+     * Get the count of decoded rows kept in the cache.
+     *
+     * <p>DEFAULT: <b>1024</b>
+     *
+     * @return the count of rows
+     */
+    public int cacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Set the count of decoded rows kept in the cache, which applies to the loaded file at once.
+     *
+     * @param cacheSize the count of rows, zero to disable the cache
+     * @return current container
+     * @throws IllegalArgumentException the count is negative
+     */
+    @CanIgnoreReturnValue
+    public LazyCSVTableContainer<R, C, V> cacheSize(int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cache size must not be negative: " + cacheSize);
+        }
+        this.cacheSize = cacheSize;
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        if (rowIndex != null) {
+            rowIndex.resize(cacheSize);
+        }
+        return this;
+    }
+
+    /**
+     * Check whether rows are still read from the mapped file.
+     *
+     * @return true if the file has been loaded lazily and the container is not materialized
+     */
+    public boolean isLazy() {
+        return rowIndex != null;
+    }
+
+    /**
+     * Parse every row into the container and release the mapped file, after which the
+     * container works as a {@link CSVTableContainer}. It's called before any modification.
+     *
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public LazyCSVTableContainer<R, C, V> materialize() {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        if (rowIndex == null) {
+            return this;
+        }
+        checkWritable();
+        this.rowIndex = null;
+        List<R> rowKeys = rowIndex.rows.keys();
+        for (int rowId = 0; rowId < rowKeys.size(); rowId++) {
+            Object[] values = rowIndex.parse(rowId);
+            pushValues(rowKeys.get(rowId), rowIndex.columnKeys, values);
+        }
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pushValues(R rowKey, List<C> columnKeys, Object[] values) {
+        super.pushGrid(Collections.singletonList(rowKey), columnKeys, (rowIndex, columnIndex) -> (V) values[columnIndex]);
+    }
+
+    /**
+     * Load a file lazily, where only row keys and offsets of lines are read at once.
+     *
+     * @param path external storage path
+     * @return the container that has been loaded
+     * @throws DataLoadingException error appearance such as {@link java.io.IOException},
+     *                              {@link cn.sissors.hummingbird.exceptions.IllegalValueTypeException} and so on
+     * @see CSVTableContainer#load(String)
+     */
+    @Override
+    public LazyCSVTableContainer<R, C, V> load(@NotNull String path) throws DataLoadingException {
+        if (RemoteProfile.isLegal(path) || compressionOf(path) != Compression.NONE) {
+            // remote files are downloaded and loaded back through this method
+            super.load(path);
+            return this;
+        }
+        try {
+            File file = new File(path);
+            RowIndex<R, C, V> rowIndex;
+            try (CSVTokenizer tokenizer = new CSVTokenizer(file, separator())) {
+                List<C> columnKeys = loadHeader(tokenizer, path);
+                long start = tokenizer.offset();
+                // the first line is decoded in full, in case it's a types line
+                boolean hasLine = tokenizer.nextLine();
+                if (hasLine && loadTypes(tokenizer, columnKeys)) {
+                    start = tokenizer.offset();
+                    hasLine = tokenizer.nextLine(1);
+                }
+                rowIndex = new RowIndex<>(columnKeys, rowParser(columnKeys), separator(), cacheSize);
+                Function<String, R> rowKeyParser = parser(getRowType());
+                while (hasLine && !tokenizer.isEmptyLine()) {
+                    rowIndex.add(rowKeyParser.apply(tokenizer.cell(0)), start);
+                    start = tokenizer.offset();
+                    hasLine = tokenizer.nextLine(1);
+                }
+                rowIndex.end(start);
+            }
+            rowIndex.map(file);
+            this.rowIndex = rowIndex;
+            invalidateIndexes();
+            return this;
+        } catch (IOException | IllegalAccessException | InstantiationException | IllegalValueTypeException e) {
+            throw new DataLoadingException("Data loading failed. Please check external file path and value type");
+        }
+    }
+
+    /**
+     * Persist container data to external permanent storage, where rows not materialized
+     * are parsed one by one through the cache.
+     *
+     * @param path external storage path
+     * @throws DataPersistenceException error appearance such as {@link java.io.IOException} and so on
+     */
+    @Override
+    public void persist(@NotNull String path) throws DataPersistenceException {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        if (rowIndex != null && rowIndex.isBackedBy(new File(path))) {
+            if (isReadOnly()) {
+                throw new DataPersistenceException("the backing file of a lazy snapshot can't be overwritten");
+            }
+            materialize();
+        }
+        super.persist(path);
+    }
+
+    @Nullable
+    @Override
+    public V get(R row, C column) {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        if (rowIndex == null) {
+            return super.get(row, column);
+        }
+        Map<C, V> cells = rowIndex.row(row);
+        return cells != null ? cells.get(column) : null;
+    }
+
+    @Override
+    public List<R> rowKeys() {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        return rowIndex != null ? rowIndex.rows.keys() : super.rowKeys();
+    }
+
+    @Override
+    public List<C> columnKeys() {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        return rowIndex != null ? rowIndex.columnKeys : super.columnKeys();
+    }
+
+    /**
+     * Get a single row based on row key, which is parsed from the file if it's not cached.
+     *
+     * @param row row key
+     * @return a map whose structure is (column, value)
+     */
+    @Override
+    public Map<C, V> singleRow(R row) {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        return rowIndex != null ? rowIndex.row(row) : super.singleRow(row);
+    }
+
+    /**
+     * Get a single column based on column key.
+     *
+     * <p><b>Notice:</b> the column is built on each call and parses every row not cached.
+     *
+     * @param column column key
+     * @return a map whose structure is (row, value)
+     */
+    @Override
+    public Map<R, V> singleColumn(C column) {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        if (rowIndex == null) {
+            return super.singleColumn(column);
+        }
+        if (!rowIndex.columnKeys.contains(column)) {
+            return null;
+        }
+        Map<R, V> singleColumn = Maps.newLinkedHashMap();
+        rowIndex.rows.keys().forEach(rowKey -> {
+            V value = rowIndex.row(rowKey).get(column);
+            if (value != null) {
+                singleColumn.put(rowKey, value);
+            }
+        });
+        return singleColumn;
+    }
+
+    /**
+     * Get the table organized by row keys.
+     *
+     * <p>The map is a read-only view, where a row is parsed when it's requested or iterated.
+     *
+     * @return a nested map whose structure is (row, (column, value))
+     */
+    @Override
+    public Map<R, Map<C, V>> rowMap() {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        return rowIndex != null ? rowIndex.rowMap() : super.rowMap();
+    }
+
+    /**
+     * Get the table organized by column keys.
+     *
+     * <p><b>Notice:</b> the map is built on each call and parses every row not cached.
+     *
+     * @return a nested map whose structure is (column, (row, value))
+     */
+    @Override
+    public Map<C, Map<R, V>> columnMap() {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        if (rowIndex == null) {
+            return super.columnMap();
+        }
+        Map<C, Map<R, V>> columnMap = Maps.newLinkedHashMap();
+        rowIndex.columnKeys.forEach(columnKey -> columnMap.put(columnKey, Maps.newLinkedHashMap()));
+        rowIndex.rows.keys().forEach(rowKey -> rowIndex.row(rowKey)
+                .forEach((columnKey, value) -> columnMap.get(columnKey).put(rowKey, value)));
+        return columnMap;
+    }
+
+    /**
+     * Rows of a lazily loaded file are read one by one through the cache.
+     *
+     * @return a sequential stream of cells
+     */
+    @Override
+    public Stream<Cell<R, C, V>> cells() {
+        return rowIndex != null ? rowCells() : super.cells();
+    }
+
+    @CanIgnoreReturnValue
+    @Override
+    public LazyCSVTableContainer<R, C, V> push(R row, C column, V value) {
+        checkWritable();
+        materialize();
+        super.push(row, column, value);
+        return this;
+    }
+
+    /**
+     * Clean all content in the container, which releases the mapped file without parsing any row.
+     *
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public LazyCSVTableContainer<R, C, V> clean() {
+        checkWritable();
+        this.rowIndex = null;
+        super.clean();
+        return this;
+    }
+
+    /**
+     * The container is materialized before the grid is pushed.
+     *
+     * @param rowKeys    row keys of the grid
+     * @param columnKeys column keys of the grid
+     * @param cells      values of the grid
+     */
+    @Override
+    protected void pushGrid(List<R> rowKeys, List<C> columnKeys, CellGrid<? extends V> cells) {
+        materialize();
+        super.pushGrid(rowKeys, columnKeys, cells);
+    }
+
+    /**
+     * The container is materialized before cells are merged.
+     *
+     * @param cells  the cells to merge
+     * @param policy resolves (existing, incoming) values of the same cell
+     */
+    @Override
+    protected void mergeStorage(TableStorage<R, C, V> cells, BinaryOperator<V> policy) {
+        materialize();
+        super.mergeStorage(cells, policy);
+    }
+
+    /**
+     * The container is materialized before it's reorganized.
+     *
+     * @param rowKeys    distinct existing row keys in the new order
+     * @param columnKeys distinct existing column keys in the new order
+     */
+    @Override
+    protected void reorganize(List<R> rowKeys, List<C> columnKeys) {
+        materialize();
+        super.reorganize(rowKeys, columnKeys);
+    }
+
+    /**
+     * Line offsets and the cache of a lazily loaded file are counted as structures.
+     *
+     * @return bytes of structures
+     */
+    @Override
+    protected long structureSize() {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        return super.structureSize() + (rowIndex != null ? rowIndex.structureSize() : 0L);
+    }
+
+    /**
+     * Only cached rows of a lazily loaded file are counted as values.
+     *
+     * @return bytes of values
+     */
+    @Override
+    protected long valueSize() {
+        RowIndex<R, C, V> rowIndex = this.rowIndex;
+        return rowIndex != null ? rowIndex.valueSize() : super.valueSize();
+    }
+
+    /**
+     * Rows not materialized are not serialized with the container, so a materialized copy is written instead.
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        return rowIndex != null ? ((LazyCSVTableContainer<?, ?, ?>) clone()).materialize() : this;
+    }
+
+    /**
+     * Offsets of lines in a mapped file, and the cache of decoded rows.
+     *
+     * <p>Each row refers to its first line, and lines of the same row key are chained in the
+     * order of file, so that later lines override earlier ones just as {@link CSVTableContainer#load(String)}.
+     * A line spans from its own offset to the offset of the next line.
+     */
+    private static class RowIndex<R, C, V> {
+        private final static int INITIAL_CAPACITY = 1024;
+        private final static int CACHE_ENTRY_SIZE = 64;
+
+        private final List<C> columnKeys;
+        private final RowParser<R> parser;
+        private final String separator;
+        private final KeyDictionary<R> rows;
+        private final LinkedHashMap<Integer, Map<C, V>> cache;
+        private volatile int cacheSize;
+        private MappedFile file;
+        private long[] lineStarts;
+        private int[] nextLines;
+        private int lineCount;
+        private int[] firstLines;
+        private int[] lastLines;
+
+        private RowIndex(List<C> columnKeys, RowParser<R> parser, String separator, int cacheSize) {
+            this.columnKeys = Collections.unmodifiableList(columnKeys);
+            this.parser = parser;
+            this.separator = separator;
+            this.rows = new KeyDictionary<>();
+            this.cache = new LinkedHashMap<Integer, Map<C, V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Map<C, V>> eldest) {
+                    return size() > RowIndex.this.cacheSize;
+                }
+            };
+            this.cacheSize = cacheSize;
+            this.lineStarts = new long[INITIAL_CAPACITY];
+            this.nextLines = new int[INITIAL_CAPACITY];
+            this.firstLines = new int[INITIAL_CAPACITY];
+            this.lastLines = new int[INITIAL_CAPACITY];
+        }
+
+        private void add(R rowKey, long start) {
+            if (lineCount + 1 >= lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lineStarts.length << 1);
+                nextLines = Arrays.copyOf(nextLines, nextLines.length << 1);
+            }
+            int line = lineCount++;
+            lineStarts[line] = start;
+            nextLines[line] = -1;
+            int rowCount = rows.size();
+            int rowId = rows.intern(rowKey);
+            if (rowId == rowCount) {
+                if (rowId == firstLines.length) {
+                    firstLines = Arrays.copyOf(firstLines, firstLines.length << 1);
+                    lastLines = Arrays.copyOf(lastLines, lastLines.length << 1);
+                }
+                firstLines[rowId] = line;
+            } else {
+                nextLines[lastLines[rowId]] = line;
+            }
+            lastLines[rowId] = line;
+        }
+
+        /**
+         * Record where the last line ends and trim the arrays.
+         */
+        private void end(long offset) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount + 1);
+            lineStarts[lineCount] = offset;
+            nextLines = Arrays.copyOf(nextLines, lineCount);
+            firstLines = Arrays.copyOf(firstLines, rows.size());
+            lastLines = null;
+        }
+
+        private void map(File file) throws IOException {
+            this.file = MappedFile.readOnly(file);
+        }
+
+        private boolean isBackedBy(File target) {
+            try {
+                return target.getCanonicalPath().equals(file.file().getCanonicalPath());
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        private void resize(int cacheSize) {
+            synchronized (cache) {
+                this.cacheSize = cacheSize;
+                Iterator<Integer> iterator = cache.keySet().iterator();
+                while (cache.size() > cacheSize && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+        }
+
+        private Map<C, V> row(R rowKey) {
+            int rowId = rows.id(rowKey);
+            return rowId < 0 ? null : row(rowId);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<C, V> row(int rowId) {
+            synchronized (cache) {
+                Map<C, V> row = cache.get(rowId);
+                if (row != null) {
+                    return row;
+                }
+            }
+            Object[] values = parse(rowId);
+            Map<C, V> row = Maps.newLinkedHashMap();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    row.put(columnKeys.get(i), (V) values[i]);
+                }
+            }
+            row = Collections.unmodifiableMap(row);
+            synchronized (cache) {
+                cache.put(rowId, row);
+            }
+            return row;
+        }
+
+        /**
+         * Parse all lines of a row, where cells of a later line override the earlier ones.
+         *
+         * @return values aligned with column keys
+         */
+        private Object[] parse(int rowId) {
+            Object[] values = new Object[columnKeys.size()];
+            Object[] cells = new Object[columnKeys.size() + 1];
+            for (int line = firstLines[rowId]; line >= 0; line = nextLines[line]) {
+                byte[] bytes = new byte[(int) (lineStarts[line + 1] - lineStarts[line])];
+                file.read(lineStarts[line], bytes);
+                try (CSVTokenizer tokenizer = new CSVTokenizer(bytes, separator)) {
+                    tokenizer.nextLine();
+                    if (tokenizer.cellCount() > cells.length) {
+                        throw new ContainerRuntimeException(String.format("more cells than columns in the line at offset %d",
+                                lineStarts[line]));
+                    }
+                    int cellCount = parseRow(tokenizer, cells, parser);
+                    System.arraycopy(cells, 1, values, 0, cellCount - 1);
+                } catch (IOException e) {
+                    throw new ContainerRuntimeException(e.getMessage());
+                }
+            }
+            return values;
+        }
+
+        private Map<R, Map<C, V>> rowMap() {
+            return new AbstractMap<R, Map<C, V>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Map<C, V> get(Object key) {
+                    return row((R) key);
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public boolean containsKey(Object key) {
+                    return rows.contains((R) key);
+                }
+
+                @Override
+                public int size() {
+                    return rows.size();
+                }
+
+                @Override
+                public Set<Entry<R, Map<C, V>>> entrySet() {
+                    return new AbstractSet<Entry<R, Map<C, V>>>() {
+                        @Override
+                        public Iterator<Entry<R, Map<C, V>>> iterator() {
+                            return Iterators.transform(rows.keys().iterator(), rowKey -> Maps.immutableEntry(rowKey, row(rowKey)));
+                        }
+
+                        @Override
+                        public int size() {
+                            return rows.size();
+                        }
+                    };
+                }
+            };
+        }
+
+        private long structureSize() {
+            long size = MemoryFootprint.sizeOfArray(lineStarts.length, 8)
+                    + MemoryFootprint.sizeOfArray(nextLines.length, 4)
+                    + MemoryFootprint.sizeOfArray(firstLines.length, 4);
+            synchronized (cache) {
+                return size + (long) cache.size() * CACHE_ENTRY_SIZE;
+            }
+        }
+
+        private long valueSize() {
+            synchronized (cache) {
+                return cache.values().stream().flatMap(row -> row.values().stream())
+                        .mapToLong(MemoryFootprint::sizeOf).sum();
+            }
+        }
+    }
+}
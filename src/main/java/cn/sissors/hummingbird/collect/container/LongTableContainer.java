@@ -0,0 +1,129 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import cn.sissors.hummingbird.collect.MemoryFootprint;
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A table container whose values are kept in primitive <code>long</code> arrays
+ * addressed by dense row and column ids, which avoids boxing every cell.
+ *
+ * <p>Use {@link #pushLong(Object, Object, long)} and {@link #getLong(Object, Object)}
+ * on hot paths, both of them never allocate for existing keys. An empty cell is read
+ * as zero, use {@link #containsCell(Object, Object)} or {@link #getLong(Object, Object, long)}
+ * to tell it from a stored zero.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class LongTableContainer<R, C> extends NumericTableContainer<R, C, Long> {
+    private long[][] values;
+
+    public LongTableContainer(String headerName) {
+        super(headerName);
+    }
+
+    public LongTableContainer(String headerName, Class<R> ROW_TYPE, Class<C> COLUMN_TYPE) {
+        super(headerName, ROW_TYPE, COLUMN_TYPE, Long.class);
+    }
+
+    /**
+     * Push a primitive value into container.
+     *
+     * @param row    row key
+     * @param column column key
+     * @param value  cell value
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    public LongTableContainer<R, C> pushLong(R row, C column, long value) {
+        long cell = occupy(row, column);
+        values[(int) (cell >>> 32)][(int) cell] = value;
+        indexCell(row, column);
+        return this;
+    }
+
+    /**
+     * Get a primitive value based on (row, column).
+     *
+     * @param row    row key
+     * @param column column key
+     * @return the cell value, or zero if the cell is empty
+     */
+    public long getLong(R row, C column) {
+        return getLong(row, column, 0L);
+    }
+
+    /**
+     * Get a primitive value based on (row, column).
+     *
+     * @param row          row key
+     * @param column       column key
+     * @param defaultValue the value returned if the cell is empty
+     * @return the cell value
+     */
+    public long getLong(R row, C column, long defaultValue) {
+        int rowId = rowId(row);
+        int columnId = columnId(column);
+        return isPresent(rowId, columnId) ? values[rowId][columnId] : defaultValue;
+    }
+
+    /**
+     * Load data from external storage into container.
+     *
+     * @param path external storage path
+     * @return the container that has been loaded
+     * @throws DataLoadingException error appearance such as {@link java.io.IOException} and so on
+     */
+    @Override
+    public LongTableContainer<R, C> load(@NotNull String path) throws DataLoadingException {
+        super.load(path);
+        return this;
+    }
+
+    @Override
+    protected void growRows(int rowCapacity) {
+        values = Arrays.copyOf(values, rowCapacity);
+    }
+
+    @Override
+    protected void growColumns(int rowId, int columnCapacity) {
+        values[rowId] = values[rowId] == null ? new long[columnCapacity] : Arrays.copyOf(values[rowId], columnCapacity);
+    }
+
+    @Override
+    protected void resetValues() {
+        values = new long[0][];
+    }
+
+    @Override
+    protected void copyValues() {
+        long[][] copy = new long[values.length][];
+        for (int rowId = 0; rowId < values.length; rowId++) {
+            copy[rowId] = values[rowId] != null ? values[rowId].clone() : null;
+        }
+        values = copy;
+    }
+
+    @Override
+    protected long valueArraySize() {
+        long size = MemoryFootprint.sizeOfArray(values.length, 4);
+        for (long[] row : values) {
+            size += row != null ? MemoryFootprint.sizeOfArray(row.length, 8) : 0L;
+        }
+        return size;
+    }
+
+    @Override
+    protected Long boxed(int rowId, int columnId) {
+        return values[rowId][columnId];
+    }
+
+    @Override
+    protected void unboxed(int rowId, int columnId, Long value) {
+        values[rowId][columnId] = value;
+    }
+}
@@ -0,0 +1,238 @@
+package cn.sissors.hummingbird.collect.container;
+
+import com.google.common.collect.Lists;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * A file which is memory-mapped in fixed-size segments and grows on demand.
+ *
+ * <p>A single {@link MappedByteBuffer} can address at most 2GB, so positions here are
+ * <code>long</code> and resolved to (segment, offset). Fixed-width values must be
+ * aligned so that they never cross a segment boundary, and variable-length records
+ * should be placed through {@link #align(long, int)}.
+ *
+ * <p>A file opened through {@link #readOnly(File)} is mapped once up to its length and
+ * never grows, so its last segment may be shorter than the others. Its descriptor is
+ * closed right after mapping, since mapped segments stay valid without it.
+ *
+ * <p><b>Notice:</b> mapped segments are released by the garbage collector only,
+ * there is no explicit unmapping under Java 8.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+class MappedFile implements Closeable {
+    final static int SEGMENT_SIZE = 1 << 24;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments;
+    private final long length;
+
+    MappedFile(File file) throws IOException {
+        this.file = file;
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = randomAccessFile.getChannel();
+        this.segments = Lists.newArrayList();
+        this.length = -1;
+        ensureCapacity(Math.max(randomAccessFile.length(), 1));
+    }
+
+    private MappedFile(File file, List<MappedByteBuffer> segments, long length) {
+        this.file = file;
+        this.randomAccessFile = null;
+        this.channel = null;
+        this.segments = segments;
+        this.length = length;
+    }
+
+    /**
+     * Map the whole file read-only, and close its descriptor at once.
+     *
+     * @param file the file to map
+     * @return a mapped file which never grows and holds no descriptor
+     * @throws IOException mapping failed
+     */
+    static MappedFile readOnly(File file) throws IOException {
+        List<MappedByteBuffer> segments = Lists.newArrayList();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            long length = channel.size();
+            for (long start = 0; start < length; start += SEGMENT_SIZE) {
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start)));
+            }
+            return new MappedFile(file, segments, length);
+        }
+    }
+
+    File file() {
+        return file;
+    }
+
+    /**
+     * Map enough segments so that positions below the capacity are addressable.
+     *
+     * @param capacity the count of bytes
+     * @throws IOException mapping failed
+     */
+    void ensureCapacity(long capacity) throws IOException {
+        if (channel == null) {
+            if (capacity > length) {
+                throw new IOException("read-only file can't grow: " + file.getPath());
+            }
+            return;
+        }
+        while ((long) segments.size() * SEGMENT_SIZE < capacity) {
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+        }
+    }
+
+    /**
+     * Get the position where a record of the given length can be placed without
+     * crossing a segment boundary.
+     *
+     * @param position the desired position
+     * @param length   the length of record
+     * @return the position itself or the start of the next segment
+     */
+    static long align(long position, int length) {
+        if (length > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("record larger than a mapped segment: " + length);
+        }
+        long offset = position % SEGMENT_SIZE;
+        return offset + length > SEGMENT_SIZE ? position - offset + SEGMENT_SIZE : position;
+    }
+
+    long getLong(long position) {
+        return segment(position).getLong(offset(position));
+    }
+
+    void putLong(long position, long value) {
+        segment(position).putLong(offset(position), value);
+    }
+
+    int getInt(long position) {
+        return segment(position).getInt(offset(position));
+    }
+
+    void putInt(long position, int value) {
+        segment(position).putInt(offset(position), value);
+    }
+
+    /**
+     * Read bytes starting from the position, which may cross segment boundaries.
+     *
+     * @param position the start position
+     * @param bytes    the array to fill
+     */
+    void read(long position, byte[] bytes) {
+        int done = 0;
+        while (done < bytes.length) {
+            ByteBuffer view = segment(position + done).duplicate();
+            int offset = offset(position + done);
+            int length = Math.min(bytes.length - done, view.limit() - offset);
+            ((Buffer) view).position(offset);
+            view.get(bytes, done, length);
+            done += length;
+        }
+    }
+
+    void write(long position, byte[] bytes) {
+        ByteBuffer view = segment(position).duplicate();
+        ((Buffer) view).position(offset(position));
+        view.put(bytes);
+    }
+
+    /**
+     * Fill a range with zero, both ends should be aligned to 8 bytes.
+     *
+     * @param from inclusive start position
+     * @param to   exclusive end position
+     */
+    void zero(long from, long to) {
+        for (long position = from; position < to; position += 8) {
+            putLong(position, 0L);
+        }
+    }
+
+    /**
+     * Flush modified content of all segments to the storage device.
+     */
+    void force() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    /**
+     * Copy the leading bytes of the file into another file. The bytes are written from
+     * the mapped segments, so it works without a descriptor as well.
+     *
+     * @param target the target file
+     * @param length the count of bytes to copy
+     * @throws IOException copy failed
+     */
+    void copyTo(File target, long length) throws IOException {
+        try (RandomAccessFile output = new RandomAccessFile(target, "rw")) {
+            output.setLength(0);
+            FileChannel outputChannel = output.getChannel();
+            long copied = 0;
+            while (copied < length) {
+                ByteBuffer view = segment(copied).duplicate();
+                int offset = offset(copied);
+                ((Buffer) view).position(offset);
+                ((Buffer) view).limit((int) Math.min(view.limit(), offset + length - copied));
+                copied += outputChannel.write(view);
+            }
+        }
+    }
+
+    /**
+     * Copy the leading bytes of the file into the same positions of another mapped file,
+     * which grows as needed.
+     *
+     * @param target the target file
+     * @param length the count of bytes to copy
+     * @throws IOException the target can't grow
+     */
+    void copyTo(MappedFile target, long length) throws IOException {
+        target.ensureCapacity(length);
+        long copied = 0;
+        while (copied < length) {
+            ByteBuffer view = segment(copied).duplicate();
+            ByteBuffer targetView = target.segment(copied).duplicate();
+            int offset = offset(copied);
+            int count = (int) Math.min(view.limit() - offset, length - copied);
+            ((Buffer) view).position(offset);
+            ((Buffer) view).limit(offset + count);
+            ((Buffer) targetView).position(offset);
+            targetView.put(view);
+            copied += count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        segments.clear();
+        if (channel != null) {
+            channel.close();
+            randomAccessFile.close();
+        }
+    }
+
+    private MappedByteBuffer segment(long position) {
+        return segments.get((int) (position / SEGMENT_SIZE));
+    }
+
+    private static int offset(long position) {
+        return (int) (position % SEGMENT_SIZE);
+    }
+}
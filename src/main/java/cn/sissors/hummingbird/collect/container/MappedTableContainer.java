@@ -0,0 +1,766 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import cn.sissors.hummingbird.collect.KeyDictionary;
+import cn.sissors.hummingbird.collect.PersistExecutor;
+import cn.sissors.hummingbird.collect.TableContainer;
+import cn.sissors.hummingbird.exceptions.ContainerRuntimeException;
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import cn.sissors.hummingbird.exceptions.IllegalValueTypeException;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A table container which keeps cell data off-heap in memory-mapped files, for
+ * tables larger than the heap.
+ *
+ * <p>Only the row and column key dictionaries live on the heap. A container
+ * backed by <b>path</b> uses four files:
+ * <ul>
+ *     <li><code>path</code>: header name, written on persist;</li>
+ *     <li><code>path.index</code>: a small bookkeeping header followed by an open-addressing
+ *     hash table from (row id, column id) to data offset;</li>
+ *     <li><code>path.data</code>: cell values appended as length-prefixed UTF-8 text;</li>
+ *     <li><code>path.keys</code>: row and column keys appended through {@link java.io.Serializable}
+ *     in the order they're registered, which rebuilds the dictionaries on load.</li>
+ * </ul>
+ *
+ * <p>Values are encoded by <code>toString()</code> and decoded by the same parsers as
+ * {@link CSVTableContainer}. So {@link #persist(String)} on the backing path is just a
+ * flush of the mapped regions, and {@link #load(String)} re-maps existing files without
+ * parsing any cell.
+ *
+ * <p>The mapped files are always live: a key is logged as soon as it's registered, and a
+ * cell is written as soon as it's pushed, so everything pushed before the container is
+ * closed is found on load. Removed cells are dropped from the index whenever it grows.
+ * Overwritten and removed values are left in the data file until {@link #persist(String)}
+ * finds that they take more than half of it, and then live values are compacted to the
+ * front. The data file never shrinks, but the reclaimed space is reused by later pushes.
+ *
+ * <p>A {@link #snapshot()} is a read-only {@link #clone()}, which copies the used part of the
+ * backing files into temporary files, so it takes time in proportion to the size of table.
+ * {@link #persistAsync(String, PersistExecutor)} persists such a snapshot and closes it
+ * afterwards, except that persisting to the backing path is done at once, since it's only a
+ * flush. Containers backed by temporary files, including clones and snapshots, delete the
+ * files on {@link #close()}.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class MappedTableContainer<R, C, V> extends TableContainer<R, C, V> implements Closeable {
+    private final static String INDEX_SUFFIX = ".index";
+    private final static String DATA_SUFFIX = ".data";
+    private final static String KEYS_SUFFIX = ".keys";
+    private final static String COMPACT_SUFFIX = ".compact";
+    private final static int SLOT_SIZE = 16;
+    private final static int HEADER_SIZE = 64;
+    private final static long INITIAL_INDEX_CAPACITY = 1024;
+    private final static long REMOVED = -1L;
+    private final static int ROW_KEY = 0;
+    private final static int COLUMN_KEY = 1;
+    private final static int SKIP_SEGMENT = -1;
+
+    private Class<V> VALUE_TYPE;
+
+    private transient File metaFile;
+    private transient MappedFile index;
+    private transient MappedFile data;
+    private transient MappedFile keys;
+    private transient boolean temporary;
+    private KeyDictionary<R> rowDictionary;
+    private KeyDictionary<C> columnDictionary;
+    private long indexBase;
+    private long indexCapacity;
+    private long slotCount;
+    private long cellCount;
+    private long dataEnd;
+    private long garbage;
+    private long keysEnd;
+
+    /**
+     * Create a container backed by temporary files which are deleted on exit.
+     *
+     * @param headerName header name
+     * @param VALUE_TYPE value type
+     */
+    public MappedTableContainer(String headerName, Class<V> VALUE_TYPE) {
+        this(headerName, VALUE_TYPE, temporaryPath());
+        this.temporary = true;
+    }
+
+    /**
+     * Create an empty container backed by the given path. Existing content is discarded.
+     *
+     * @param headerName header name
+     * @param VALUE_TYPE value type
+     * @param path       the backing path
+     */
+    public MappedTableContainer(String headerName, Class<V> VALUE_TYPE, String path) {
+        super(headerName);
+        this.VALUE_TYPE = VALUE_TYPE;
+        try {
+            open(new File(path));
+        } catch (IOException e) {
+            throw new ContainerRuntimeException(e.getMessage());
+        }
+        reset();
+    }
+
+    private static String temporaryPath() {
+        try {
+            File file = File.createTempFile("hummingbird-", ".table");
+            file.deleteOnExit();
+            new File(file.getPath() + INDEX_SUFFIX).deleteOnExit();
+            new File(file.getPath() + DATA_SUFFIX).deleteOnExit();
+            new File(file.getPath() + KEYS_SUFFIX).deleteOnExit();
+            return file.getPath();
+        } catch (IOException e) {
+            throw new ContainerRuntimeException(e.getMessage());
+        }
+    }
+
+    private void open(File file) throws IOException {
+        closeFiles();
+        deleteTemporaryFiles();
+        this.metaFile = file;
+        this.index = new MappedFile(new File(file.getPath() + INDEX_SUFFIX));
+        this.data = new MappedFile(new File(file.getPath() + DATA_SUFFIX));
+        this.keys = new MappedFile(new File(file.getPath() + KEYS_SUFFIX));
+    }
+
+    private void closeFiles() throws IOException {
+        if (index != null) {
+            index.close();
+            index = null;
+        }
+        if (data != null) {
+            data.close();
+            data = null;
+        }
+        if (keys != null) {
+            keys.close();
+            keys = null;
+        }
+    }
+
+    private void deleteTemporaryFiles() throws IOException {
+        if (temporary) {
+            temporary = false;
+            Files.deleteIfExists(metaFile.toPath());
+            Files.deleteIfExists(new File(metaFile.getPath() + INDEX_SUFFIX).toPath());
+            Files.deleteIfExists(new File(metaFile.getPath() + DATA_SUFFIX).toPath());
+            Files.deleteIfExists(new File(metaFile.getPath() + KEYS_SUFFIX).toPath());
+        }
+    }
+
+    private void reset() {
+        try {
+            this.rowDictionary = new KeyDictionary<>();
+            this.columnDictionary = new KeyDictionary<>();
+            this.indexBase = HEADER_SIZE;
+            this.indexCapacity = INITIAL_INDEX_CAPACITY;
+            this.slotCount = 0;
+            this.cellCount = 0;
+            this.dataEnd = 0;
+            this.garbage = 0;
+            this.keysEnd = 0;
+            index.ensureCapacity(indexBase + indexCapacity * SLOT_SIZE);
+            index.zero(indexBase, indexBase + indexCapacity * SLOT_SIZE);
+            writeHeader();
+        } catch (IOException e) {
+            throw new ContainerRuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Get the backing path of the container.
+     *
+     * @return the backing path
+     */
+    public String path() {
+        return metaFile.getPath();
+    }
+
+    /**
+     * Get the count of non-empty cells.
+     *
+     * @return the count of cells
+     */
+    public long size() {
+        return cellCount;
+    }
+
+    private void writeHeader() {
+        index.putLong(0, indexBase);
+        index.putLong(8, indexCapacity);
+        writeCounters();
+        index.putLong(48, keysEnd);
+    }
+
+    /**
+     * Write the part of header which may be changed by a push into an existing table.
+     */
+    private void writeCounters() {
+        index.putLong(16, slotCount);
+        index.putLong(24, cellCount);
+        index.putLong(32, dataEnd);
+        index.putLong(40, garbage);
+    }
+
+    /**
+     * Check the bookkeeping header of an index file before it's mapped, so that a missing,
+     * truncated or corrupted file is rejected instead of being probed out of bounds.
+     *
+     * @param indexFile the index file
+     * @param dataFile  the data file
+     * @param keysFile  the key log
+     * @return the end of the key log
+     * @throws IOException          the index file can't be read
+     * @throws DataLoadingException the header doesn't describe a valid table
+     */
+    private static long checkHeader(File indexFile, File dataFile, File keysFile) throws IOException, DataLoadingException {
+        long indexLength = indexFile.length();
+        if (indexLength < HEADER_SIZE) {
+            throw new DataLoadingException("missing or truncated index file: " + indexFile.getPath());
+        }
+        try (DataInputStream inputStream = new DataInputStream(new FileInputStream(indexFile))) {
+            long indexBase = inputStream.readLong();
+            long indexCapacity = inputStream.readLong();
+            long slotCount = inputStream.readLong();
+            long cellCount = inputStream.readLong();
+            long dataEnd = inputStream.readLong();
+            long garbage = inputStream.readLong();
+            long keysEnd = inputStream.readLong();
+            if (indexCapacity <= 0 || (indexCapacity & (indexCapacity - 1)) != 0
+                    || indexBase < HEADER_SIZE || indexBase % SLOT_SIZE != 0 || indexBase > indexLength
+                    || indexCapacity > (indexLength - indexBase) / SLOT_SIZE
+                    || slotCount < 0 || slotCount > indexCapacity || cellCount < 0 || cellCount > slotCount
+                    || dataEnd < 0 || dataEnd > dataFile.length() || garbage < 0 || garbage > dataEnd
+                    || keysEnd < 0 || keysEnd > keysFile.length()) {
+                throw new DataLoadingException("corrupted index file: " + indexFile.getPath());
+            }
+            return keysEnd;
+        }
+    }
+
+    private void readHeader() {
+        this.indexBase = index.getLong(0);
+        this.indexCapacity = index.getLong(8);
+        this.slotCount = index.getLong(16);
+        this.cellCount = index.getLong(24);
+        this.dataEnd = index.getLong(32);
+        this.garbage = index.getLong(40);
+        this.keysEnd = index.getLong(48);
+    }
+
+    private int internRow(R row) throws IOException {
+        int size = rowDictionary.size();
+        int rowId = rowDictionary.intern(row);
+        if (rowId == size) {
+            logKey(ROW_KEY, row);
+        }
+        return rowId;
+    }
+
+    private int internColumn(C column) throws IOException {
+        int size = columnDictionary.size();
+        int columnId = columnDictionary.intern(column);
+        if (columnId == size) {
+            logKey(COLUMN_KEY, column);
+        }
+        return columnId;
+    }
+
+    /**
+     * Append a newly registered key to the key log. Records are aligned to 8 bytes, and
+     * a record which doesn't fit in the rest of a segment is moved to the next one, leaving
+     * a marker to skip the gap.
+     */
+    private void logKey(int kind, Object key) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+            objectOutputStream.writeObject(key);
+        }
+        byte[] record = bytes.toByteArray();
+        int length = (record.length + 8 + 7) & ~7;
+        long position = MappedFile.align(keysEnd, length);
+        keys.ensureCapacity(position + length);
+        if (position != keysEnd) {
+            keys.putInt(keysEnd, SKIP_SEGMENT);
+        }
+        keys.putInt(position, record.length);
+        keys.putInt(position + 4, kind);
+        keys.write(position + 8, record);
+        keysEnd = position + length;
+        index.putLong(48, keysEnd);
+    }
+
+    /**
+     * Rebuild the dictionaries from the leading bytes of a key log.
+     */
+    @SuppressWarnings("unchecked")
+    private static <R, C> void replayKeys(MappedFile keys, long keysEnd, KeyDictionary<R> rowDictionary,
+                                          KeyDictionary<C> columnDictionary) throws IOException, ClassNotFoundException {
+        long position = 0;
+        while (position < keysEnd) {
+            int length = keys.getInt(position);
+            if (length == SKIP_SEGMENT) {
+                position += MappedFile.SEGMENT_SIZE - position % MappedFile.SEGMENT_SIZE;
+                continue;
+            }
+            if (length < 0 || position + 8 + length > keysEnd) {
+                throw new IOException("corrupted key log: " + keys.file().getPath());
+            }
+            byte[] record = new byte[length];
+            keys.read(position + 8, record);
+            try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(record))) {
+                if (keys.getInt(position + 4) == ROW_KEY) {
+                    rowDictionary.intern((R) objectInputStream.readObject());
+                } else {
+                    columnDictionary.intern((C) objectInputStream.readObject());
+                }
+            }
+            position += (length + 8 + 7) & ~7;
+        }
+    }
+
+    private static long cellKey(int rowId, int columnId) {
+        return ((long) rowId << 32) | columnId;
+    }
+
+    /**
+     * Find the slot holding the key, or the empty slot where the key should be placed.
+     * Keys are stored plus one, so that zero-filled slots are empty.
+     */
+    private long locate(long key) {
+        long mask = indexCapacity - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        long slot = (hash ^ (hash >>> 32)) & mask;
+        while (true) {
+            long position = indexBase + slot * SLOT_SIZE;
+            long stored = index.getLong(position);
+            if (stored == 0 || stored == key + 1) {
+                return position;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Double the hash table, which always starts right after the header so that the index
+     * file holds no abandoned table. The old table is moved to a scratch area behind both
+     * tables first, which is reused by the next growth, and removed cells are dropped.
+     */
+    private void growIndex() throws IOException {
+        long oldBase = indexBase;
+        long oldCapacity = indexCapacity;
+        long newCapacity = oldCapacity << 1;
+        long scratch = Math.max(oldBase + oldCapacity * SLOT_SIZE, HEADER_SIZE + newCapacity * SLOT_SIZE);
+        index.ensureCapacity(scratch + oldCapacity * SLOT_SIZE);
+        for (long position = 0; position < oldCapacity * SLOT_SIZE; position += 8) {
+            index.putLong(scratch + position, index.getLong(oldBase + position));
+        }
+        indexBase = HEADER_SIZE;
+        indexCapacity = newCapacity;
+        slotCount = 0;
+        index.zero(indexBase, indexBase + indexCapacity * SLOT_SIZE);
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            long position = scratch + slot * SLOT_SIZE;
+            long stored = index.getLong(position);
+            long offset = index.getLong(position + 8);
+            if (stored != 0 && offset != REMOVED) {
+                long target = locate(stored - 1);
+                index.putLong(target, stored);
+                index.putLong(target + 8, offset);
+                slotCount++;
+            }
+        }
+        writeHeader();
+    }
+
+    /**
+     * Move live values to the front of the data file. They're copied into a scratch file
+     * next to it in the order of slots first, which needs no memory for sorting, and then
+     * copied back over the data file.
+     */
+    private void compact() throws IOException {
+        File scratchFile = new File(metaFile.getPath() + DATA_SUFFIX + COMPACT_SUFFIX);
+        long end = 0;
+        try (MappedFile scratch = new MappedFile(scratchFile)) {
+            for (long slot = 0; slot < indexCapacity; slot++) {
+                long position = indexBase + slot * SLOT_SIZE;
+                long offset = index.getLong(position + 8);
+                if (index.getLong(position) != 0 && offset != REMOVED) {
+                    byte[] bytes = new byte[data.getInt(offset)];
+                    data.read(offset + 4, bytes);
+                    long target = MappedFile.align(end, bytes.length + 4);
+                    scratch.ensureCapacity(target + bytes.length + 4);
+                    scratch.putInt(target, bytes.length);
+                    scratch.write(target + 4, bytes);
+                    index.putLong(position + 8, target);
+                    end = target + bytes.length + 4;
+                }
+            }
+            scratch.copyTo(data, end);
+        } finally {
+            Files.deleteIfExists(scratchFile.toPath());
+        }
+        dataEnd = end;
+        garbage = 0;
+        writeCounters();
+    }
+
+    private long append(V value) throws IOException {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        long position = MappedFile.align(dataEnd, bytes.length + 4);
+        data.ensureCapacity(position + bytes.length + 4);
+        data.putInt(position, bytes.length);
+        data.write(position + 4, bytes);
+        dataEnd = position + bytes.length + 4;
+        return position;
+    }
+
+    private V decode(long position) {
+        byte[] bytes = new byte[data.getInt(position)];
+        data.read(position + 4, bytes);
+        try {
+            return CSVTableContainer.parse(new String(bytes, StandardCharsets.UTF_8), VALUE_TYPE);
+        } catch (IllegalAccessException | InstantiationException | IllegalValueTypeException e) {
+            throw new ContainerRuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Push a cell into container. The value is written into the mapped data file at once.
+     *
+     * @param row    row key
+     * @param column column key
+     * @param value  cell value
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public MappedTableContainer<R, C, V> push(R row, C column, V value) {
+        checkWritable();
+        try {
+            long key = cellKey(internRow(row), internColumn(column));
+            long position = locate(key);
+            boolean exists = index.getLong(position) != 0;
+            if (!exists && value == null) {
+                return this;
+            }
+            if (!exists && (slotCount + 1) << 1 > indexCapacity) {
+                growIndex();
+                position = locate(key);
+            }
+            boolean present = exists && index.getLong(position + 8) != REMOVED;
+            if (present) {
+                garbage += data.getInt(index.getLong(position + 8)) + 4;
+            }
+            long offset = value != null ? append(value) : REMOVED;
+            index.putLong(position, key + 1);
+            index.putLong(position + 8, offset);
+            slotCount += exists ? 0 : 1;
+            cellCount += (value != null ? 1 : 0) - (present ? 1 : 0);
+            writeCounters();
+            indexCell(row, column);
+            return this;
+        } catch (IOException e) {
+            throw new ContainerRuntimeException(e.getMessage());
+        }
+    }
+
+    @Nullable
+    @Override
+    public V get(R row, C column) {
+        int rowId = rowDictionary.id(row);
+        int columnId = columnDictionary.id(column);
+        if (rowId < 0 || columnId < 0) {
+            return null;
+        }
+        long position = locate(cellKey(rowId, columnId));
+        if (index.getLong(position) == 0) {
+            return null;
+        }
+        long offset = index.getLong(position + 8);
+        return offset != REMOVED ? decode(offset) : null;
+    }
+
+    @Override
+    public List<R> rowKeys() {
+        return rowDictionary.keys();
+    }
+
+    @Override
+    public List<C> columnKeys() {
+        return columnDictionary.keys();
+    }
+
+    /**
+     * Get the table organized by row keys.
+     *
+     * <p><b>Notice:</b> the map is built on each call and decodes every cell onto the heap.
+     *
+     * @return a nested map whose structure is (row, (column, value))
+     */
+    @Override
+    public Map<R, Map<C, V>> rowMap() {
+        Map<R, Map<C, V>> rowMap = Maps.newLinkedHashMap();
+        rowDictionary.keys().forEach(rowKey -> rowMap.put(rowKey, singleRow(rowKey)));
+        return rowMap;
+    }
+
+    /**
+     * Get the table organized by column keys.
+     *
+     * <p><b>Notice:</b> the map is built on each call and decodes every cell onto the heap.
+     *
+     * @return a nested map whose structure is (column, (row, value))
+     */
+    @Override
+    public Map<C, Map<R, V>> columnMap() {
+        Map<C, Map<R, V>> columnMap = Maps.newLinkedHashMap();
+        columnDictionary.keys().forEach(columnKey -> columnMap.put(columnKey, singleColumn(columnKey)));
+        return columnMap;
+    }
+
+    @Override
+    public Map<C, V> singleRow(R row) {
+        if (!rowDictionary.contains(row)) {
+            return null;
+        }
+        Map<C, V> singleRow = Maps.newLinkedHashMap();
+        columnDictionary.keys().forEach(columnKey -> {
+            V value = get(row, columnKey);
+            if (value != null) {
+                singleRow.put(columnKey, value);
+            }
+        });
+        return singleRow;
+    }
+
+    @Override
+    public Map<R, V> singleColumn(C column) {
+        if (!columnDictionary.contains(column)) {
+            return null;
+        }
+        Map<R, V> singleColumn = Maps.newLinkedHashMap();
+        rowDictionary.keys().forEach(rowKey -> {
+            V value = get(rowKey, column);
+            if (value != null) {
+                singleColumn.put(rowKey, value);
+            }
+        });
+        return singleColumn;
+    }
+
+    /**
+     * Clean all content in the container. The backing files are kept and reused.
+     *
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public MappedTableContainer<R, C, V> clean() {
+        checkWritable();
+        reset();
+        invalidateIndexes();
+        return this;
+    }
+
+    /**
+     * Persist container data to external permanent storage.
+     *
+     * <p>Live values are compacted first if overwritten and removed values take more than
+     * half of the data file. Then if the path is the backing path, only the mapped regions
+     * are flushed and the header name is written. Otherwise the used part of the backing
+     * files is copied. The container stays backed by its original path in both cases.
+     *
+     * @param path external storage path
+     * @throws DataPersistenceException error appearance such as {@link java.io.IOException} and so on
+     */
+    @Override
+    public void persist(@NotNull String path) throws DataPersistenceException {
+        try {
+            File target = new File(path);
+            if (target.getAbsoluteFile().getParentFile() != null) {
+                //noinspection ResultOfMethodCallIgnored
+                target.getAbsoluteFile().getParentFile().mkdirs();
+            }
+            if (garbage << 1 > dataEnd) {
+                compact();
+            }
+            if (target.getCanonicalPath().equals(metaFile.getCanonicalPath())) {
+                index.force();
+                data.force();
+                keys.force();
+            } else {
+                index.copyTo(new File(path + INDEX_SUFFIX), indexBase + indexCapacity * SLOT_SIZE);
+                data.copyTo(new File(path + DATA_SUFFIX), dataEnd);
+                keys.copyTo(new File(path + KEYS_SUFFIX), keysEnd);
+            }
+            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(target))) {
+                objectOutputStream.writeObject(getHeaderName());
+            }
+        } catch (IOException e) {
+            throw new DataPersistenceException(e.getMessage());
+        }
+    }
+
+    /**
+     * Load data from external storage into container.
+     *
+     * <p>The files under the path are mapped directly and become the new backing of the
+     * container, so no cell is read until it is requested. The dictionaries are rebuilt from
+     * the key log. The header of the index file is checked first, and the container is left
+     * unchanged if it's missing or corrupted.
+     *
+     * @param path external storage path
+     * @return the container that has been loaded
+     * @throws DataLoadingException error appearance such as {@link java.io.IOException} and so on
+     */
+    @Override
+    public MappedTableContainer<R, C, V> load(@NotNull String path) throws DataLoadingException {
+        checkWritable();
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(path))) {
+            String headerName = (String) objectInputStream.readObject();
+            File keysFile = new File(path + KEYS_SUFFIX);
+            long keysEnd = checkHeader(new File(path + INDEX_SUFFIX), new File(path + DATA_SUFFIX), keysFile);
+            KeyDictionary<R> rowDictionary = new KeyDictionary<>();
+            KeyDictionary<C> columnDictionary = new KeyDictionary<>();
+            try (MappedFile keys = MappedFile.readOnly(keysFile)) {
+                replayKeys(keys, keysEnd, rowDictionary, columnDictionary);
+            }
+            open(new File(path));
+            setHeaderName(headerName);
+            this.rowDictionary = rowDictionary;
+            this.columnDictionary = columnDictionary;
+            readHeader();
+            index.ensureCapacity(indexBase + indexCapacity * SLOT_SIZE);
+            invalidateIndexes();
+            return this;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new DataLoadingException(e.getMessage());
+        }
+    }
+
+    /**
+     * Create a copy backed by new temporary files.
+     *
+     * @return the copy
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public MappedTableContainer<R, C, V> clone() {
+        MappedTableContainer<R, C, V> other = (MappedTableContainer<R, C, V>) super.clone();
+        try {
+            File copy = new File(temporaryPath());
+            index.copyTo(new File(copy.getPath() + INDEX_SUFFIX), indexBase + indexCapacity * SLOT_SIZE);
+            data.copyTo(new File(copy.getPath() + DATA_SUFFIX), dataEnd);
+            keys.copyTo(new File(copy.getPath() + KEYS_SUFFIX), keysEnd);
+            other.index = null;
+            other.data = null;
+            other.keys = null;
+            other.temporary = false;
+            other.open(copy);
+            other.temporary = true;
+            other.index.ensureCapacity(indexBase + indexCapacity * SLOT_SIZE);
+            other.rowDictionary = rowDictionary.copy();
+            other.columnDictionary = columnDictionary.copy();
+            return other;
+        } catch (IOException e) {
+            throw new ContainerRuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Persist container data in background. Persisting to the backing path is only a flush,
+     * so it's done at once in the calling thread. Other paths are persisted from a
+     * {@link #snapshot()}, which copies the backing files and is closed once persisted.
+     *
+     * @param path     external storage path
+     * @param executor the executor to persist in
+     * @return a future completed once persisted
+     */
+    @Override
+    public CompletableFuture<Void> persistAsync(String path, PersistExecutor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            if (!new File(path).getCanonicalPath().equals(metaFile.getCanonicalPath())) {
+                return super.persistAsync(path, executor);
+            }
+            persist(path);
+            future.complete(null);
+        } catch (IOException e) {
+            future.completeExceptionally(new DataPersistenceException(e.getMessage()));
+        } catch (DataPersistenceException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * The backing files are kept by {@link #clean()}, so the copy is backed by new temporary files.
+     *
+     * @return an empty container
+     */
+    @Override
+    protected MappedTableContainer<R, C, V> emptyCopy() {
+        return new MappedTableContainer<>(getHeaderName(), VALUE_TYPE);
+    }
+
+    @Override
+    protected boolean isStorageBacked() {
+        return false;
+    }
+
+    /**
+     * Cells are kept in the backing files, which are mapped outside the heap, so no structure is counted.
+     *
+     * @return bytes of structures
+     */
+    @Override
+    protected long structureSize() {
+        return 0L;
+    }
+
+    /**
+     * Cells are kept in the backing files, which are mapped outside the heap, so no value is counted.
+     *
+     * @return bytes of values
+     */
+    @Override
+    protected long valueSize() {
+        return 0L;
+    }
+
+    /**
+     * Release the backing files, and delete them if they're temporary. The container must
+     * not be used afterwards.
+     *
+     * @throws IOException error appearance when closing or deleting files
+     */
+    @Override
+    public void close() throws IOException {
+        closeFiles();
+        deleteTemporaryFiles();
+    }
+}
@@ -0,0 +1,371 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.annotions.CanIgnoreReturnValue;
+import cn.sissors.hummingbird.collect.KeyDictionary;
+import cn.sissors.hummingbird.collect.MemoryFootprint;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The base class of table containers whose values are primitive numbers.
+ *
+ * <p>Row and column keys are interned into dense ids through {@link KeyDictionary},
+ * and each row keeps its values in a primitive array indexed by column id. A bitmap
+ * per row records which cells are present, so that absent cells can be told apart
+ * from zero through {@link #containsCell(Object, Object)}. Sub-classes only decide the
+ * primitive array type.
+ *
+ * <p>Rows are dense: a row holds a slot for every column registered when it's first
+ * written, whether the cell is present or not. So these containers suit tables where
+ * most rows populate most columns, while sparse tables take less memory in
+ * {@link CSVTableContainer}.
+ *
+ * <p>The container is persisted and loaded in csv format, just as {@link CSVTableContainer}.
+ * In append mode, changed rows are tracked by their ids, so pushing doesn't allocate.
+ * A {@link #snapshot()} is a full copy made by {@link #clone()}, which takes time and
+ * memory in proportion to the size of container.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public abstract class NumericTableContainer<R, C, V extends Number> extends CSVTableContainer<R, C, V> {
+    private final static int INITIAL_CAPACITY = 16;
+
+    private KeyDictionary<R> rowDictionary;
+    private KeyDictionary<C> columnDictionary;
+    private long[][] presence;
+
+    public NumericTableContainer(String headerName) {
+        super(headerName);
+        reset();
+    }
+
+    public NumericTableContainer(String headerName, Class<R> ROW_TYPE, Class<C> COLUMN_TYPE, Class<V> VALUE_TYPE) {
+        super(headerName, ROW_TYPE, COLUMN_TYPE, VALUE_TYPE);
+        reset();
+    }
+
+    /**
+     * Allocate the outer value array so that it can hold the given count of rows.
+     *
+     * @param rowCapacity the count of rows
+     */
+    protected abstract void growRows(int rowCapacity);
+
+    /**
+     * Allocate the value array of a single row so that it can hold the given count of columns.
+     *
+     * @param rowId          the row id
+     * @param columnCapacity the count of columns
+     */
+    protected abstract void growColumns(int rowId, int columnCapacity);
+
+    /**
+     * Drop all values and allocate empty value arrays.
+     */
+    protected abstract void resetValues();
+
+    /**
+     * Make an independent copy of the value arrays, used by {@link #clone()}.
+     */
+    protected abstract void copyValues();
+
+    /**
+     * Estimate the bytes of the value arrays, used by {@link #valueSize()}.
+     *
+     * @return bytes of the value arrays
+     */
+    protected abstract long valueArraySize();
+
+    /**
+     * Read a present cell as a boxed value.
+     *
+     * @param rowId    the row id
+     * @param columnId the column id
+     * @return the boxed value
+     */
+    protected abstract V boxed(int rowId, int columnId);
+
+    /**
+     * Write a boxed value into a cell whose arrays have been allocated.
+     *
+     * @param rowId    the row id
+     * @param columnId the column id
+     * @param value    the non-null value
+     */
+    protected abstract void unboxed(int rowId, int columnId, V value);
+
+    /**
+     * Get the id of a row key.
+     *
+     * @param row row key
+     * @return the row id, or <code>-1</code> if the row does not exist
+     */
+    protected final int rowId(R row) {
+        return rowDictionary.id(row);
+    }
+
+    /**
+     * Get the id of a column key.
+     *
+     * @param column column key
+     * @return the column id, or <code>-1</code> if the column does not exist
+     */
+    protected final int columnId(C column) {
+        return columnDictionary.id(column);
+    }
+
+    /**
+     * Check whether the cell located by ids holds a value.
+     *
+     * @param rowId    the row id, may be <code>-1</code>
+     * @param columnId the column id, may be <code>-1</code>
+     * @return true or false
+     */
+    protected final boolean isPresent(int rowId, int columnId) {
+        if (rowId < 0 || columnId < 0) {
+            return false;
+        }
+        long[] mask = presence[rowId];
+        int word = columnId >>> 6;
+        return mask != null && word < mask.length && (mask[word] & (1L << columnId)) != 0;
+    }
+
+    /**
+     * Register the row key and column key, then allocate and mark the cell as present.
+     * The caller is responsible for writing the value.
+     *
+     * @param row    row key
+     * @param column column key
+     * @return the row id in the high 32 bits and the column id in the low 32 bits
+     */
+    protected final long occupy(R row, C column) {
+        checkWritable();
+        int rowId = internRow(row);
+        int columnId = internColumn(rowId, column);
+        presence[rowId][columnId >>> 6] |= 1L << columnId;
+        return ((long) rowId << 32) | columnId;
+    }
+
+    private int internRow(R row) {
+        int rowId = rowDictionary.intern(row);
+        if (rowId >= presence.length) {
+            int rowCapacity = Math.max(presence.length << 1, rowId + 1);
+            presence = Arrays.copyOf(presence, rowCapacity);
+            growRows(rowCapacity);
+        }
+        return rowId;
+    }
+
+    private int internColumn(int rowId, C column) {
+        int columnId = columnDictionary.intern(column);
+        long[] mask = presence[rowId];
+        if (mask == null || mask.length << 6 <= columnId) {
+            int columnCapacity = Math.max(Math.max(INITIAL_CAPACITY, columnDictionary.size()), columnId + 1);
+            columnCapacity = (columnCapacity + 63) & ~63;
+            presence[rowId] = mask == null ? new long[columnCapacity >>> 6] : Arrays.copyOf(mask, columnCapacity >>> 6);
+            growColumns(rowId, columnCapacity);
+        }
+        return columnId;
+    }
+
+    private void reset() {
+        this.rowDictionary = new KeyDictionary<>();
+        this.columnDictionary = new KeyDictionary<>();
+        this.presence = new long[INITIAL_CAPACITY][];
+        resetValues();
+        growRows(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Get the table organized by row keys.
+     *
+     * <p><b>Notice:</b> the map is built on each call and boxes every value,
+     * prefer {@link #get(Object, Object)} or the primitive accessors for hot paths.
+     *
+     * @return a nested map whose structure is (row, (column, value))
+     */
+    @Override
+    public Map<R, Map<C, V>> rowMap() {
+        Map<R, Map<C, V>> rowMap = Maps.newLinkedHashMap();
+        for (int rowId = 0; rowId < rowDictionary.size(); rowId++) {
+            Map<C, V> row = Maps.newLinkedHashMap();
+            for (int columnId = 0; columnId < columnDictionary.size(); columnId++) {
+                if (isPresent(rowId, columnId)) {
+                    row.put(columnDictionary.key(columnId), boxed(rowId, columnId));
+                }
+            }
+            rowMap.put(rowDictionary.key(rowId), row);
+        }
+        return rowMap;
+    }
+
+    /**
+     * Get the table organized by column keys.
+     *
+     * <p><b>Notice:</b> the map is built on each call and boxes every value,
+     * prefer {@link #get(Object, Object)} or the primitive accessors for hot paths.
+     *
+     * @return a nested map whose structure is (column, (row, value))
+     */
+    @Override
+    public Map<C, Map<R, V>> columnMap() {
+        Map<C, Map<R, V>> columnMap = Maps.newLinkedHashMap();
+        for (int columnId = 0; columnId < columnDictionary.size(); columnId++) {
+            Map<R, V> column = Maps.newLinkedHashMap();
+            for (int rowId = 0; rowId < rowDictionary.size(); rowId++) {
+                if (isPresent(rowId, columnId)) {
+                    column.put(rowDictionary.key(rowId), boxed(rowId, columnId));
+                }
+            }
+            columnMap.put(columnDictionary.key(columnId), column);
+        }
+        return columnMap;
+    }
+
+    @Override
+    public Map<C, V> singleRow(R row) {
+        int rowId = rowId(row);
+        if (rowId < 0) {
+            return null;
+        }
+        Map<C, V> singleRow = Maps.newLinkedHashMap();
+        for (int columnId = 0; columnId < columnDictionary.size(); columnId++) {
+            if (isPresent(rowId, columnId)) {
+                singleRow.put(columnDictionary.key(columnId), boxed(rowId, columnId));
+            }
+        }
+        return singleRow;
+    }
+
+    @Override
+    public Map<R, V> singleColumn(C column) {
+        int columnId = columnId(column);
+        if (columnId < 0) {
+            return null;
+        }
+        Map<R, V> singleColumn = Maps.newLinkedHashMap();
+        for (int rowId = 0; rowId < rowDictionary.size(); rowId++) {
+            if (isPresent(rowId, columnId)) {
+                singleColumn.put(rowDictionary.key(rowId), boxed(rowId, columnId));
+            }
+        }
+        return singleColumn;
+    }
+
+    @Override
+    public List<R> rowKeys() {
+        return rowDictionary.keys();
+    }
+
+    @Override
+    public List<C> columnKeys() {
+        return columnDictionary.keys();
+    }
+
+    /**
+     * Push a cell into container. A <code>null</code> value registers the row and
+     * column keys but leaves the cell empty.
+     *
+     * @param row    row key
+     * @param column column key
+     * @param value  cell value
+     * @return container itself (easy to invoke under chain-style)
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public NumericTableContainer<R, C, V> push(R row, C column, V value) {
+        checkWritable();
+        if (value == null) {
+            int rowId = internRow(row);
+            int columnId = internColumn(rowId, column);
+            presence[rowId][columnId >>> 6] &= ~(1L << columnId);
+            indexCell(row, column);
+            return this;
+        }
+        long cell = occupy(row, column);
+        unboxed((int) (cell >>> 32), (int) cell, value);
+        indexCell(row, column);
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public V get(R row, C column) {
+        int rowId = rowId(row);
+        int columnId = columnId(column);
+        return isPresent(rowId, columnId) ? boxed(rowId, columnId) : null;
+    }
+
+    /**
+     * Check whether a cell holds a value, which tells an empty cell from a stored zero.
+     *
+     * @param row    row key
+     * @param column column key
+     * @return true or false
+     */
+    public boolean containsCell(R row, C column) {
+        return isPresent(rowId(row), columnId(column));
+    }
+
+    @CanIgnoreReturnValue
+    @Override
+    public NumericTableContainer<R, C, V> clean() {
+        checkWritable();
+        reset();
+        invalidateIndexes();
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public NumericTableContainer<R, C, V> clone() {
+        NumericTableContainer<R, C, V> other = (NumericTableContainer<R, C, V>) super.clone();
+        other.rowDictionary = rowDictionary.copy();
+        other.columnDictionary = columnDictionary.copy();
+        other.presence = new long[presence.length][];
+        for (int rowId = 0; rowId < presence.length; rowId++) {
+            other.presence[rowId] = presence[rowId] != null ? presence[rowId].clone() : null;
+        }
+        other.copyValues();
+        return other;
+    }
+
+    @Override
+    protected int trackedRowId(R row) {
+        return rowId(row);
+    }
+
+    @Override
+    protected boolean isStorageBacked() {
+        return false;
+    }
+
+    /**
+     * The structures are the presence bitmaps of rows.
+     *
+     * @return bytes of structures
+     */
+    @Override
+    protected long structureSize() {
+        long size = MemoryFootprint.sizeOfArray(presence.length, 4);
+        for (long[] bitmap : presence) {
+            size += bitmap != null ? MemoryFootprint.sizeOfArray(bitmap.length, 8) : 0L;
+        }
+        return size;
+    }
+
+    /**
+     * Values are measured by their primitive arrays.
+     *
+     * @return bytes of values
+     */
+    @Override
+    protected long valueSize() {
+        return valueArraySize();
+    }
+}
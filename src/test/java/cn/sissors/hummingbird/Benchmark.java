@@ -0,0 +1,67 @@
+package cn.sissors.hummingbird;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * The JUnit category of benchmarks, which back the performance notes in README.
+ *
+ * <p>Benchmarks are excluded from the default build, since their results depend on the
+ * machine. Run them through <b>mvn test -Pbenchmark</b>, which runs this category only,
+ * and read the results printed to the console.
+ *
+ * @author zyz
+ * @version 2026-10-18
+ */
+public interface Benchmark {
+    /**
+     * Run a task several times and keep the fastest run, so that the first runs warm up
+     * the JIT and a run disturbed by garbage collection is dropped.
+     *
+     * @param runs the count of runs
+     * @param task the task to measure
+     * @return nanoseconds taken by the fastest run
+     * @throws Exception error appearance in the task
+     */
+    static long fastestNanos(int runs, Callable<?> task) throws Exception {
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            task.call();
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    /**
+     * Estimate the heap retained by the result of a task, as the difference of the heap used
+     * before and after the task, each measured after a few rounds of garbage collection.
+     *
+     * @param task the task which creates the objects to measure
+     * @return bytes retained by the result
+     * @throws Exception error appearance in the task
+     */
+    static long retainedHeap(Callable<?> task) throws Exception {
+        long before = usedHeap();
+        Object result = task.call();
+        long retained = usedHeap() - before;
+        // keep the result reachable until the heap is measured
+        Objects.requireNonNull(result);
+        return retained;
+    }
+
+    /**
+     * Get the bytes used on the heap after a few rounds of garbage collection.
+     *
+     * @return bytes used on the heap
+     * @throws InterruptedException the thread is interrupted while waiting for collection
+     */
+    static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
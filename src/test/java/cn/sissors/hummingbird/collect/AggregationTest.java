@@ -0,0 +1,102 @@
+package cn.sissors.hummingbird.collect;
+
+import cn.sissors.hummingbird.collect.container.CSVTableContainer;
+import cn.sissors.hummingbird.collect.container.DoubleTableContainer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Table.Cell;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class AggregationTest {
+    private CSVTableContainer<String, String, Integer> container;
+
+    @Before
+    public void init() {
+        container = new CSVTableContainer<>("time", String.class, String.class, Integer.class);
+        container.push("1:00", "cost", 10);
+        container.push("1:00", "count", 100);
+        container.push("1:30", "cost", 15);
+        container.push("1:30", "count", 150);
+        container.push("2:00", "cost", 20);
+        container.push("2:00", "count", 200);
+        container.push("3:00", "count", 300);
+    }
+
+    @Test
+    public void testColumnSummary() {
+        TableContainer<String, String, Double> sum = Aggregation.of(container)
+                .groupRows(rowKey -> "sum")
+                .aggregate(Aggregators.sum(), () -> new CSVTableContainer<>("time"));
+        sum.print();
+        assertEquals(Lists.newArrayList("sum"), sum.rowKeys());
+        assertEquals(Lists.newArrayList("cost", "count"), sum.columnKeys());
+        assertEquals(45.0, sum.get("sum", "cost"), 0);
+        assertEquals(750.0, sum.get("sum", "count"), 0);
+        assertEquals(Integer.valueOf(300), Aggregation.of(container)
+                .groupRows(rowKey -> "max").aggregate(Aggregators.max(), () -> new CSVTableContainer<>("time")).get("max", "count"));
+        assertEquals(Long.valueOf(3), Aggregation.of(container)
+                .groupRows(rowKey -> "count").aggregate(Aggregators.count(), () -> new CSVTableContainer<>("time")).get("count", "cost"));
+    }
+
+    @Test
+    public void testGroupByWithRollup() {
+        TableContainer<String, String, Double> average = Aggregation.of(container)
+                .groupRows(rowKey -> rowKey.substring(0, rowKey.indexOf(':')))
+                .rollupRows("all")
+                .rollupColumns("all")
+                .aggregate(Aggregators.average(), () -> new CSVTableContainer<>("hour"));
+        average.print();
+        assertEquals(Lists.newArrayList("1", "2", "3", "all"), average.rowKeys());
+        assertEquals(Lists.newArrayList("cost", "count", "all"), average.columnKeys());
+        assertEquals(12.5, average.get("1", "cost"), 0);
+        assertNull(average.get("3", "cost"));
+        assertEquals(300.0, average.get("3", "all"), 0);
+        assertEquals(15.0, average.get("all", "cost"), 0);
+        assertEquals(795.0 / 7, average.get("all", "all"), 1e-9);
+    }
+
+    @Test
+    public void testPivot() {
+        TableContainer<String, String, Integer> transposed = Aggregation.of(container)
+                .pivot(Cell::getColumnKey, Cell::getRowKey)
+                .aggregate(Collectors.reducing(0, Integer::sum), () -> new CSVTableContainer<>("column"));
+        assertEquals(Lists.newArrayList("cost", "count"), transposed.rowKeys());
+        assertEquals(Lists.newArrayList("1:00", "1:30", "2:00", "3:00"), transposed.columnKeys());
+        assertEquals(Integer.valueOf(150), transposed.get("count", "1:30"));
+        TableContainer<String, String, String> hours = Aggregation.of(container)
+                .pivot(cell -> cell.getColumnKey(), cell -> cell.getRowKey().substring(0, 1))
+                .aggregate(Collectors.mapping(Object::toString, Collectors.joining("+")), () -> new CSVTableContainer<>("column"));
+        assertEquals("100+150", hours.get("count", "1"));
+    }
+
+    @Test
+    public void testParallelAggregation() {
+        DoubleTableContainer<Integer, Integer> largeContainer = new DoubleTableContainer<>("id", Integer.class, Integer.class);
+        CSVTableContainer<Integer, Integer, Double> csvContainer =
+                new CSVTableContainer<>("id", Integer.class, Integer.class, Double.class);
+        for (int i = 0; i < 20000; i++) {
+            largeContainer.pushDouble(i, i % 20, i);
+            csvContainer.push(i, i % 20, (double) i);
+        }
+        TableContainer<Integer, String, Double> sum = Aggregation.of(csvContainer)
+                .groupRows(rowKey -> rowKey / 1000)
+                .groupColumns(columnKey -> "sum")
+                .rollupRows(-1)
+                .aggregate(Aggregators.sum(), () -> new CSVTableContainer<>("id"));
+        assertEquals(21, sum.rowKeys().size());
+        assertEquals(Integer.valueOf(0), sum.rowKeys().get(0));
+        assertEquals(499500.0, sum.get(0, "sum"), 0);
+        assertEquals(199990000.0, sum.get(-1, "sum"), 0);
+        assertEquals(199990000.0, Aggregation.of(largeContainer).groupRows(rowKey -> 0).groupColumns(columnKey -> 0)
+                .aggregate(Aggregators.sum(), () -> new DoubleTableContainer<>("id")).get(0, 0), 0);
+    }
+}
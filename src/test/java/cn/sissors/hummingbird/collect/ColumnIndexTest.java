@@ -0,0 +1,91 @@
+package cn.sissors.hummingbird.collect;
+
+import cn.sissors.hummingbird.collect.container.CSVTableContainer;
+import cn.sissors.hummingbird.collect.container.ConcurrentTableContainer;
+import cn.sissors.hummingbird.collect.container.DoubleTableContainer;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class ColumnIndexTest {
+    private CSVTableContainer<String, String, Integer> container;
+
+    @Before
+    public void init() {
+        container = new CSVTableContainer<>("query", String.class, String.class, Integer.class);
+        container.push("q1", "latency", 30);
+        container.push("q2", "latency", 10);
+        container.push("q3", "latency", 50);
+        container.push("q4", "latency", 30);
+        container.push("q5", "count", 1);
+        container.createIndex("latency");
+    }
+
+    @Test
+    public void testRangeAndTop() {
+        ColumnIndex<String, Integer> index = container.index("latency");
+        assertEquals(4, index.size());
+        assertEquals(Lists.newArrayList("q1", "q4", "q3"), index.above(30, true));
+        assertEquals(Lists.newArrayList("q3"), index.above(30, false));
+        assertEquals(Lists.newArrayList("q2"), index.below(30, false));
+        assertEquals(Lists.newArrayList("q1", "q4"), index.range(20, true, 40, true));
+        assertEquals(Lists.newArrayList("q1", "q4"), index.range(30, true, 30, true));
+        assertEquals(Lists.newArrayList(), index.range(30, false, 30, true));
+        assertEquals(Lists.newArrayList("q3", "q4"), index.top(2));
+        assertEquals(Lists.newArrayList("q2", "q1", "q4", "q3"), index.bottom(10));
+        assertNull(container.index("count"));
+    }
+
+    @Test
+    public void testMaintenance() {
+        container.push("q2", "latency", 60);
+        container.push("q3", "latency", null);
+        container.push("q6", "latency", 20);
+        ColumnIndex<String, Integer> index = container.index("latency");
+        assertEquals(Lists.newArrayList("q6", "q1", "q4", "q2"), index.bottom(10));
+        container.filter(rowKey -> !rowKey.equals("q1"), null);
+        assertEquals(Lists.newArrayList("q6", "q4", "q2"), container.index("latency").bottom(10));
+        TableContainer<String, String, Integer> snapshot = container.snapshot();
+        container.push("q7", "latency", 0);
+        assertEquals(Lists.newArrayList("q6"), snapshot.index("latency").bottom(1));
+        assertEquals(Lists.newArrayList("q7"), container.index("latency").bottom(1));
+        container.clean();
+        assertEquals(0, container.index("latency").size());
+        container.push("q8", "latency", 5);
+        assertEquals(Lists.newArrayList("q8"), container.index("latency").top(1));
+        container.dropIndex("latency");
+        assertNull(container.index("latency"));
+    }
+
+    @Test
+    public void testComparatorAndSubclasses() {
+        DoubleTableContainer<Integer, String> numeric = new DoubleTableContainer<>("id", Integer.class, String.class);
+        numeric.createIndex("score", Comparator.reverseOrder());
+        IntStream.range(0, 1000).forEach(i -> numeric.pushDouble(i, "score", i % 100));
+        assertEquals(Lists.newArrayList(99, 199, 299), numeric.index("score").bottom(3));
+        assertEquals(10, numeric.index("score").range(50.0, true, 50.0, true).size());
+
+        ConcurrentTableContainer<Integer, String, Integer> concurrent = new ConcurrentTableContainer<>("id",
+                Integer.class, String.class, Integer.class);
+        concurrent.createIndex("value");
+        IntStream.range(0, 10000).parallel().forEach(i -> concurrent.push(i % 100, "value", i));
+        ColumnIndex<Integer, Integer> index = concurrent.index("value");
+        assertEquals(100, index.size());
+        List<Integer> rows = index.top(100);
+        for (int i = 1; i < rows.size(); i++) {
+            assertTrue(concurrent.get(rows.get(i - 1), "value") > concurrent.get(rows.get(i), "value"));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package cn.sissors.hummingbird.collect;
+
+import cn.sissors.hummingbird.collect.container.CSVTableContainer;
+import cn.sissors.hummingbird.collect.container.ConcurrentTableContainer;
+import cn.sissors.hummingbird.collect.container.DoubleTableContainer;
+import cn.sissors.hummingbird.runtime.report.ExecutionReport;
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class ContainerRegistryTest {
+    @Test
+    public void testLiveContainers() {
+        CSVTableContainer<String, String, String> container = new CSVTableContainer<>("query", String.class, String.class, String.class);
+        TableContainer<String, String, String> clone = container.clone();
+        TableContainer<String, String, String> snapshot = container.snapshot();
+        assertNotEquals(container.containerId(), clone.containerId());
+        assertNotEquals(container.containerId(), snapshot.containerId());
+        assertTrue(ContainerRegistry.liveContainers().contains(container));
+        assertTrue(ContainerRegistry.liveContainers().contains(clone));
+        assertTrue(ContainerRegistry.liveContainers().contains(snapshot));
+        assertTrue(ContainerRegistry.registeredCount() >= ContainerRegistry.liveCount());
+        long created = TableContainer.CONTAINER_COUNT();
+        long registered = ContainerRegistry.registeredCount();
+        assertTrue(new CSVTableContainer<String, String, String>("created").containerId() > registered);
+        assertEquals(created + 1, (long) TableContainer.CONTAINER_COUNT());
+        container.clone();
+        container.snapshot();
+        assertEquals(created + 1, (long) TableContainer.CONTAINER_COUNT());
+        assertTrue(ContainerRegistry.registeredCount() >= registered + 3);
+    }
+
+    @Test
+    public void testCollected() throws InterruptedException {
+        long id = new CSVTableContainer<String, String, String>("garbage").containerId();
+        for (int i = 0; i < 50 && ContainerRegistry.liveContainers().stream().anyMatch(c -> c.containerId() == id); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertFalse(ContainerRegistry.liveContainers().stream().anyMatch(c -> c.containerId() == id));
+    }
+
+    @Test
+    public void testMemoryFootprint() {
+        CSVTableContainer<Integer, String, String> container = new CSVTableContainer<>("id", Integer.class, String.class, String.class);
+        IntStream.range(0, 1000).forEach(i -> container.push(i, "status", i % 2 == 0 ? "succeeded" : new String("failed")));
+        MemoryFootprint footprint = container.memoryFootprint();
+        System.out.println(footprint);
+        assertTrue(footprint.keys() > 0 && footprint.structure() > 0 && footprint.values() > 0);
+        container.deduplicateValues();
+        assertTrue(container.memoryFootprint().values() < footprint.values());
+        assertEquals(footprint.total(), footprint.keys() + footprint.structure() + footprint.values());
+
+        DoubleTableContainer<Integer, String> numeric = new DoubleTableContainer<>("id", Integer.class, String.class);
+        ConcurrentTableContainer<Integer, String, Double> concurrent = new ConcurrentTableContainer<>("id",
+                Integer.class, String.class, Double.class);
+        IntStream.range(0, 200).forEach(i -> IntStream.range(0, 64).forEach(j -> {
+            numeric.pushDouble(i, "score" + j, i);
+            concurrent.push(i, "score" + j, (double) i);
+        }));
+        assertTrue(numeric.memoryFootprint().total() < concurrent.memoryFootprint().total());
+    }
+
+    @Test
+    public void testReport() {
+        CSVTableContainer<String, String, String> container = new CSVTableContainer<>("query", String.class, String.class, String.class);
+        container.push("q1", "latency", "10ms");
+        TableContainer<String, String, String> snapshot = container.snapshot();
+        ExecutionReport report = ContainerRegistry.report();
+        // the container may be written by another thread, so only its snapshot is measured
+        String prefix = "container." + container.containerId() + ".";
+        assertEquals("CSVTableContainer", report.get(prefix + "type"));
+        assertEquals("query", report.get(prefix + "header"));
+        assertNull(report.get(prefix + "bytes"));
+        String snapshotPrefix = "container." + snapshot.containerId() + ".";
+        assertEquals(1, report.get(snapshotPrefix + "rows"));
+        assertEquals(container.memoryFootprint().total(), report.get(snapshotPrefix + "bytes"));
+        assertTrue(report.getLong("container.bytes") >= report.getLong(snapshotPrefix + "bytes"));
+        report.getCategory("container." + snapshot.containerId()).print();
+    }
+}
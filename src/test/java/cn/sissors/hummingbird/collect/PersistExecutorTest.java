@@ -0,0 +1,186 @@
+package cn.sissors.hummingbird.collect;
+
+import cn.sissors.hummingbird.collect.container.CSVTableContainer;
+import cn.sissors.hummingbird.collect.container.ConcurrentTableContainer;
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import cn.sissors.hummingbird.runtime.report.ExecutionReport;
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class PersistExecutorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A container which waits for the latch before persisting, shared with its snapshots.
+     */
+    private static class BlockingContainer extends CSVTableContainer<Integer, String, String> {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private BlockingContainer() {
+            super("id", Integer.class, String.class, String.class);
+        }
+
+        @Override
+        public void persist(String path) throws DataPersistenceException {
+            started.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new DataPersistenceException("interrupted");
+            }
+            super.persist(path);
+        }
+    }
+
+    private String temporaryPath(String fileName) {
+        return new File(folder.getRoot(), fileName).getPath();
+    }
+
+    private static CSVTableContainer<Integer, String, String> load(String path) throws DataLoadingException {
+        return new CSVTableContainer<>(Integer.class, String.class, String.class).load(path);
+    }
+
+    @Test
+    public void testPersistAsync() throws Exception {
+        String path = temporaryPath("async-container.csv");
+        CSVTableContainer<Integer, String, String> container = new CSVTableContainer<>("id", Integer.class, String.class, String.class);
+        for (int i = 0; i < 1000; i++) {
+            container.push(i, "status", "succeeded");
+        }
+        CompletableFuture<Void> future = container.persistAsync(path);
+        TableContainer<Integer, String, String> snapshot = container.snapshot();
+        container.push(1000, "status", "failed");
+        future.get(10, TimeUnit.SECONDS);
+        assertEquals(snapshot.rowMap(), load(path).rowMap());
+        assertTrue(PersistExecutor.shared().report().getLong("persist.completed") >= 1L);
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        String path = temporaryPath("async-container.csv");
+        PersistExecutor executor = new PersistExecutor(1, 16);
+        BlockingContainer container = new BlockingContainer();
+        container.push(0, "status", "succeeded");
+        CompletableFuture<Void> running = container.persistAsync(path, executor);
+        assertTrue(container.started.await(10, TimeUnit.SECONDS));
+
+        container.push(1, "status", "succeeded");
+        CompletableFuture<Void> queued = container.persistAsync(path, executor);
+        container.push(2, "status", "failed");
+        CompletableFuture<Void> coalesced = container.persistAsync(path, executor);
+        assertNotSame(running, queued);
+        assertSame(queued, coalesced);
+        assertEquals(1, executor.queueDepth());
+        assertEquals(1, executor.running());
+
+        container.released.countDown();
+        CompletableFuture.allOf(running, queued).get(10, TimeUnit.SECONDS);
+        assertEquals(container.rowMap(), load(path).rowMap());
+        ExecutionReport report = executor.report();
+        assertEquals(3L, (long) report.getLong("persist.submitted"));
+        assertEquals(1L, (long) report.getLong("persist.coalesced"));
+        assertEquals(2L, (long) report.getLong("persist.completed"));
+        assertEquals(0, executor.queueDepth());
+        assertTrue(executor.shutdown(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConcurrentSubmits() throws Exception {
+        String path = temporaryPath("async-container.csv");
+        PersistExecutor executor = new PersistExecutor(1, 16);
+        ConcurrentTableContainer<Integer, String, String> container = new ConcurrentTableContainer<>("id", Integer.class, String.class, String.class);
+        List<CompletableFuture<Void>> futures = Collections.synchronizedList(Lists.newArrayList());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = offset; i < 400; i += threads.length) {
+                    container.push(i, "status", "succeeded");
+                    futures.add(container.persistAsync(path, executor));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        // the last persist holds every push, since no older snapshot replaces a newer one
+        assertEquals(400, load(path).rowKeys().size());
+        assertTrue(executor.shutdown(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        String path = temporaryPath("async-container.csv");
+        PersistExecutor executor = new PersistExecutor(1, 1);
+        BlockingContainer blocking = new BlockingContainer();
+        CompletableFuture<Void> running = blocking.persistAsync(path, executor);
+        assertTrue(blocking.started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> queued = new CSVTableContainer<Integer, String, String>("id")
+                .persistAsync(temporaryPath("async-container-1.csv"), executor);
+        assertEquals(1, executor.queueDepth());
+
+        CompletableFuture<CompletableFuture<Void>> blocked = CompletableFuture.supplyAsync(() ->
+                new CSVTableContainer<Integer, String, String>("id").persistAsync(temporaryPath("async-container-2.csv"), executor));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+
+        blocking.released.countDown();
+        CompletableFuture.allOf(running, queued, blocked.get(10, TimeUnit.SECONDS)).get(10, TimeUnit.SECONDS);
+        assertEquals(1, (int) executor.report().getInt("persist.queued.max"));
+        assertTrue(executor.report().getDouble("persist.blocked.ms") > 0.0);
+        assertTrue(executor.shutdown(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailure() throws InterruptedException {
+        String path = temporaryPath("async-container.csv");
+        PersistExecutor executor = new PersistExecutor(1, 1);
+        CSVTableContainer<Integer, String, String> container = new CSVTableContainer<>("id", Integer.class, String.class, String.class);
+        try {
+            container.persistAsync(folder.getRoot().getPath(), executor).get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DataPersistenceException);
+        } catch (Exception e) {
+            fail();
+        }
+        assertEquals(1L, (long) executor.report().getLong("persist.failed"));
+
+        assertTrue(executor.shutdown(10, TimeUnit.SECONDS));
+        try {
+            container.persistAsync(path, executor);
+            fail();
+        } catch (RejectedExecutionException ignored) {
+        }
+        assertFalse(Files.exists(Paths.get(path)));
+    }
+}
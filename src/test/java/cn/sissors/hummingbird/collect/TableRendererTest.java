@@ -0,0 +1,84 @@
+package cn.sissors.hummingbird.collect;
+
+import cn.sissors.hummingbird.collect.container.CSVTableContainer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class TableRendererTest {
+    private CSVTableContainer<Integer, String, String> container;
+
+    @Before
+    public void init() {
+        container = new CSVTableContainer<>("id", Integer.class, String.class, String.class);
+        for (int i = 0; i < 100000; i++) {
+            container.push(i, "value", "v" + i);
+            if (i % 2 == 0) {
+                container.push(i, "even", "yes");
+            }
+        }
+    }
+
+    @Test
+    public void testSmallTable() {
+        CSVTableContainer<String, String, String> small = new CSVTableContainer<>("time");
+        small.push("1:00", "cost", "10ms");
+        small.push("1:00", "count", "100");
+        small.push("2:00", "count", "200\n300");
+        assertEquals("┌────┬────┬───────┐\n" +
+                "│time│cost│count  │\n" +
+                "├────┼────┼───────┤\n" +
+                "│1:00│10ms│100    │\n" +
+                "├────┼────┼───────┤\n" +
+                "│2:00│-   │200 300│\n" +
+                "└────┴────┴───────┘", small.toString());
+    }
+
+    @Test
+    public void testHeadAndTail() {
+        String table = container.renderer().head(2).tail(1).toString();
+        System.out.println(table);
+        assertEquals("┌─────┬──────┬────┐\n" +
+                "│id   │value │even│\n" +
+                "├─────┼──────┼────┤\n" +
+                "│0    │v0    │yes │\n" +
+                "├─────┼──────┼────┤\n" +
+                "│1    │v1    │-   │\n" +
+                "├─────┼──────┼────┤\n" +
+                "│...  │...   │... │\n" +
+                "├─────┼──────┼────┤\n" +
+                "│99999│v99999│-   │\n" +
+                "└─────┴──────┴────┘", table);
+        assertEquals(15, container.renderer().head(5).toString().split("\n").length);
+    }
+
+    @Test
+    public void testPage() {
+        String table = container.renderer().page(3, 10).sampleWidths(1).toString();
+        System.out.println(table);
+        String[] lines = table.split("\n");
+        assertEquals(23, lines.length);
+        assertEquals("│30│v30  │yes │", lines[3]);
+        assertEquals(3, container.renderer().page(20000, 10).toString().split("\n").length);
+    }
+
+    @Test
+    public void testPrint() throws UnsupportedEncodingException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        container.renderer().sampleWidths(100).print(new PrintStream(outputStream, false, "UTF-8"));
+        String table = outputStream.toString("UTF-8");
+        assertTrue(table.endsWith("┘\n"));
+        assertTrue(table.contains("│9~│v999~│-   │"));
+        assertEquals(200003, table.split("\n").length);
+    }
+}
@@ -0,0 +1,197 @@
+package cn.sissors.hummingbird.collect;
+
+import cn.sissors.hummingbird.Benchmark;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class TableStorageTest {
+    private TableStorage<String, String, String> storage;
+
+    @Before
+    public void init() {
+        storage = new TableStorage<>();
+        storage.put("1:00", "cost", "10ms");
+        storage.put("1:00", "count", "100");
+        storage.put("2:00", "count", "200");
+        storage.put("2:00", "cost", "20ms");
+        storage.put("3:00", "count", "300");
+    }
+
+    @Test
+    public void testPutAndGet() {
+        assertEquals("10ms", storage.get("1:00", "cost"));
+        assertEquals("20ms", storage.get("2:00", "cost"));
+        assertNull(storage.get("3:00", "cost"));
+        assertNull(storage.get("4:00", "cost"));
+        assertEquals(5, storage.cellCount());
+        storage.put("1:00", "cost", "15ms");
+        assertEquals("15ms", storage.get("1:00", "cost"));
+        assertEquals(5, storage.cellCount());
+        storage.put("1:00", "cost", null);
+        assertNull(storage.get("1:00", "cost"));
+        assertEquals(4, storage.cellCount());
+        assertTrue(storage.rowId("1:00") >= 0);
+    }
+
+    @Test
+    public void testRowMap() {
+        Map<String, Map<String, String>> rowMap = storage.rowMap();
+        assertEquals(3, rowMap.size());
+        assertEquals(Lists.newArrayList("1:00", "2:00", "3:00"), Lists.newArrayList(rowMap.keySet()));
+        assertEquals(Lists.newArrayList("cost", "count"), Lists.newArrayList(rowMap.get("2:00").keySet()));
+        assertEquals(1, rowMap.get("3:00").size());
+        assertFalse(rowMap.containsKey("4:00"));
+    }
+
+    @Test
+    public void testColumnMap() {
+        Map<String, Map<String, String>> columnMap = storage.columnMap();
+        assertEquals(2, columnMap.size());
+        assertEquals(2, columnMap.get("cost").size());
+        assertEquals(3, columnMap.get("count").size());
+        assertEquals("300", columnMap.get("count").get("3:00"));
+        assertEquals(Lists.newArrayList("1:00", "2:00", "3:00"), Lists.newArrayList(columnMap.get("count").keySet()));
+    }
+
+    @Test
+    public void testSnapshot() {
+        TableStorage<String, String, String> snapshot = storage.snapshot();
+        assertTrue(snapshot.isReadOnly());
+        storage.put("1:00", "cost", "15ms");
+        storage.put("3:00", "cost", "30ms");
+        storage.put("4:00", "size", "4KB");
+        assertEquals("10ms", snapshot.get("1:00", "cost"));
+        assertNull(snapshot.get("3:00", "cost"));
+        assertNull(snapshot.get("4:00", "size"));
+        assertEquals(5, snapshot.cellCount());
+        assertEquals(Lists.newArrayList("1:00", "2:00", "3:00"), snapshot.rowKeys());
+        assertEquals(Lists.newArrayList("cost", "count"), snapshot.columnKeys());
+        assertEquals(2, snapshot.columnMap().get("cost").size());
+        assertEquals(4, storage.rowCount());
+        assertEquals(7, storage.cellCount());
+    }
+
+    @Test
+    public void testFork() {
+        TableStorage<String, String, String> fork = storage.fork();
+        fork.put("1:00", "cost", "15ms");
+        storage.put("2:00", "cost", "25ms");
+        assertEquals("10ms", storage.get("1:00", "cost"));
+        assertEquals("15ms", fork.get("1:00", "cost"));
+        assertEquals("20ms", fork.get("2:00", "cost"));
+        TableStorage<String, String, String> snapshot = storage.snapshot();
+        storage.put("4:00", "size", "4KB");
+        TableStorage<String, String, String> snapshotFork = snapshot.fork();
+        assertFalse(snapshotFork.isReadOnly());
+        assertEquals(3, snapshotFork.rowCount());
+        assertEquals(-1, snapshotFork.rowId("4:00"));
+        snapshotFork.put("3:00", "cost", "30ms");
+        assertNull(snapshot.get("3:00", "cost"));
+    }
+
+    @Test
+    public void testReorganize() {
+        TableStorage<String, String, String> sorted = storage.reorganize(
+                Lists.newArrayList("3:00", "2:00", "1:00"), Lists.newArrayList("count", "cost"));
+        assertEquals(Lists.newArrayList("3:00", "2:00", "1:00"), sorted.rowKeys());
+        assertEquals(Lists.newArrayList("count", "cost"), Lists.newArrayList(sorted.rowMap().get("2:00").keySet()));
+        assertEquals("20ms", sorted.get("2:00", "cost"));
+        assertEquals(5, sorted.cellCount());
+        TableStorage<String, String, String> filtered = storage.reorganize(
+                Lists.newArrayList("1:00", "3:00"), Lists.newArrayList("count"));
+        assertEquals(2, filtered.cellCount());
+        assertNull(filtered.get("1:00", "cost"));
+        assertEquals(-1, filtered.columnId("cost"));
+        assertEquals(0, storage.reorganize(Lists.newArrayList(), Lists.newArrayList("cost")).rowCount());
+    }
+
+    @Test
+    public void testCellSpliterator() {
+        Spliterator<Table.Cell<String, String, String>> suffix = storage.cellSpliterator();
+        Spliterator<Table.Cell<String, String, String>> prefix = suffix.trySplit();
+        List<String> cells = Lists.newArrayList();
+        prefix.forEachRemaining(cell -> cells.add(cell.getRowKey() + "/" + cell.getColumnKey()));
+        assertEquals(Lists.newArrayList("1:00/cost", "1:00/count"), cells);
+        assertTrue(suffix.tryAdvance(cell -> cells.add(cell.getValue())));
+        assertEquals("20ms", cells.get(2));
+        suffix.forEachRemaining(cell -> cells.add(cell.getValue()));
+        assertEquals(Lists.newArrayList("1:00/cost", "1:00/count", "20ms", "200", "300"), cells);
+    }
+
+    @Test
+    public void testLargeStorage() {
+        TableStorage<Integer, Integer, Integer> largeStorage = new TableStorage<>();
+        for (int i = 0; i < 500; i++) {
+            for (int j = 0; j < 200; j++) {
+                largeStorage.put(i, j, i * j);
+            }
+        }
+        long sum = 0;
+        for (int i = 0; i < 500; i++) {
+            for (int j = 0; j < 200; j++) {
+                sum += largeStorage.get(i, j);
+            }
+        }
+        assertEquals(100000, largeStorage.cellCount());
+        assertEquals(124750L * 19900L, sum);
+    }
+
+    /**
+     * Compare the heap retained by the storage with the two nested maps which kept cells
+     * in 1.3.x, on the same keys and values.
+     */
+    @Test
+    @Category(Benchmark.class)
+    public void benchmarkHeap() throws Exception {
+        int rows = 2000;
+        int columns = 100;
+        List<Integer> keys = Lists.newArrayList();
+        List<String> values = Lists.newArrayList();
+        for (int i = 0; i < rows * columns; i++) {
+            keys.add(i);
+            values.add("value-" + i);
+        }
+
+        long nestedMaps = Benchmark.retainedHeap(() -> {
+            Map<Integer, Map<Integer, String>> rowMap = Maps.newLinkedHashMap();
+            Map<Integer, Map<Integer, String>> columnMap = Maps.newLinkedHashMap();
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    String value = values.get(i * columns + j);
+                    rowMap.computeIfAbsent(keys.get(i), k -> Maps.newLinkedHashMap()).put(keys.get(j), value);
+                    columnMap.computeIfAbsent(keys.get(j), k -> Maps.newLinkedHashMap()).put(keys.get(i), value);
+                }
+            }
+            return Lists.newArrayList(rowMap, columnMap);
+        });
+        long tableStorage = Benchmark.retainedHeap(() -> {
+            TableStorage<Integer, Integer, String> largeStorage = new TableStorage<>();
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    largeStorage.put(keys.get(i), keys.get(j), values.get(i * columns + j));
+                }
+            }
+            return largeStorage;
+        });
+        System.out.println(String.format("heap of %d cells: nested maps %d bytes, storage %d bytes, %.1fx smaller",
+                rows * columns, nestedMaps, tableStorage, (double) nestedMaps / tableStorage));
+        assertTrue(tableStorage < nestedMaps);
+    }
+}
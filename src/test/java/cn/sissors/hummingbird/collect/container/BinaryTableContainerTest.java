@@ -3,10 +3,20 @@ package cn.sissors.hummingbird.collect.container;
 import cn.sissors.hummingbird.collect.TableContainer;
 import cn.sissors.hummingbird.exceptions.DataLoadingException;
 import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import com.google.common.collect.Lists;
+import org.junit.ClassRule;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.runners.MethodSorters.NAME_ASCENDING;
 
 /**
@@ -15,6 +25,13 @@ import static org.junit.runners.MethodSorters.NAME_ASCENDING;
  */
 @FixMethodOrder(NAME_ASCENDING)
 public class BinaryTableContainerTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static String temporaryPath(String fileName) {
+        return new File(folder.getRoot(), fileName).getPath();
+    }
+
     @Test
     public void test0Persist() throws DataPersistenceException {
         TableContainer<String, String, String> binaryTableContainer = new BinaryTableContainer<>("time");
@@ -36,4 +53,37 @@ public class BinaryTableContainerTest {
         assertEquals(binaryTableContainer.get("1:00", "cost"), "10ms");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void test1LoadLegacy() throws DataLoadingException, URISyntaxException {
+        // persisted by 1.3.1, before cells were moved into TableStorage
+        String path = new File(getClass().getResource("/binary-container-1.3.1").toURI()).getPath();
+        TableContainer<String, String, String> binaryTableContainer =
+                new BinaryTableContainer<String, String, String>("time").load(path);
+        binaryTableContainer.print();
+        assertEquals("time", binaryTableContainer.getHeaderName());
+        assertEquals(Lists.newArrayList("1:00", "2:00", "3:00"), binaryTableContainer.rowKeys());
+        assertEquals(Lists.newArrayList("cost", "count"), binaryTableContainer.columnKeys());
+        assertEquals("10ms", binaryTableContainer.get("1:00", "cost"));
+        assertEquals("300", binaryTableContainer.get("3:00", "count"));
+        assertNull(binaryTableContainer.get("3:00", "cost"));
+        binaryTableContainer.push("4:00", "cost", "40ms");
+        assertEquals("40ms", binaryTableContainer.get("4:00", "cost"));
+    }
+
+    @Test
+    public void test2CompressedLoad() throws DataPersistenceException, DataLoadingException, IOException {
+        String path = temporaryPath("binary-container.bin.gz");
+        TableContainer<Integer, String, String> binaryTableContainer = new BinaryTableContainer<>("id");
+        for (int i = 0; i < 5000; i++) {
+            binaryTableContainer.push(i, "status", i % 3 == 0 ? "failed" : "succeeded");
+        }
+        binaryTableContainer.persist(path);
+        TableContainer<Integer, String, String> loaded = new BinaryTableContainer<Integer, String, String>("id").load(path);
+        assertEquals(binaryTableContainer.rowMap(), loaded.rowMap());
+        assertEquals("failed", loaded.get(4998, "status"));
+        try (InputStream input = new FileInputStream(path)) {
+            assertEquals(0x1f, input.read());
+            assertEquals(0x8b, input.read());
+        }
+    }
+}
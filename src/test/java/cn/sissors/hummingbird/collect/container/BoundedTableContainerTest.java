@@ -0,0 +1,114 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import com.google.common.collect.Lists;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.runners.MethodSorters.NAME_ASCENDING;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+@FixMethodOrder(NAME_ASCENDING)
+public class BoundedTableContainerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String temporaryPath(String fileName) {
+        return new File(folder.getRoot(), fileName).getPath();
+    }
+
+    @Test
+    public void test0RingBuffer() {
+        BoundedTableContainer<Integer, String, Integer> container =
+                new BoundedTableContainer<>("bucket", Integer.class, String.class, Integer.class, 3);
+        for (int bucket = 0; bucket < 10; bucket++) {
+            container.push(bucket, "count", bucket * 10);
+            if (bucket == 1) {
+                container.push(bucket, "error", 1);
+            }
+        }
+        container.push(7, "count", 70);
+        container.print();
+        assertEquals(Lists.newArrayList(7, 8, 9), container.rowKeys());
+        assertEquals(Lists.newArrayList("count"), container.columnKeys());
+        assertEquals(3, container.columnMap().get("count").size());
+        assertNull(container.get(1, "error"));
+        assertNull(container.singleColumn("error"));
+    }
+
+    @Test
+    public void test1LeastRecentlyPushed() {
+        List<Integer> evicted = Lists.newArrayList();
+        BoundedTableContainer<Integer, String, Integer> container =
+                new BoundedTableContainer<>("bucket", Integer.class, String.class, Integer.class, 2)
+                        .evictionOrder(BoundedTableContainer.EvictionOrder.LEAST_RECENTLY_PUSHED)
+                        .onEviction(rows -> evicted.addAll(rows.rowKeys()));
+        container.push(1, "count", 1);
+        container.push(2, "count", 2);
+        container.push(1, "count", 11);
+        container.push(3, "count", 3);
+        assertEquals(Lists.newArrayList(1, 3), container.rowKeys());
+        assertEquals(Lists.newArrayList(2), evicted);
+        assertEquals(Integer.valueOf(11), container.get(1, "count"));
+    }
+
+    @Test
+    public void test2MaxAge() throws InterruptedException {
+        BoundedTableContainer<Integer, String, Integer> container =
+                new BoundedTableContainer<>("bucket", Integer.class, String.class, Integer.class, Integer.MAX_VALUE)
+                        .maxAge(100, TimeUnit.MILLISECONDS);
+        container.push(1, "count", 1);
+        container.push(2, "count", 2);
+        Thread.sleep(200);
+        container.push(3, "count", 3);
+        assertEquals(Lists.newArrayList(3), container.rowKeys());
+        Thread.sleep(200);
+        container.evictExpired();
+        assertEquals(0, container.rowCount());
+        assertFalse(container.rowMap().containsKey(3));
+    }
+
+    @Test
+    public void test3SpillAndReload() throws DataPersistenceException, DataLoadingException {
+        String path = temporaryPath("bounded-evicted.csv");
+        BoundedTableContainer<Integer, String, Integer> container =
+                new BoundedTableContainer<>("bucket", Integer.class, String.class, Integer.class, 5);
+        container.onEviction(evicted -> {
+            try {
+                evicted.persist(path);
+            } catch (DataPersistenceException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        for (int bucket = 0; bucket < 6; bucket++) {
+            container.push(bucket, "count", bucket);
+        }
+        CSVTableContainer<Integer, String, Integer> spilled =
+                new CSVTableContainer<>(Integer.class, String.class, Integer.class).load(path);
+        assertEquals(Lists.newArrayList(0), spilled.rowKeys());
+        assertEquals(Integer.valueOf(0), spilled.get(0, "count"));
+
+        container.sort((a, b) -> b - a, null);
+        assertEquals(Lists.newArrayList(5, 4, 3, 2, 1), container.rowKeys());
+        container.push(6, "count", 6);
+        assertEquals(Lists.newArrayList(4, 3, 2, 1, 6), container.rowKeys());
+        BoundedTableContainer<Integer, String, Integer> snapshot =
+                (BoundedTableContainer<Integer, String, Integer>) container.snapshot();
+        container.push(7, "count", 7);
+        assertEquals(Lists.newArrayList(4, 3, 2, 1, 6), snapshot.rowKeys());
+        container.persist(temporaryPath("bounded-container.csv"));
+    }
+}
@@ -1,21 +1,47 @@
 package cn.sissors.hummingbird.collect.container;
 
+import cn.sissors.hummingbird.Benchmark;
 import cn.sissors.hummingbird.bean.ResultTimeline;
 import cn.sissors.hummingbird.bean.ResultUnit;
+import cn.sissors.hummingbird.collect.JoinType;
+import cn.sissors.hummingbird.collect.MergePolicy;
 import cn.sissors.hummingbird.collect.TableContainer;
+import cn.sissors.hummingbird.collect.ValuePool;
+import cn.sissors.hummingbird.exceptions.ContainerRuntimeException;
 import cn.sissors.hummingbird.exceptions.DataLoadingException;
 import cn.sissors.hummingbird.exceptions.DataPersistenceException;
 import cn.sissors.hummingbird.exceptions.NetworkTransferException;
+import cn.sissors.hummingbird.runtime.timer.TimerManager;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.junit.runners.MethodSorters.NAME_ASCENDING;
 
 /**
@@ -24,6 +50,9 @@ import static org.junit.runners.MethodSorters.NAME_ASCENDING;
  */
 @FixMethodOrder(NAME_ASCENDING)
 public class CSVTableContainerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private CSVTableContainer<String, String, String> csvTableContainer;
 
     @Before
@@ -36,6 +65,10 @@ public class CSVTableContainerTest {
         csvTableContainer.push("3:00", "count", "300");
     }
 
+    private String temporaryPath(String fileName) {
+        return new File(folder.getRoot(), fileName).getPath();
+    }
+
     @Test
     public void test0SimplePrint() {
         csvTableContainer.print();
@@ -55,6 +88,38 @@ public class CSVTableContainerTest {
         assertTrue(true);
     }
 
+    @Test
+    public void test1UnicodePersistAndLoad() throws DataPersistenceException, DataLoadingException, IOException {
+        String path = temporaryPath("unicode-container.csv");
+        csvTableContainer.push("4:00", "备注", "超时");
+        csvTableContainer.persist(path);
+        String content = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+        assertEquals("time|cost|count|备注\r\n1:00|10ms|100|\r\n2:00|20ms|200|\r\n3:00||300|\r\n4:00|||超时\r\n", content);
+        CSVTableContainer<String, String, String> loaded = new CSVTableContainer<>(String.class, String.class, String.class).load(path);
+        assertEquals("超时", loaded.get("4:00", "备注"));
+        assertEquals("", loaded.get("3:00", "cost"));
+    }
+
+    @Test
+    public void test2ParallelLoad() throws DataLoadingException, IOException {
+        String path = temporaryPath("parallel-container.csv");
+        Files.write(Paths.get(path), ("time|cost|count|备注\r\n1:00|10ms|100|\r\n2:00||200|慢\n"
+                + "3:00|30ms\r1:00||150|\r\n4:00|||\r\n\r\n5:00|ignored|").getBytes(StandardCharsets.UTF_8));
+        CSVTableContainer<String, String, String> expected = new CSVTableContainer<>(String.class, String.class, String.class).load(path);
+        assertEquals(Lists.newArrayList("1:00", "2:00", "3:00", "4:00"), expected.rowKeys());
+        for (int chunkSize = 1; chunkSize <= 64; chunkSize++) {
+            CSVTableContainer<String, String, String> loaded = new CSVTableContainer<>(String.class, String.class, String.class)
+                    .loadParallel(path, ForkJoinPool.commonPool(), chunkSize);
+            assertEquals(expected.getHeaderName(), loaded.getHeaderName());
+            assertEquals(expected.rowKeys(), loaded.rowKeys());
+            assertEquals(expected.columnKeys(), loaded.columnKeys());
+            assertEquals(expected.rowMap(), loaded.rowMap());
+        }
+        CSVTableContainer<ResultTimeline, String, ResultUnit> customized = new CSVTableContainer<>(ResultTimeline.class,
+                String.class, ResultUnit.class).loadParallel("./persistence/customized-container2.csv");
+        assertEquals(5, customized.rowKeys().size());
+    }
+
     @Test
     public void test0ComplicatedPrint() {
         CSVTableContainer<String, String, JSONObject> csvTableContainer =
@@ -97,6 +162,27 @@ public class CSVTableContainerTest {
         assertTrue(true);
     }
 
+    @Test
+    public void test2ComplicatedLoadDeduplicated() throws DataLoadingException {
+        CSVTableContainer<String, String, JSONObject> csvTableContainer =
+                new CSVTableContainer<>(String.class, String.class, JSONObject.class);
+        csvTableContainer.deduplicateValues(ValuePool.byKey(Object::toString))
+                .load("./persistence/complicated-container.csv");
+        assertSame(csvTableContainer.get("1:00", "cost"), csvTableContainer.get("3:00", "cost"));
+        assertSame(csvTableContainer.get("1:00", "cost"), csvTableContainer.get("2:00", "count"));
+
+        CSVTableContainer<Integer, Integer, String> repetitive =
+                new CSVTableContainer<>("id", Integer.class, Integer.class, String.class);
+        for (int i = 0; i < 1000; i++) {
+            repetitive.push(i, i % 10, String.valueOf(i % 3));
+        }
+        assertNotSame(repetitive.get(0, 0), repetitive.get(3, 3));
+        repetitive.deduplicateValues();
+        assertSame(repetitive.get(0, 0), repetitive.get(3, 3));
+        repetitive.push(999, 0, new String("0"));
+        assertSame(repetitive.get(0, 0), repetitive.get(999, 0));
+    }
+
     @Test
     public void test1CustomizedPersist() throws DataPersistenceException {
         CSVTableContainer<String, String, ResultUnit> csvTableContainer =
@@ -140,6 +226,196 @@ public class CSVTableContainerTest {
         assertTrue(true);
     }
 
+    @Test
+    public void test2RegisteredParserLoad() throws Exception {
+        String path = temporaryPath("registered-parser-container.csv");
+        Files.write(Paths.get(path), "day|latency\r\n2026-10-17|r=1.0,e=0.5\r\n2026-10-18|r=2.0,e=0.1\r\n"
+                .getBytes(StandardCharsets.UTF_8));
+        try {
+            new CSVTableContainer<>(LocalDate.class, String.class, ResultUnit.class).load(path);
+            fail();
+        } catch (DataLoadingException ignored) {
+        }
+        CSVTableContainer.registerParser(LocalDate.class, LocalDate::parse);
+        try {
+            CSVTableContainer.registerParser(Integer.class, text -> Integer.valueOf(text, 16));
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+        assertEquals(Integer.valueOf(10), CSVTableContainer.parse("10", Integer.class));
+        CSVTableContainer<LocalDate, String, ResultUnit> container =
+                new CSVTableContainer<>(LocalDate.class, String.class, ResultUnit.class).load(path);
+        assertEquals(Lists.newArrayList(LocalDate.of(2026, 10, 17), LocalDate.of(2026, 10, 18)), container.rowKeys());
+        assertEquals(container.get(LocalDate.of(2026, 10, 18), "latency").toString(), new ResultUnit(2.0, 0.1).toString());
+        assertSame(CSVTableContainer.parser(ResultUnit.class), CSVTableContainer.parser(ResultUnit.class));
+        assertNotSame(CSVTableContainer.parse("r=1.0,e=0.5", ResultUnit.class), CSVTableContainer.parse("r=1.0,e=0.5", ResultUnit.class));
+    }
+
+    @Test
+    public void test2SchemaLoad() throws Exception {
+        String path = temporaryPath("schema-container.csv");
+        CSVTableContainer<String, String, Object> container = new CSVTableContainer<>("query", String.class, String.class, Object.class)
+                .schema("count", Integer.class)
+                .schema("latency", Double.class)
+                .schema("payload", JSONObject.class)
+                .schema("note", String.class);
+        container.push("q1", "count", 3);
+        container.push("q1", "latency", 1.5);
+        container.push("q1", "payload", new JSONObject("{\"plan\":\"scan\"}"));
+        container.push("q2", "count", 5);
+        container.push("q2", "note", "cached");
+        container.persist(path);
+
+        for (CSVTableContainer<String, String, Object> loaded : Lists.newArrayList(
+                new CSVTableContainer<>(String.class, String.class, Object.class).load(path),
+                new CSVTableContainer<>(String.class, String.class, Object.class).loadParallel(path, ForkJoinPool.commonPool(), 1))) {
+            assertEquals(Integer.class, loaded.valueType("count"));
+            assertEquals(Lists.newArrayList("q1", "q2"), loaded.rowKeys());
+            assertEquals(3, loaded.get("q1", "count"));
+            assertEquals(1.5, loaded.get("q1", "latency"));
+            assertEquals("scan", ((JSONObject) loaded.get("q1", "payload")).getString("plan"));
+            assertNull(loaded.get("q2", "latency"));
+            assertEquals("cached", loaded.get("q2", "note"));
+        }
+
+        Files.write(Paths.get(path), "query|count|latency\r\n#types|Long|\r\nq1|7|2.5\r\n".getBytes(StandardCharsets.UTF_8));
+        CSVTableContainer<String, String, Object> declared = new CSVTableContainer<>(String.class, String.class, Object.class)
+                .schema("latency", Double.class)
+                .load(path);
+        assertEquals(7L, declared.get("q1", "count"));
+        assertEquals(2.5, declared.get("q1", "latency"));
+        try {
+            new CSVTableContainer<>(String.class, String.class, String.class).load(path);
+            fail();
+        } catch (DataLoadingException ignored) {
+        }
+    }
+
+    @Test
+    public void test2CompressedLoad() throws Exception {
+        String plainPath = temporaryPath("compressed-container.csv");
+        String gzipPath = temporaryPath("compressed-container.csv.gz");
+        String deflatePath = temporaryPath("compressed-container.csv.z");
+        CSVTableContainer<Integer, String, String> container = new CSVTableContainer<>("id", Integer.class, String.class, String.class);
+        for (int i = 0; i < 5000; i++) {
+            container.push(i, "status", i % 3 == 0 ? "failed" : "succeeded");
+            container.push(i, "message", "查询-" + i);
+        }
+        container.persist(plainPath);
+        container.persist(gzipPath);
+        container.compression(Compression.DEFLATE).persist(deflatePath);
+        assertEquals(Compression.GZIP, Compression.of(gzipPath));
+        assertEquals(Compression.NONE, Compression.of(deflatePath));
+        assertTrue(Files.size(Paths.get(gzipPath)) < Files.size(Paths.get(plainPath)) / 4);
+        assertTrue(Files.size(Paths.get(deflatePath)) < Files.size(Paths.get(plainPath)) / 4);
+
+        for (CSVTableContainer<Integer, String, String> loaded : Lists.newArrayList(
+                new CSVTableContainer<>(Integer.class, String.class, String.class).load(gzipPath),
+                new CSVTableContainer<>(Integer.class, String.class, String.class).loadParallel(gzipPath, ForkJoinPool.commonPool(), 1),
+                new CSVTableContainer<>(Integer.class, String.class, String.class).compression(Compression.DEFLATE).load(deflatePath))) {
+            assertEquals(container.rowKeys(), loaded.rowKeys());
+            assertEquals(container.rowMap(), loaded.rowMap());
+            assertEquals("查询-4999", loaded.get(4999, "message"));
+        }
+    }
+
+    /**
+     * Replace the header of file in place, keeping its length and modified time, so that
+     * the header is restored if and only if the file is rewritten.
+     */
+    static void tamperHeader(String path, String from, String to) throws IOException {
+        File file = new File(path);
+        long lastModified = file.lastModified();
+        byte[] bytes = Files.readAllBytes(Paths.get(path));
+        byte[] header = to.getBytes(StandardCharsets.UTF_8);
+        assertEquals(from.length(), header.length);
+        System.arraycopy(header, 0, bytes, 0, header.length);
+        Files.write(Paths.get(path), bytes);
+        assertTrue(file.setLastModified(lastModified));
+    }
+
+    @Test
+    public void test2AppendPersist() throws Exception {
+        String path = temporaryPath("append-container.csv");
+        CSVTableContainer<Integer, String, String> container =
+                new CSVTableContainer<>("id", Integer.class, String.class, String.class).appendMode(true);
+        for (int i = 0; i < 1000; i++) {
+            container.push(i, "status", "succeeded");
+        }
+        container.persist(path);
+        tamperHeader(path, "id", "ID");
+        for (int i = 1000; i < 1100; i++) {
+            container.push(i, "status", "failed");
+        }
+        container.persist(path);
+        CSVTableContainer<Integer, String, String> loaded =
+                new CSVTableContainer<>(Integer.class, String.class, String.class).load(path);
+        assertEquals("ID", loaded.getHeaderName());
+        assertEquals(container.rowMap(), loaded.rowMap());
+
+        // nothing changed, nothing written
+        long length = Files.size(Paths.get(path));
+        container.persist(path);
+        assertEquals(length, Files.size(Paths.get(path)));
+
+        // a clone tracks its own changes
+        container.clone().push(0, "status", "cloned");
+        container.push(1100, "status", "failed");
+        container.persist(path);
+        loaded = new CSVTableContainer<>(Integer.class, String.class, String.class).load(path);
+        assertEquals("ID", loaded.getHeaderName());
+        assertEquals(container.rowMap(), loaded.rowMap());
+
+        // an existing row changed
+        container.push(0, "status", "retried");
+        container.persist(path);
+        loaded = new CSVTableContainer<>(Integer.class, String.class, String.class).load(path);
+        assertEquals("id", loaded.getHeaderName());
+        assertEquals(container.rowMap(), loaded.rowMap());
+
+        // a new column changes the header
+        tamperHeader(path, "id", "ID");
+        container.push(1101, "status", "succeeded").push(1101, "latency", "10ms");
+        container.persist(path);
+        loaded = new CSVTableContainer<>(Integer.class, String.class, String.class).load(path);
+        assertEquals("id", loaded.getHeaderName());
+        assertEquals(container.rowMap(), loaded.rowMap());
+
+        // sorted
+        tamperHeader(path, "id", "ID");
+        container.sort((a, b) -> b - a, null);
+        container.persist(path);
+        loaded = new CSVTableContainer<>(Integer.class, String.class, String.class).load(path);
+        assertEquals("id", loaded.getHeaderName());
+        assertEquals(container.rowKeys(), loaded.rowKeys());
+
+        String gzipPath = temporaryPath("append-container.csv.gz");
+        BoundedTableContainer<Integer, String, String> bounded =
+                new BoundedTableContainer<>("id", Integer.class, String.class, String.class, 150);
+        bounded.appendMode(true);
+        for (int i = 0; i < 300; i++) {
+            bounded.push(i, "status", "succeeded");
+            if (i % 10 == 0) {
+                bounded.persist(gzipPath);
+            }
+        }
+        bounded.persist(gzipPath);
+        loaded = new CSVTableContainer<>(Integer.class, String.class, String.class).load(gzipPath);
+        assertEquals(bounded.rowKeys(), loaded.rowKeys());
+
+        CSVTableContainer<Integer, String, String> gzipped =
+                new CSVTableContainer<>("id", Integer.class, String.class, String.class).appendMode(true);
+        for (int i = 0; i < 300; i++) {
+            gzipped.push(i, "status", "succeeded");
+            if (i % 10 == 0) {
+                gzipped.persist(gzipPath);
+            }
+        }
+        gzipped.persist(gzipPath);
+        loaded = new CSVTableContainer<>(Integer.class, String.class, String.class).load(gzipPath);
+        assertEquals(gzipped.rowMap(), loaded.rowMap());
+    }
+
     @Test
     public void test0Sort() {
         CSVTableContainer<String, String, ResultUnit> csvTableContainer =
@@ -193,6 +469,240 @@ public class CSVTableContainerTest {
         assertTrue(true);
     }
 
+    @Test
+    public void test0MergeAll() {
+        List<TableContainer<Integer, Integer, Integer>> partitions = Lists.newArrayList();
+        for (int partition = 0; partition < 64; partition++) {
+            CSVTableContainer<Integer, Integer, Integer> part =
+                    new CSVTableContainer<>("id", Integer.class, Integer.class, Integer.class);
+            for (int row = 0; row < 100; row++) {
+                part.push(partition * 100 + row, row % 10, partition);
+            }
+            part.push(-1, 0, partition);
+            partitions.add(part);
+        }
+        DoubleTableContainer<Integer, Integer> doublePart = new DoubleTableContainer<>("id", Integer.class, Integer.class);
+        doublePart.pushDouble(-1, 0, 64);
+
+        CSVTableContainer<Integer, Integer, Integer> lastWins =
+                new CSVTableContainer<>("id", Integer.class, Integer.class, Integer.class);
+        lastWins.push(-1, 0, -1);
+        TimerManager.create("container.mergeAll");
+        lastWins.mergeAll(partitions);
+        TimerManager.stop("container.mergeAll");
+        System.out.println("merge 64 partitions: " + TimerManager.format("container.mergeAll"));
+        assertEquals(6401, lastWins.rowKeys().size());
+        assertEquals(Integer.valueOf(-1), lastWins.rowKeys().get(0));
+        assertEquals(Integer.valueOf(0), lastWins.rowKeys().get(1));
+        assertEquals(Integer.valueOf(63), lastWins.get(-1, 0));
+        assertEquals(Integer.valueOf(37), lastWins.get(3705, 5));
+
+        CSVTableContainer<Integer, Integer, Integer> firstWins =
+                new CSVTableContainer<>("id", Integer.class, Integer.class, Integer.class);
+        firstWins.push(-1, 0, -1);
+        firstWins.mergeAll(partitions, MergePolicy.firstWins());
+        assertEquals(Integer.valueOf(-1), firstWins.get(-1, 0));
+
+        CSVTableContainer<Integer, Integer, Integer> sum =
+                new CSVTableContainer<>("id", Integer.class, Integer.class, Integer.class);
+        sum.createIndex(0);
+        sum.mergeAll(partitions, Integer::sum);
+        assertEquals(Integer.valueOf(63 * 64 / 2), sum.get(-1, 0));
+        assertEquals(Lists.newArrayList(-1), sum.index(0).top(1));
+
+        DoubleTableContainer<Integer, Integer> doubleSum = new DoubleTableContainer<>("id", Integer.class, Integer.class);
+        doubleSum.pushDouble(-1, 0, 1);
+        doubleSum.mergeAll(Lists.newArrayList(doublePart, doublePart.clone()), Double::sum);
+        assertEquals(129, doubleSum.getDouble(-1, 0), 0);
+    }
+
+    @Test
+    public void test0KeyViews() {
+        List<String> rowKeys = csvTableContainer.rowKeys();
+        List<String> columnKeys = csvTableContainer.columnKeys();
+        for (List<String> keys : Lists.newArrayList(rowKeys, columnKeys,
+                new DoubleTableContainer<String, String>("time").rowKeys(),
+                new ConcurrentTableContainer<String, String, String>("time").columnKeys())) {
+            try {
+                keys.add("4:00");
+                fail();
+            } catch (UnsupportedOperationException ignored) {
+            }
+        }
+        try {
+            rowKeys.remove(0);
+            fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+        // copy the keys before modifying them
+        List<String> copy = Lists.newArrayList(rowKeys);
+        copy.add("4:00");
+        assertEquals(copy.size() - 1, csvTableContainer.rowKeys().size());
+    }
+
+    @Test
+    public void test0Cells() {
+        List<String> rowKeys = csvTableContainer.rowKeys();
+        List<String> columnKeys = csvTableContainer.columnKeys();
+        csvTableContainer.push("4:00", "size", "4KB");
+        assertEquals(4, rowKeys.size());
+        assertEquals("size", columnKeys.get(2));
+        assertEquals(6, csvTableContainer.cells().count());
+        assertEquals("1:00/cost=10ms", csvTableContainer.cells().findFirst()
+                .map(cell -> cell.getRowKey() + "/" + cell.getColumnKey() + "=" + cell.getValue()).orElse(null));
+
+        CSVTableContainer<Integer, Integer, Integer> largeContainer =
+                new CSVTableContainer<>("id", Integer.class, Integer.class, Integer.class);
+        DoubleTableContainer<Integer, Integer> doubleContainer = new DoubleTableContainer<>("id", Integer.class, Integer.class);
+        for (int i = 0; i < 10000; i++) {
+            largeContainer.push(i, i % 50, i);
+            doubleContainer.pushDouble(i, i % 50, i);
+        }
+        assertEquals(49995000L, largeContainer.cells().parallel().mapToLong(cell -> cell.getValue()).sum());
+        assertEquals(49995000L, largeContainer.cells().mapToLong(cell -> cell.getValue()).sum());
+        assertEquals(10000, largeContainer.cells().parallel().map(cell -> cell.getRowKey()).distinct().count());
+        assertEquals(49995000.0, doubleContainer.cells().parallel().mapToDouble(cell -> cell.getValue()).sum(), 0);
+    }
+
+    @Test
+    public void test0BulkLoad() {
+        int rows = 100000;
+        int columns = 20;
+        List<Integer> rowKeys = Lists.newArrayList();
+        List<String> columnKeys = Lists.newArrayList();
+        Integer[][] values = new Integer[columns][rows];
+        for (int i = 0; i < rows; i++) {
+            rowKeys.add(i);
+        }
+        for (int j = 0; j < columns; j++) {
+            columnKeys.add("column-" + j);
+            for (int i = 0; i < rows; i++) {
+                values[j][i] = i % (j + 1) == 0 ? null : i + j;
+            }
+        }
+        CSVTableContainer<Integer, String, Integer> pushed =
+                new CSVTableContainer<>("id", Integer.class, String.class, Integer.class);
+        TimerManager.create("container.push");
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                pushed.push(rowKeys.get(i), columnKeys.get(j), values[j][i]);
+            }
+        }
+        TimerManager.stop("container.push");
+        CSVTableContainer<Integer, String, Integer> loaded =
+                new CSVTableContainer<>("id", Integer.class, String.class, Integer.class);
+        TimerManager.create("container.bulkLoad");
+        loaded.bulkLoad(rowKeys, columnKeys, values);
+        TimerManager.stop("container.bulkLoad");
+        System.out.println("push 100000 x 20 cells: " + TimerManager.format("container.push")
+                + ", bulk load: " + TimerManager.format("container.bulkLoad"));
+        assertEquals(pushed.rowKeys(), loaded.rowKeys());
+        assertEquals(pushed.columnKeys(), loaded.columnKeys());
+        assertEquals(pushed.cells().count(), loaded.cells().count());
+        assertEquals(pushed.singleRow(99999), loaded.singleRow(99999));
+
+        loaded.pushRow(-1, ImmutableMap.of("column-1", 1, "extra", 2));
+        loaded.pushColumn("column-0", ImmutableMap.of(-1, 0, 1, 1));
+        assertEquals(Integer.valueOf(2), loaded.get(-1, "extra"));
+        assertEquals(Integer.valueOf(0), loaded.get(-1, "column-0"));
+        assertEquals(Integer.valueOf(1), loaded.get(1, "column-0"));
+        assertEquals("extra", loaded.columnKeys().get(columns));
+
+        ConcurrentTableContainer<Integer, String, Integer> concurrent =
+                new ConcurrentTableContainer<>("id", Integer.class, String.class, Integer.class);
+        concurrent.bulkLoad(rowKeys.subList(0, 100), columnKeys, Arrays.stream(values)
+                .map(column -> Arrays.copyOf(column, 100)).toArray(Integer[][]::new));
+        assertEquals(pushed.singleRow(99), concurrent.singleRow(99));
+        try {
+            loaded.bulkLoad(rowKeys.subList(0, 10), columnKeys, values);
+            fail();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Compare {@link TableContainer#bulkLoad(List, List, Object[][])} with pushing the same
+     * cells one by one, both into an empty container.
+     */
+    @Test
+    @Category(Benchmark.class)
+    public void benchmarkBulkLoad() throws Exception {
+        int rows = 100000;
+        int columns = 20;
+        List<Integer> rowKeys = Lists.newArrayList();
+        List<String> columnKeys = Lists.newArrayList();
+        Integer[][] values = new Integer[columns][rows];
+        for (int i = 0; i < rows; i++) {
+            rowKeys.add(i);
+        }
+        for (int j = 0; j < columns; j++) {
+            columnKeys.add("column-" + j);
+            for (int i = 0; i < rows; i++) {
+                values[j][i] = i + j;
+            }
+        }
+        long push = Benchmark.fastestNanos(5, () -> {
+            CSVTableContainer<Integer, String, Integer> pushed =
+                    new CSVTableContainer<>("id", Integer.class, String.class, Integer.class);
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    pushed.push(rowKeys.get(i), columnKeys.get(j), values[j][i]);
+                }
+            }
+            return pushed;
+        });
+        long bulkLoad = Benchmark.fastestNanos(5, () ->
+                new CSVTableContainer<>("id", Integer.class, String.class, Integer.class).bulkLoad(rowKeys, columnKeys, values));
+        System.out.println(String.format("%d x %d cells: push %d ms, bulk load %d ms, %.1fx faster",
+                rows, columns, push / 1000000, bulkLoad / 1000000, (double) push / bulkLoad));
+    }
+
+    @Test
+    public void test0Join() {
+        CSVTableContainer<String, String, String> configuration = new CSVTableContainer<>("config");
+        configuration.push("1:00", "threads", "4");
+        configuration.push("3:00", "threads", "8");
+        configuration.push("4:00", "threads", "16");
+        configuration.push("4:00", "cost", "budget");
+
+        TableContainer<String, String, String> inner = csvTableContainer.join(configuration, JoinType.INNER);
+        inner.print();
+        assertEquals(Lists.newArrayList("1:00", "3:00"), inner.rowKeys());
+        assertEquals(Lists.newArrayList("cost", "count", "threads", "config.cost"), inner.columnKeys());
+        assertEquals("10ms", inner.get("1:00", "cost"));
+        assertEquals("8", inner.get("3:00", "threads"));
+
+        TableContainer<String, String, String> left = csvTableContainer.join(configuration, JoinType.LEFT);
+        assertEquals(Lists.newArrayList("1:00", "2:00", "3:00"), left.rowKeys());
+        assertNull(left.get("2:00", "threads"));
+
+        TableContainer<String, String, String> outer = csvTableContainer.join(configuration, JoinType.OUTER);
+        outer.print();
+        assertEquals(Lists.newArrayList("1:00", "2:00", "3:00", "4:00"), outer.rowKeys());
+        assertEquals("budget", outer.get("4:00", "config.cost"));
+        assertNull(outer.get("4:00", "cost"));
+
+        CSVTableContainer<Integer, Integer, Integer> large = new CSVTableContainer<>("id", Integer.class, Integer.class, Integer.class);
+        CSVTableContainer<Integer, Integer, Integer> small = new CSVTableContainer<>("id", Integer.class, Integer.class, Integer.class);
+        for (int i = 0; i < 50000; i++) {
+            large.push(i, 0, i);
+            if (i % 10 == 0) {
+                small.push(i, 1, -i);
+            }
+        }
+        TableContainer<Integer, Integer, Integer> joined = large.join(small, JoinType.INNER);
+        assertEquals(5000, joined.rowKeys().size());
+        assertEquals(Integer.valueOf(-49990), joined.get(49990, 1));
+        try {
+            large.join(large, JoinType.INNER);
+            fail();
+        } catch (ContainerRuntimeException e) {
+            System.out.println(e.getMessage());
+        }
+        assertEquals(Integer.valueOf(7), large.join(large, JoinType.LEFT, column -> column + 1).get(7, 1));
+    }
+
     @Test
     public void test0Filter() {
         CSVTableContainer<String, String, ResultUnit> csvTableContainer =
@@ -216,6 +726,56 @@ public class CSVTableContainerTest {
         assertTrue(true);
     }
 
+    @Test
+    public void test0SparseSortAndFilter() {
+        CSVTableContainer<Integer, Integer, Integer> sparseContainer =
+                new CSVTableContainer<>("id", Integer.class, Integer.class, Integer.class);
+        for (int i = 0; i < 20000; i++) {
+            sparseContainer.push(i, (i * 7) % 2000, i);
+        }
+        TimerManager.create("container.sparse");
+        sparseContainer.sort(Comparator.reverseOrder(), Comparator.reverseOrder());
+        sparseContainer.filter(rowKey -> rowKey % 2 == 0, columnKey -> columnKey < 1000);
+        TimerManager.stop("container.sparse");
+        System.out.println("sort and filter 20000 x 2000 sparse cells: " + TimerManager.format("container.sparse"));
+        assertEquals(10000, sparseContainer.rowKeys().size());
+        assertEquals(Integer.valueOf(19998), sparseContainer.rowKeys().get(0));
+        assertEquals(Integer.valueOf(999), sparseContainer.columnKeys().get(0));
+        assertEquals(Integer.valueOf(140), sparseContainer.get(140, 980));
+        assertNull(sparseContainer.get(1000, 1000));
+        assertEquals(5000, sparseContainer.columnMap().values().stream().mapToInt(Map::size).sum());
+    }
+
+    @Test
+    public void test0Snapshot() throws InterruptedException, DataPersistenceException, DataLoadingException {
+        TableContainer<String, String, String> snapshot = csvTableContainer.snapshot();
+        assertTrue(snapshot instanceof CSVTableContainer);
+        assertTrue(snapshot.isReadOnly());
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 10000; i++) {
+                csvTableContainer.push(i + ":00", "cost", i + "ms");
+            }
+        });
+        writer.start();
+        snapshot.persist(temporaryPath("snapshot-container.csv"));
+        writer.join();
+        assertEquals("10ms", snapshot.get("1:00", "cost"));
+        assertEquals("1ms", csvTableContainer.get("1:00", "cost"));
+        assertEquals(3, snapshot.rowKeys().size());
+        assertEquals(3, new CSVTableContainer<>(String.class, String.class, String.class)
+                .load(temporaryPath("snapshot-container.csv")).rowKeys().size());
+        try {
+            snapshot.push("4:00", "cost", "40ms");
+            fail();
+        } catch (ContainerRuntimeException e) {
+            assertNull(snapshot.get("4:00", "cost"));
+        }
+        TableContainer<String, String, String> copy = snapshot.clone();
+        copy.push("1:00", "cost", "15ms");
+        assertFalse(copy.isReadOnly());
+        assertEquals("10ms", snapshot.get("1:00", "cost"));
+    }
+
     @Test
     public void testContainerMisc() {
         CSVTableContainer<String, String, String> csvTableContainer = new CSVTableContainer<>();
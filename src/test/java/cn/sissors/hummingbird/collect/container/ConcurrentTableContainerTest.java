@@ -0,0 +1,191 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.collect.TableContainer;
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import org.junit.ClassRule;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.runners.MethodSorters.NAME_ASCENDING;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+@FixMethodOrder(NAME_ASCENDING)
+public class ConcurrentTableContainerTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private final static int THREADS = 8;
+    private final static int ROWS_PER_THREAD = 200;
+    private final static int COLUMNS = 20;
+
+    private static String temporaryPath(String fileName) {
+        return new File(folder.getRoot(), fileName).getPath();
+    }
+
+    @Test
+    public void test0ConcurrentPush() throws Exception {
+        ConcurrentTableContainer<String, String, Integer> container =
+                new ConcurrentTableContainer<>("row", String.class, String.class, Integer.class);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        AtomicBoolean finished = new AtomicBoolean(false);
+        AtomicBoolean consistent = new AtomicBoolean(true);
+        Future<?> reader = executor.submit(() -> {
+            while (!finished.get()) {
+                List<String> columnKeys = container.columnKeys();
+                for (String rowKey : container.rowKeys()) {
+                    for (String columnKey : columnKeys) {
+                        Integer value = container.get(rowKey, columnKey);
+                        if (value != null && value != rowKey.hashCode() + columnKey.hashCode()) {
+                            consistent.set(false);
+                        }
+                    }
+                }
+            }
+        });
+        List<Future<?>> writers = new java.util.ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < ROWS_PER_THREAD; i++) {
+                    String rowKey = "row-" + thread + "-" + i;
+                    for (int j = 0; j < COLUMNS; j++) {
+                        String columnKey = "column-" + ((j + thread) % COLUMNS);
+                        container.push(rowKey, columnKey, rowKey.hashCode() + columnKey.hashCode());
+                    }
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        finished.set(true);
+        reader.get();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(consistent.get());
+        assertEquals(THREADS * ROWS_PER_THREAD, container.rowKeys().size());
+        assertEquals(COLUMNS, container.columnKeys().size());
+        assertEquals(THREADS * ROWS_PER_THREAD * COLUMNS, container.size());
+        assertEquals(COLUMNS, container.singleRow("row-3-17").size());
+        assertEquals(THREADS * ROWS_PER_THREAD, container.singleColumn("column-5").size());
+    }
+
+    @Test
+    public void test0SharedCells() throws Exception {
+        ConcurrentTableContainer<Integer, Integer, Integer> container =
+                new ConcurrentTableContainer<>("row", Integer.class, Integer.class, Integer.class, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    container.push(i % 10, i % 7, thread);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(10, container.rowKeys().size());
+        assertEquals(7, container.columnKeys().size());
+        assertEquals(70, container.size());
+    }
+
+    @Test
+    public void test0InsertionOrder() {
+        ConcurrentTableContainer<String, String, String> container = new ConcurrentTableContainer<>("time");
+        container.push("2:00", "count", "200");
+        container.push("1:00", "cost", "10ms");
+        container.push("1:00", "count", "100");
+        container.push("2:00", "cost", null);
+        container.print();
+        assertEquals("2:00", container.rowKeys().get(0));
+        assertEquals("count", container.columnKeys().get(0));
+        assertNull(container.get("2:00", "cost"));
+        assertFalse(container.singleRow("2:00").containsKey("cost"));
+        assertEquals(3, container.size());
+    }
+
+    @Test
+    public void test0SortAndClone() {
+        ConcurrentTableContainer<String, String, String> container = new ConcurrentTableContainer<>("time");
+        container.push("2:00", "count", "200");
+        container.push("1:00", "cost", "10ms");
+        ConcurrentTableContainer<String, String, String> copy = container.clone();
+        container.sort().print();
+        assertEquals("1:00", container.rowKeys().get(0));
+        assertEquals("2:00", copy.rowKeys().get(0));
+        copy.push("3:00", "cost", "30ms");
+        assertNull(container.get("3:00", "cost"));
+    }
+
+    @Test
+    public void test0Snapshot() throws Exception {
+        ConcurrentTableContainer<Integer, Integer, Integer> container =
+                new ConcurrentTableContainer<>("row", Integer.class, Integer.class, Integer.class);
+        container.push(0, 0, 0);
+        TableContainer<Integer, Integer, Integer> snapshot = container.snapshot();
+        container.push(0, 0, 1);
+        container.push(0, 1, 1);
+        assertEquals(Integer.valueOf(0), snapshot.get(0, 0));
+        assertNull(snapshot.get(0, 1));
+        assertEquals(Integer.valueOf(1), container.get(0, 0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            executor.submit(() -> {
+                for (int i = 0; i < ROWS_PER_THREAD; i++) {
+                    for (int j = 0; j < COLUMNS; j++) {
+                        container.push(thread * ROWS_PER_THREAD + i, j, i);
+                    }
+                }
+            });
+        }
+        List<TableContainer<Integer, Integer, Integer>> snapshots = new java.util.ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            snapshots.add(container.snapshot());
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        for (TableContainer<Integer, Integer, Integer> taken : snapshots) {
+            assertEquals(taken.cells().count(), ((ConcurrentTableContainer<Integer, Integer, Integer>) taken).size());
+        }
+        assertEquals(THREADS * ROWS_PER_THREAD * COLUMNS, container.size());
+    }
+
+    @Test
+    public void test1Persist() throws DataPersistenceException {
+        ConcurrentTableContainer<String, String, String> container = new ConcurrentTableContainer<>("time");
+        container.push("1:00", "cost", "10ms");
+        container.push("1:00", "count", "100");
+        container.push("2:00", "count", "200");
+        container.persist(temporaryPath("concurrent-container.csv"));
+        assertTrue(true);
+    }
+
+    @Test
+    public void test2Load() throws DataLoadingException {
+        CSVTableContainer<String, String, String> container =
+                new ConcurrentTableContainer<>("", String.class, String.class, String.class)
+                        .load(temporaryPath("concurrent-container.csv"));
+        container.print();
+        assertEquals("200", container.get("2:00", "count"));
+    }
+}
@@ -0,0 +1,156 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.runners.MethodSorters.NAME_ASCENDING;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+@FixMethodOrder(NAME_ASCENDING)
+public class DoubleTableContainerTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private DoubleTableContainer<String, String> doubleTableContainer;
+
+    @Before
+    public void init() {
+        doubleTableContainer = new DoubleTableContainer<>("time", String.class, String.class);
+        doubleTableContainer.pushDouble("2:00", "latency", 2.5);
+        doubleTableContainer.pushDouble("2:00", "throughput", 600);
+        doubleTableContainer.pushDouble("1:00", "latency", 3.2);
+        doubleTableContainer.push("1:00", "throughput", 800.0);
+        doubleTableContainer.pushDouble("3:00", "throughput", 0);
+    }
+
+    private static String temporaryPath(String fileName) {
+        return new File(folder.getRoot(), fileName).getPath();
+    }
+
+    @Test
+    public void test0PushAndGet() {
+        doubleTableContainer.print();
+        assertEquals(2.5, doubleTableContainer.getDouble("2:00", "latency"), 0);
+        assertEquals(800.0, doubleTableContainer.get("1:00", "throughput"), 0);
+        assertEquals(0, doubleTableContainer.getDouble("3:00", "throughput"), 0);
+        assertEquals(0, doubleTableContainer.getDouble("3:00", "latency"), 0);
+        assertEquals(-1, doubleTableContainer.getDouble("4:00", "latency", -1), 0);
+        assertNull(doubleTableContainer.get("3:00", "latency"));
+        assertFalse(doubleTableContainer.containsCell("3:00", "latency"));
+        doubleTableContainer.push("2:00", "latency", null);
+        assertNull(doubleTableContainer.get("2:00", "latency"));
+    }
+
+    @Test
+    public void test0Maps() {
+        assertEquals(2, doubleTableContainer.singleRow("2:00").size());
+        assertEquals(1, doubleTableContainer.singleRow("3:00").size());
+        assertEquals(3, doubleTableContainer.singleColumn("throughput").size());
+        assertEquals(3, doubleTableContainer.rowMap().size());
+        assertEquals(2, doubleTableContainer.columnMap().size());
+    }
+
+    @Test
+    public void test0SortAndFilter() {
+        doubleTableContainer.sort().print();
+        assertEquals("1:00", doubleTableContainer.rowKeys().get(0));
+        assertEquals(3.2, doubleTableContainer.getDouble("1:00", "latency"), 0);
+        doubleTableContainer.filter(rowKey -> !rowKey.equals("2:00"), null).print();
+        assertEquals(2, doubleTableContainer.rowKeys().size());
+        assertFalse(doubleTableContainer.containsCell("2:00", "latency"));
+    }
+
+    @Test
+    public void test0Merge() {
+        DoubleTableContainer<String, String> other = new DoubleTableContainer<>("time", String.class, String.class);
+        other.pushDouble("4:00", "latency", 1.1);
+        other.pushDouble("2:00", "latency", 9.9);
+        doubleTableContainer.merge(other).print();
+        assertEquals(4, doubleTableContainer.rowKeys().size());
+        assertEquals(9.9, doubleTableContainer.getDouble("2:00", "latency"), 0);
+    }
+
+    @Test
+    public void test0Clone() {
+        DoubleTableContainer<String, String> other = (DoubleTableContainer<String, String>) doubleTableContainer.clone();
+        other.pushDouble("2:00", "latency", 7);
+        assertEquals(2.5, doubleTableContainer.getDouble("2:00", "latency"), 0);
+    }
+
+    @Test
+    public void test0ManyCells() {
+        DoubleTableContainer<Integer, Integer> largeContainer = new DoubleTableContainer<>("id", Integer.class, Integer.class);
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < 100; j++) {
+                largeContainer.pushDouble(i, j, i * j);
+            }
+        }
+        assertEquals(1000, largeContainer.rowKeys().size());
+        assertEquals(100, largeContainer.columnKeys().size());
+        assertEquals(999 * 99, largeContainer.getDouble(999, 99), 0);
+    }
+
+    @Test
+    public void test1Persist() throws DataPersistenceException {
+        doubleTableContainer.persist(temporaryPath("double-container.csv"));
+        assertTrue(true);
+    }
+
+    @Test
+    public void test2Load() throws DataLoadingException {
+        DoubleTableContainer<String, String> loadedContainer =
+                new DoubleTableContainer<>("", String.class, String.class).load(temporaryPath("double-container.csv"));
+        loadedContainer.print();
+        assertEquals("time", loadedContainer.getHeaderName());
+        assertEquals(600, loadedContainer.getDouble("2:00", "throughput"), 0);
+        assertFalse(loadedContainer.containsCell("3:00", "latency"));
+    }
+
+    @Test
+    public void test3AppendPersist() throws Exception {
+        String path = temporaryPath("append-container.csv");
+        DoubleTableContainer<Integer, String> container = new DoubleTableContainer<>("id", Integer.class, String.class);
+        container.appendMode(true);
+        for (int i = 0; i < 1000; i++) {
+            container.pushDouble(i, "latency", i);
+        }
+        container.persist(path);
+        CSVTableContainerTest.tamperHeader(path, "id", "ID");
+        for (int i = 1000; i < 1100; i++) {
+            container.pushDouble(i, "latency", i);
+        }
+        container.persist(path);
+        DoubleTableContainer<Integer, String> loaded = new DoubleTableContainer<>("", Integer.class, String.class).load(path);
+        assertEquals("ID", loaded.getHeaderName());
+        assertEquals(container.rowMap(), loaded.rowMap());
+
+        // nothing changed, nothing written
+        long length = Files.size(Paths.get(path));
+        container.persist(path);
+        assertEquals(length, Files.size(Paths.get(path)));
+
+        // an existing row changed
+        container.pushDouble(1099, "latency", -1);
+        container.persist(path);
+        loaded = new DoubleTableContainer<>("", Integer.class, String.class).load(path);
+        assertEquals("id", loaded.getHeaderName());
+        assertEquals(-1, loaded.getDouble(1099, "latency"), 0);
+        assertEquals(container.rowMap(), loaded.rowMap());
+    }
+}
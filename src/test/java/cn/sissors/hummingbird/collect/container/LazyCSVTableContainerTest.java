@@ -0,0 +1,201 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.collect.TableContainer;
+import cn.sissors.hummingbird.exceptions.ContainerRuntimeException;
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import cn.sissors.hummingbird.runtime.timer.TimerManager;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.junit.ClassRule;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+import static org.junit.runners.MethodSorters.NAME_ASCENDING;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+@FixMethodOrder(NAME_ASCENDING)
+public class LazyCSVTableContainerTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static String temporaryPath(String fileName) {
+        return new File(folder.getRoot(), fileName).getPath();
+    }
+
+    private static String containerPath() {
+        return temporaryPath("lazy-container.csv");
+    }
+
+    @Test
+    public void test0Persist() throws DataPersistenceException {
+        CSVTableContainer<Integer, String, String> container = new CSVTableContainer<>("id", Integer.class, String.class, String.class);
+        for (int i = 0; i < 100000; i++) {
+            for (int j = 0; j < 8; j++) {
+                container.push(i, "column" + j, j == 7 && i % 2 == 0 ? null : "value-" + i + "-" + j);
+            }
+        }
+        container.persist(containerPath());
+    }
+
+    @Test
+    public void test1LazyLoad() throws DataLoadingException {
+        TimerManager.create("lazy-load");
+        LazyCSVTableContainer<Integer, String, String> lazy =
+                new LazyCSVTableContainer<>(Integer.class, String.class, String.class).cacheSize(16).load(containerPath());
+        TimerManager.stop("lazy-load");
+        TimerManager.create("eager-load");
+        CSVTableContainer<Integer, String, String> eager =
+                new CSVTableContainer<>(Integer.class, String.class, String.class).load(containerPath());
+        TimerManager.stop("eager-load");
+        System.out.println(String.format("lazy load: %s, eager load: %s",
+                TimerManager.format("lazy-load"), TimerManager.format("eager-load")));
+
+        assertTrue(lazy.isLazy());
+        assertEquals("id", lazy.getHeaderName());
+        assertEquals(eager.rowKeys(), lazy.rowKeys());
+        assertEquals("value-99999-7", lazy.get(99999, "column7"));
+        assertNull(lazy.get(99998, "column7"));
+        assertNull(lazy.get(100000, "column0"));
+        assertNull(lazy.singleRow(100000));
+        assertEquals(eager.singleRow(4242), lazy.singleRow(4242));
+        assertEquals(eager.singleColumn("column3"), lazy.singleColumn("column3"));
+        assertEquals(eager.rowMap(), lazy.rowMap());
+        assertEquals(eager.cells().count(), lazy.cells().count());
+        assertTrue(lazy.memoryFootprint().total() < eager.memoryFootprint().total() / 4);
+        assertTrue(lazy.isLazy());
+    }
+
+    @Test
+    public void test1Materialize() throws DataLoadingException, DataPersistenceException {
+        LazyCSVTableContainer<Integer, String, String> lazy =
+                new LazyCSVTableContainer<>(Integer.class, String.class, String.class).cacheSize(0).load(containerPath());
+        TableContainer<Integer, String, String> snapshot = lazy.snapshot();
+        lazy.push(100000, "column0", "pushed");
+        assertFalse(lazy.isLazy());
+        assertEquals(100001, lazy.rowKeys().size());
+        assertEquals("value-43-7", lazy.get(43, "column7"));
+        assertEquals(100000, snapshot.rowKeys().size());
+        assertNull(snapshot.get(100000, "column0"));
+        try {
+            snapshot.persist(containerPath());
+            fail();
+        } catch (DataPersistenceException ignored) {
+        }
+
+        LazyCSVTableContainer<Integer, String, String> sorted =
+                new LazyCSVTableContainer<>(Integer.class, String.class, String.class).load(containerPath());
+        sorted.sort((a, b) -> b - a, null);
+        assertFalse(sorted.isLazy());
+        assertEquals(99999, (int) sorted.rowKeys().get(0));
+    }
+
+    @Test
+    public void test1NoOpenDescriptor() throws DataLoadingException, IOException {
+        Path descriptors = Paths.get("/proc/self/fd");
+        assumeTrue(Files.isDirectory(descriptors));
+        LazyCSVTableContainer<Integer, String, String> lazy =
+                new LazyCSVTableContainer<>(Integer.class, String.class, String.class).load(containerPath());
+        assertTrue(lazy.isLazy());
+        assertEquals("value-43-7", lazy.get(43, "column7"));
+        Path backing = Paths.get(containerPath()).toRealPath();
+        try (Stream<Path> links = Files.list(descriptors)) {
+            assertFalse(links.anyMatch(link -> {
+                try {
+                    return Files.readSymbolicLink(link).equals(backing);
+                } catch (IOException e) {
+                    return false;
+                }
+            }));
+        }
+    }
+
+    @Test
+    public void test1Serialize() throws DataLoadingException, IOException, ClassNotFoundException {
+        LazyCSVTableContainer<Integer, String, String> lazy =
+                new LazyCSVTableContainer<>(Integer.class, String.class, String.class).load(containerPath());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(lazy);
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            LazyCSVTableContainer<Integer, String, String> copy = (LazyCSVTableContainer<Integer, String, String>) input.readObject();
+            assertFalse(copy.isLazy());
+            assertEquals(lazy.rowMap(), copy.rowMap());
+        }
+        assertTrue(lazy.isLazy());
+    }
+
+    @Test
+    public void test2PersistOntoBackingFile() throws DataLoadingException, DataPersistenceException {
+        LazyCSVTableContainer<Integer, String, String> lazy =
+                new LazyCSVTableContainer<>(Integer.class, String.class, String.class).load(containerPath());
+        lazy.persist(containerPath());
+        assertFalse(lazy.isLazy());
+        LazyCSVTableContainer<Integer, String, String> reloaded =
+                new LazyCSVTableContainer<>(Integer.class, String.class, String.class).load(containerPath());
+        assertEquals(lazy.rowMap(), reloaded.rowMap());
+    }
+
+    @Test
+    public void test3DuplicatesAndTypes() throws IOException, DataLoadingException {
+        String path = temporaryPath("lazy-types-container.csv");
+        Files.write(Paths.get(path), ("query|count|latency\r\n#types|Long|\r\nq1|7|2.5\rq2||1\nq1||3.5\r\nq1|8\r\n\r\nq3|1|1\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        CSVTableContainer<String, String, Object> eager =
+                new CSVTableContainer<>(String.class, String.class, Object.class).schema("latency", Double.class).load(path);
+        LazyCSVTableContainer<String, String, Object> lazy = new LazyCSVTableContainer<>(String.class, String.class, Object.class);
+        lazy.schema("latency", Double.class).load(path);
+        assertEquals(Lists.newArrayList("q1", "q2"), lazy.rowKeys());
+        assertEquals(ImmutableMap.of("count", 8L, "latency", 3.5), lazy.singleRow("q1"));
+        assertEquals(eager.rowMap(), lazy.rowMap());
+        assertEquals(eager.columnMap(), lazy.columnMap());
+    }
+
+    @Test
+    public void test3MalformedLine() throws IOException, DataLoadingException {
+        String path = temporaryPath("lazy-malformed-container.csv");
+        Files.write(Paths.get(path), "query|count\r\nq1|1\r\nq2|2|3\r\n".getBytes(StandardCharsets.UTF_8));
+        LazyCSVTableContainer<String, String, String> lazy =
+                new LazyCSVTableContainer<>(String.class, String.class, String.class).load(path);
+        assertEquals("1", lazy.get("q1", "count"));
+        try {
+            lazy.get("q2", "count");
+            fail();
+        } catch (ContainerRuntimeException ignored) {
+        }
+    }
+
+    @Test
+    public void test4CompressedLoad() throws DataPersistenceException, DataLoadingException, IOException {
+        String path = temporaryPath("lazy-container.csv.gz");
+        new LazyCSVTableContainer<>(Integer.class, String.class, String.class).load(containerPath()).persist(path);
+        LazyCSVTableContainer<Integer, String, String> loaded =
+                new LazyCSVTableContainer<>(Integer.class, String.class, String.class).load(path);
+        assertFalse(loaded.isLazy());
+        assertEquals("value-99999-7", loaded.get(99999, "column7"));
+    }
+}
@@ -0,0 +1,90 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.collect.JoinType;
+import cn.sissors.hummingbird.collect.TableContainer;
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.runners.MethodSorters.NAME_ASCENDING;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+@FixMethodOrder(NAME_ASCENDING)
+public class LongTableContainerTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private LongTableContainer<String, String> longTableContainer;
+
+    @Before
+    public void init() {
+        longTableContainer = new LongTableContainer<>("time", String.class, String.class);
+        longTableContainer.pushLong("1:00", "cost", 10);
+        longTableContainer.pushLong("1:00", "count", 100);
+        longTableContainer.pushLong("2:00", "cost", 20);
+        longTableContainer.push("2:00", "count", 200L);
+        longTableContainer.pushLong("3:00", "count", 300);
+    }
+
+    private static String temporaryPath(String fileName) {
+        return new File(folder.getRoot(), fileName).getPath();
+    }
+
+    @Test
+    public void test0PushAndGet() {
+        longTableContainer.print();
+        assertEquals(10, longTableContainer.getLong("1:00", "cost"));
+        assertEquals(Long.valueOf(200), longTableContainer.get("2:00", "count"));
+        assertEquals(0, longTableContainer.getLong("3:00", "cost"));
+        assertEquals(-1, longTableContainer.getLong("3:00", "cost", -1));
+        assertNull(longTableContainer.get("3:00", "cost"));
+        assertFalse(longTableContainer.containsCell("3:00", "cost"));
+    }
+
+    @Test
+    public void test0Sort() {
+        longTableContainer.sort((r1, r2) -> -r1.compareTo(r2), null).print();
+        assertEquals("3:00", longTableContainer.rowKeys().get(0));
+        assertEquals(300, longTableContainer.getLong("3:00", "count"));
+    }
+
+    @Test
+    public void test0Join() {
+        LongTableContainer<String, String> budget = new LongTableContainer<>("budget", String.class, String.class);
+        budget.pushLong("1:00", "cost", 15);
+        TableContainer<String, String, Long> joined = longTableContainer.join(budget, JoinType.INNER);
+        joined.print();
+        assertTrue(joined instanceof LongTableContainer);
+        assertEquals(15, ((LongTableContainer<String, String>) joined).getLong("1:00", "budget.cost"));
+        assertEquals(10, ((LongTableContainer<String, String>) joined).getLong("1:00", "cost"));
+        assertEquals(3, longTableContainer.rowKeys().size());
+    }
+
+    @Test
+    public void test1Persist() throws DataPersistenceException {
+        longTableContainer.persist(temporaryPath("long-container.csv"));
+        assertTrue(true);
+    }
+
+    @Test
+    public void test2Load() throws DataLoadingException {
+        LongTableContainer<String, String> loadedContainer =
+                new LongTableContainer<>("", String.class, String.class).load(temporaryPath("long-container.csv"));
+        loadedContainer.print();
+        assertEquals(300, loadedContainer.getLong("3:00", "count"));
+        assertFalse(loadedContainer.containsCell("3:00", "cost"));
+    }
+}
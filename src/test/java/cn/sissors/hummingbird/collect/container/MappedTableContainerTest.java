@@ -0,0 +1,232 @@
+package cn.sissors.hummingbird.collect.container;
+
+import cn.sissors.hummingbird.bean.ResultUnit;
+import cn.sissors.hummingbird.collect.JoinType;
+import cn.sissors.hummingbird.collect.TableContainer;
+import cn.sissors.hummingbird.exceptions.ContainerRuntimeException;
+import cn.sissors.hummingbird.exceptions.DataLoadingException;
+import cn.sissors.hummingbird.exceptions.DataPersistenceException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author zyz
+ * @version 2026-10-18
+ */
+public class MappedTableContainerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPushAndGet() throws IOException {
+        try (MappedTableContainer<String, String, String> container = new MappedTableContainer<>("time", String.class)) {
+            container.push("1:00", "cost", "10ms");
+            container.push("1:00", "count", "100");
+            container.push("2:00", "cost", "20ms");
+            container.push("1:00", "cost", "15ms");
+            container.push("2:00", "count", null);
+            container.print();
+            assertEquals("15ms", container.get("1:00", "cost"));
+            assertNull(container.get("2:00", "count"));
+            assertNull(container.get("3:00", "count"));
+            assertEquals(3, container.size());
+            container.push("1:00", "cost", null);
+            assertEquals(2, container.size());
+            assertEquals(1, container.singleRow("1:00").size());
+            assertEquals(1, container.singleColumn("cost").size());
+        }
+    }
+
+    @Test
+    public void testIndexGrowth() throws IOException, DataPersistenceException {
+        try (MappedTableContainer<Integer, Integer, Integer> container = new MappedTableContainer<>("id", Integer.class)) {
+            for (int i = 0; i < 100; i++) {
+                for (int j = 0; j < 50; j++) {
+                    container.push(i, j, i * j);
+                }
+                container.push(i, 0, null);
+            }
+            assertEquals(4900, container.size());
+            assertEquals(Integer.valueOf(99 * 49), container.get(99, 49));
+            assertNull(container.get(0, 0));
+            assertEquals(Integer.valueOf(1), container.get(1, 1));
+            // the index holds a single table of 16384 slots right after the header
+            String path = folder.getRoot().getPath() + "/grown-container";
+            container.persist(path);
+            assertEquals(64 + 16384 * 16, new File(path + ".index").length());
+        }
+    }
+
+    @Test
+    public void testPersistAndLoad() throws DataPersistenceException, DataLoadingException, IOException {
+        String path = folder.getRoot().getPath() + "/mapped-container";
+        try (MappedTableContainer<String, String, ResultUnit> container =
+                     new MappedTableContainer<>("time", ResultUnit.class, path)) {
+            container.push("1:00", "result", new ResultUnit(2.5, 0.3));
+            container.push("2:00", "result", new ResultUnit(6, 1.1));
+            container.persist(path);
+            container.persist(folder.getRoot().getPath() + "/mapped-container-copy");
+            container.push("3:00", "result", new ResultUnit(9, 1.5));
+        }
+        try (MappedTableContainer<String, String, ResultUnit> loaded =
+                     new MappedTableContainer<String, String, ResultUnit>("", ResultUnit.class).load(path)) {
+            loaded.print();
+            assertEquals("time", loaded.getHeaderName());
+            assertEquals("r=6.0, e=1.1", loaded.get("2:00", "result").toString());
+            // keys registered after the last persist are kept by the key log
+            assertEquals("r=9.0, e=1.5", loaded.get("3:00", "result").toString());
+            assertEquals(3, loaded.rowKeys().size());
+            loaded.push("4:00", "result", new ResultUnit(12, 1.9));
+            assertEquals(4, loaded.size());
+        }
+        try (MappedTableContainer<String, String, ResultUnit> copy =
+                     new MappedTableContainer<String, String, ResultUnit>("", ResultUnit.class)
+                             .load(folder.getRoot().getPath() + "/mapped-container-copy")) {
+            assertEquals(2, copy.size());
+            assertEquals("r=2.5, e=0.3", copy.get("1:00", "result").toString());
+        }
+    }
+
+    @Test
+    public void testCompaction() throws DataPersistenceException, DataLoadingException, IOException {
+        String path = folder.getRoot().getPath() + "/compacted-container";
+        try (MappedTableContainer<Integer, String, String> container = new MappedTableContainer<>("id", String.class)) {
+            for (int i = 0; i < 10000; i++) {
+                container.push(i % 10, "status", "retried-" + i);
+            }
+            container.push(0, "status", null);
+            container.persist(path);
+            // only the 9 live values are left, each takes 4 + 12 bytes
+            assertEquals(9 * 16, new File(path + ".data").length());
+            assertEquals("retried-9999", container.get(9, "status"));
+            container.push(0, "status", "succeeded");
+            assertEquals("succeeded", container.get(0, "status"));
+            assertEquals("retried-9991", container.get(1, "status"));
+        }
+        try (MappedTableContainer<Integer, String, String> loaded =
+                     new MappedTableContainer<Integer, String, String>("", String.class).load(path)) {
+            assertEquals(9, loaded.size());
+            assertNull(loaded.get(0, "status"));
+            assertEquals("retried-9995", loaded.get(5, "status"));
+        }
+    }
+
+    @Test
+    public void testLoadCorrupted() throws DataPersistenceException, IOException {
+        String path = folder.getRoot().getPath() + "/corrupted-container";
+        try (MappedTableContainer<String, String, String> container = new MappedTableContainer<>("time", String.class, path)) {
+            container.push("1:00", "cost", "10ms");
+            container.persist(path);
+        }
+        try (RandomAccessFile index = new RandomAccessFile(path + ".index", "rw")) {
+            index.seek(8);
+            index.writeLong(0L);
+        }
+        try (MappedTableContainer<String, String, String> container = new MappedTableContainer<>("", String.class)) {
+            try {
+                container.load(path);
+                fail();
+            } catch (DataLoadingException e) {
+                System.out.println(e.getMessage());
+            }
+            assertEquals("", container.getHeaderName());
+            container.push("1:00", "cost", "10ms");
+            assertEquals(1, container.size());
+            Files.delete(Paths.get(path + ".index"));
+            try {
+                container.load(path);
+                fail();
+            } catch (DataLoadingException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testSortAndFilter() throws IOException {
+        try (MappedTableContainer<String, String, String> container = new MappedTableContainer<>("time", String.class)) {
+            container.push("2:00", "cost", "20ms");
+            container.push("1:00", "cost", "10ms");
+            container.push("3:00", "count", "300");
+            container.sort().print();
+            assertEquals("1:00", container.rowKeys().get(0));
+            assertEquals("20ms", container.get("2:00", "cost"));
+            container.filter(rowKey -> !rowKey.equals("1:00"), null).print();
+            assertEquals(2, container.rowKeys().size());
+            assertNull(container.get("1:00", "cost"));
+            assertEquals("300", container.get("3:00", "count"));
+        }
+    }
+
+    @Test
+    public void testJoin() throws IOException {
+        try (MappedTableContainer<String, String, String> container = new MappedTableContainer<>("time", String.class);
+             MappedTableContainer<String, String, String> other = new MappedTableContainer<>("config", String.class)) {
+            container.push("1:00", "cost", "10ms");
+            container.push("2:00", "cost", "20ms");
+            other.push("2:00", "cost", "budget");
+            TableContainer<String, String, String> joined = container.join(other, JoinType.INNER);
+            joined.print();
+            assertTrue(joined instanceof MappedTableContainer);
+            assertNotEquals(container.path(), ((MappedTableContainer<String, String, String>) joined).path());
+            assertEquals("budget", joined.get("2:00", "config.cost"));
+            assertEquals("10ms", container.get("1:00", "cost"));
+            ((MappedTableContainer<String, String, String>) joined).close();
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        String path = folder.getRoot().getPath() + "/async-container";
+        try (MappedTableContainer<String, String, String> container = new MappedTableContainer<>("time", String.class)) {
+            container.push("1:00", "cost", "10ms");
+            MappedTableContainer<String, String, String> snapshot = (MappedTableContainer<String, String, String>) container.snapshot();
+            container.push("2:00", "cost", "20ms");
+            assertNotEquals(container.path(), snapshot.path());
+            assertNull(snapshot.get("2:00", "cost"));
+            try {
+                snapshot.push("3:00", "cost", "30ms");
+                fail();
+            } catch (ContainerRuntimeException ignored) {
+            }
+            snapshot.close();
+            assertFalse(Files.exists(Paths.get(snapshot.path() + ".data")));
+
+            container.persistAsync(path).get();
+            container.persistAsync(container.path()).get();
+        }
+        try (MappedTableContainer<String, String, String> loaded =
+                     new MappedTableContainer<String, String, String>("", String.class).load(path)) {
+            assertEquals(2, loaded.size());
+            assertEquals("20ms", loaded.get("2:00", "cost"));
+        }
+    }
+
+    @Test
+    public void testTemporaryFiles() throws IOException {
+        MappedTableContainer<String, String, String> container = new MappedTableContainer<>("time", String.class);
+        container.push("1:00", "cost", "10ms");
+        MappedTableContainer<String, String, String> copy = container.clone();
+        assertEquals("10ms", copy.get("1:00", "cost"));
+        copy.close();
+        assertFalse(Files.exists(Paths.get(copy.path() + ".index")));
+        assertTrue(Files.exists(Paths.get(container.path() + ".index")));
+        container.close();
+        assertFalse(Files.exists(Paths.get(container.path())));
+        assertFalse(Files.exists(Paths.get(container.path() + ".data")));
+    }
+}